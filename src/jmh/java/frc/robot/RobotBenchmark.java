@@ -0,0 +1,82 @@
+package frc.robot;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.simulation.XboxControllerSim;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Benchmarks of the robot-wide periodic paths.
+ */
+public class RobotBenchmark {
+    @Benchmark
+    public void robotPeriodic(RobotState state) {
+        state.robot.robotPeriodic();
+    }
+
+    @Benchmark
+    public void updateDashboard(ContainerState state) {
+        state.container.updateDashboard();
+    }
+
+    @Benchmark
+    public double driveVelocityInput(ContainerState state) {
+        return state.container.getVelocityInput().evaluate();
+    }
+
+    @Benchmark
+    public double driveRotationInput(ContainerState state) {
+        return state.container.getRotationInput().evaluate();
+    }
+
+    /**
+     * A whole robot, as started by {@link Main}.
+     */
+    @State(Scope.Benchmark)
+    public static class RobotState {
+        Robot robot;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            SimulationSetup.initialize();
+            this.robot = new Robot();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            CommandScheduler.getInstance().cancelAll();
+            this.robot.close();
+        }
+    }
+
+    /**
+     * A robot container with both triggers of the driver pressed, so the trigger conflict logic runs.
+     */
+    @State(Scope.Benchmark)
+    public static class ContainerState {
+        RobotContainer container;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            SimulationSetup.initialize();
+            this.container = new RobotContainer();
+
+            var driver = new XboxControllerSim(this.container.getDriverJoystick().getHID());
+            driver.setRightTriggerAxis(0.8);
+            driver.setLeftTriggerAxis(0.1);
+            driver.setLeftX(0.3);
+            driver.notifyNewData();
+            DriverStation.refreshData();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            CommandScheduler.getInstance().cancelAll();
+        }
+    }
+}
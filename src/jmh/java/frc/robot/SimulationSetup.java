@@ -0,0 +1,28 @@
+package frc.robot;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+
+/**
+ * Shared setup of the HAL simulation backend for the benchmarks.
+ */
+public final class SimulationSetup {
+    private SimulationSetup() {
+    }
+
+    /**
+     * Initialize the simulated HAL and enable the robot in teleoperated mode.
+     */
+    public static void initialize() {
+        if (!HAL.initialize(500, 0)) {
+            throw new IllegalStateException("Failed to initialize the HAL");
+        }
+        DriverStation.silenceJoystickConnectionWarning(true);
+        DriverStationSim.setDsAttached(true);
+        DriverStationSim.setAutonomous(false);
+        DriverStationSim.setEnabled(true);
+        DriverStationSim.notifyNewData();
+        DriverStation.refreshData();
+    }
+}
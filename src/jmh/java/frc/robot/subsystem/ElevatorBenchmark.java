@@ -0,0 +1,34 @@
+package frc.robot.subsystem;
+
+import frc.robot.SimulationSetup;
+import frc.robot.util.Sensors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks of the elevator control loop.
+ */
+@State(Scope.Benchmark)
+public class ElevatorBenchmark {
+    Sensors sensors;
+    Elevator elevator;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void setup() {
+        SimulationSetup.initialize();
+        this.sensors = new Sensors();
+        this.elevator = new Elevator(this.sensors);
+        // Skip the homing sequence and hold a level, as during a match.
+        this.elevator.hasResetToZero = true;
+        this.elevator.isTryingGoDown = false;
+        this.elevator.moveTo(Elevator.Level.L3);
+    }
+
+    @Benchmark
+    public void periodic() {
+        this.sensors.sample();
+        this.elevator.periodic();
+    }
+}
@@ -0,0 +1,80 @@
+package frc.robot.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Benchmarks of the pathfinder on the navigation grid. A full plan searches from scratch across the field, and a
+ * replan repairs the last search after the robot advanced a cell or an obstacle moved a cell. A full plan must stay
+ * well inside 1 ms on the roboRIO.
+ */
+@State(Scope.Benchmark)
+public class DStarLiteBenchmark {
+    // The start and the goals of the full plans, across the field, in meters.
+    private static final double START_X = 1.5;
+    private static final double START_Y = 1.5;
+    private static final double[][] GOALS = {{15.5, 6.5}, {14, 1.5}, {3.5, 7}, {12.5, 4}};
+
+    private NavGrid grid;
+    private DStarLite search;
+    private int start;
+    private int[] goals;
+    private int nextGoal;
+    // The path the replans advance along, and the position of the robot on it.
+    private int[] path;
+    private int pathIndex;
+    // The column the moving obstacle is in.
+    private int obstacleColumn;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        this.grid = NavGrid.fromJson(Path.of("src/main/deploy/pathplanner/navgrid.json"));
+        this.search = new DStarLite(this.grid);
+        this.start = this.grid.getNearestFreeCell(START_X, START_Y);
+        this.goals = new int[GOALS.length];
+        for (int i = 0; i < GOALS.length; i++) {
+            this.goals[i] = this.grid.getNearestFreeCell(GOALS[i][0], GOALS[i][1]);
+        }
+
+        this.search.plan(this.start, this.goals[0]);
+        this.path = new int[this.search.getPathLength()];
+        for (int i = 0; i < this.path.length; i++) {
+            this.path[i] = this.search.getPathCell(i);
+        }
+        this.obstacleColumn = this.grid.getColumns() / 2;
+    }
+
+    @Benchmark
+    public boolean fullPlan() {
+        // Change the goal every time, so every plan searches from scratch.
+        this.nextGoal = (this.nextGoal + 1) % this.goals.length;
+        return this.search.plan(this.start, this.goals[this.nextGoal]);
+    }
+
+    @Benchmark
+    public boolean replanMovedStart() {
+        this.pathIndex = (this.pathIndex + 1) % (this.path.length - 1);
+        return this.search.plan(this.path[this.pathIndex], this.goals[0]);
+    }
+
+    @Benchmark
+    public boolean replanMovedObstacle() {
+        // A robot-sized obstacle sweeping across the middle of the field.
+        this.obstacleColumn = this.obstacleColumn == this.grid.getColumns() / 2 + 4 ? this.grid.getColumns() / 2 - 4
+                : this.obstacleColumn + 1;
+        int row = this.grid.getRows() / 2;
+        this.search.clearDynamicObstacles();
+        for (int column = this.obstacleColumn - 1; column <= this.obstacleColumn + 1; column++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                this.search.addDynamicObstacle(column, row + dy);
+            }
+        }
+        return this.search.plan(this.start, this.goals[0]);
+    }
+}
@@ -0,0 +1,104 @@
+package frc.robot.util;
+
+import edu.wpi.first.math.estimator.DifferentialDrivePoseEstimator;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.DifferentialDriveKinematics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares odometry sampled at the main loop rate against the odometry thread. Each operation is one 20 ms main loop
+ * that buffers the samples of that loop and drains them into the pose estimator. The pose error of a curved drive at
+ * the sampling frequency is printed once per trial.
+ */
+@State(Scope.Benchmark)
+public class OdometryBenchmark {
+    // The period of the main loop in seconds.
+    private static final double LOOP_PERIOD = 0.02;
+    // The track width of the drivetrain in meters.
+    private static final double TRACK_WIDTH = 0.762;
+    // The duration of the curved drive in seconds.
+    private static final double DRIVE_DURATION = 3;
+
+    @Param({"50", "100", "200", "250"})
+    public double frequency;
+
+    private final DifferentialDriveKinematics kinematics = new DifferentialDriveKinematics(TRACK_WIDTH);
+    private OdometryBuffer buffer;
+    private DifferentialDrivePoseEstimator estimator;
+    private OdometryBuffer.SampleConsumer updateEstimator;
+    private int samplesPerLoop;
+    private double time;
+
+    /**
+     * Get the velocity of the left wheels at the given time, at most the 3 m/s of the robot.
+     */
+    private static double leftVelocity(double t) {
+        return 2 + Math.sin(4 * t);
+    }
+
+    /**
+     * Get the velocity of the right wheels at the given time, at most the 3 m/s of the robot.
+     */
+    private static double rightVelocity(double t) {
+        return 2 - Math.sin(4 * t);
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.samplesPerLoop = (int) Math.round(this.frequency * LOOP_PERIOD);
+        this.buffer = new OdometryBuffer(64);
+        this.estimator = new DifferentialDrivePoseEstimator(this.kinematics, new Rotation2d(), 0, 0, new Pose2d());
+        this.updateEstimator = (timestamp, left, right, yaw) -> this.estimator.updateWithTime(timestamp,
+                Rotation2d.fromRadians(yaw), left, right);
+        this.time = 0;
+
+        System.out.printf("Pose error at %.0f Hz after %.0f s: %.2f mm%n", this.frequency, DRIVE_DURATION,
+                this.poseError() * 1000);
+    }
+
+    /**
+     * Drive a curve and compare the odometry sampled at the frequency against a finely integrated ground truth.
+     *
+     * @return the distance between the estimated and the true pose in meters
+     */
+    private double poseError() {
+        var estimator = new DifferentialDrivePoseEstimator(this.kinematics, new Rotation2d(), 0, 0, new Pose2d());
+        double step = 1e-5;
+        double samplePeriod = 1 / this.frequency;
+        double x = 0, y = 0, heading = 0, left = 0, right = 0;
+        double nextSample = samplePeriod;
+        for (double t = 0; t < DRIVE_DURATION; t += step) {
+            double vl = leftVelocity(t + step / 2);
+            double vr = rightVelocity(t + step / 2);
+            double v = (vl + vr) / 2;
+            double omega = (vr - vl) / TRACK_WIDTH;
+            x += v * Math.cos(heading + omega * step / 2) * step;
+            y += v * Math.sin(heading + omega * step / 2) * step;
+            heading += omega * step;
+            left += vl * step;
+            right += vr * step;
+            if (t + step >= nextSample) {
+                estimator.updateWithTime(nextSample, Rotation2d.fromRadians(heading), left, right);
+                nextSample += samplePeriod;
+            }
+        }
+        var pose = estimator.getEstimatedPosition();
+        return Math.hypot(pose.getX() - x, pose.getY() - y);
+    }
+
+    @Benchmark
+    public Pose2d loop() {
+        for (int i = 0; i < this.samplesPerLoop; i++) {
+            this.time += 1 / this.frequency;
+            this.buffer.offer(this.time, 2 * this.time, 2 * this.time, 0);
+        }
+        this.buffer.drain(this.updateEstimator);
+        return this.estimator.getEstimatedPosition();
+    }
+}
@@ -10,7 +10,11 @@ import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
 import frc.libzodiac.ui.Elastic;
 import frc.libzodiac.util.CommandUtil;
-import frc.robot.subsystem.Elevator;
+import frc.robot.util.Alerts;
+import frc.robot.util.BootProfiler;
+import frc.robot.util.DataLogger;
+import frc.robot.util.LogReplay;
+import frc.robot.util.LoopProfiler;
 
 /**
  * The methods in this class are called automatically corresponding to each mode, as described in
@@ -20,6 +24,17 @@ import frc.robot.subsystem.Elevator;
 public class Robot extends TimedRobot {
     private final RobotContainer bot;
     private final Timer disabledTimer = new Timer();
+    private final LoopProfiler profiler = LoopProfiler.getInstance();
+    private final LoopProfiler.Stage sensorsStage = this.profiler.stage("Sensors");
+    private final LoopProfiler.Stage interlocksStage = this.profiler.stage("Interlocks");
+    private final LoopProfiler.Stage dashboardStage = this.profiler.stage("RobotContainer.updateDashboard()");
+    private final LoopProfiler.Stage alertsStage = this.profiler.stage("Alerts");
+    private final LoopProfiler.Stage loggerStage = this.profiler.stage("DataLogger");
+    private final Alerts alerts = Alerts.getInstance();
+    private final DataLogger logger = DataLogger.getInstance();
+    private final Alerts.Alert driverStationConnectedAlert = this.alerts.add("Driver Station Connected",
+            new Elastic.Notification().withTitle("Driver Station Connected")
+                    .withLevel(Elastic.Notification.NotificationLevel.INFO).withDisplaySeconds(3));
     private Command autonomousCommand;
 
     /**
@@ -27,13 +42,36 @@ public class Robot extends TimedRobot {
      * initialization code.
      */
     public Robot() {
+        this(null);
+    }
+
+    /**
+     * Construct the robot, reading its inputs from a recorded log instead of the hardware.
+     *
+     * @param replay the log to replay, or null to read the hardware
+     */
+    public Robot(LogReplay replay) {
         // Instantiate our RobotContainer.  This will perform all our button bindings, and put our
-        // autonomous chooser on the dashboard.
-        this.bot = new RobotContainer();
+        // autonomous chooser on the dashboard. The profiler marks the button bindings so it can
+        // attribute the time of the scheduler to the subsystems, the buttons and the commands.
+        this.profiler.setLoopPeriod(this.getPeriod());
+        this.profiler.beginBindings();
+        this.bot = new RobotContainer(replay);
+        this.profiler.endBindings();
+        // Start the data log after every subsystem has registered its signals. A replay is logged next to its log.
+        if (replay == null) {
+            this.logger.start();
+        } else {
+            var path = replay.getPath().toAbsolutePath();
+            this.logger.start(path.getParent().toString(),
+                    path.getFileName().toString().replace(".wpilog", "") + "_replay.wpilog");
+        }
+        BootProfiler.getInstance().ready();
     }
 
     @Override
     public void driverStationConnected() {
+        this.driverStationConnectedAlert.fire();
         CommandUtil.rumbleController(this.bot.getDriverJoystick().getHID(), 0.5, 0.5);
         CommandUtil.rumbleController(this.bot.getOperatorJoystick().getHID(), 0.5, 0.5);
     }
@@ -43,6 +81,7 @@ public class Robot extends TimedRobot {
      */
     @Override
     public void disabledInit() {
+        this.bot.getJitWarmup().onModeChange();
         this.bot.setMotorBrake(true);
         this.disabledTimer.reset();
         this.disabledTimer.start();
@@ -53,6 +92,8 @@ public class Robot extends TimedRobot {
      */
     @Override
     public void autonomousInit() {
+        long start = System.nanoTime();
+        this.bot.getJitWarmup().onModeChange();
         Elastic.selectTab("Autonomous");
 
         this.autonomousCommand = this.bot.getAutonomousCommand();
@@ -62,10 +103,13 @@ public class Robot extends TimedRobot {
             this.autonomousCommand.schedule();
         }
         this.bot.getLeaveCommand().schedule();
+        this.bot.getAutoWarmup().startTiming(System.nanoTime() - start);
     }
 
     @Override
     public void teleopInit() {
+        this.bot.getJitWarmup().onModeChange();
+        this.bot.finishStartup();
         // This makes sure that the autonomous stops running when
         // teleop starts running. If you want the autonomous to
         // continue until interrupted by another command, remove
@@ -79,6 +123,8 @@ public class Robot extends TimedRobot {
 
     @Override
     public void testInit() {
+        this.bot.getJitWarmup().onModeChange();
+        this.bot.finishStartup();
         // Cancels all running commands at the start of test mode.
         CommandScheduler.getInstance().cancelAll();
     }
@@ -92,21 +138,50 @@ public class Robot extends TimedRobot {
      */
     @Override
     public void robotPeriodic() {
-        if (this.bot.getElevatorSensorPosition().gt(Elevator.Level.L3.getSensorPosition())) {
-            this.bot.getSetDrivetrainSlowCommand(true).schedule();
-        }
+        long start = System.nanoTime();
+        this.profiler.beginLoop();
+        this.bot.getInputLatency().beginLoop();
+
+        this.sensorsStage.start();
+        this.bot.sampleSensors();
+        this.sensorsStage.stop();
+
+        this.interlocksStage.start();
+        this.bot.updateInterlocks();
+        this.interlocksStage.stop();
 
         // Runs the Scheduler.  This is responsible for polling buttons, adding newly-scheduled
         // commands, running already-scheduled commands, removing finished or interrupted commands,
         // and running subsystem periodic() methods.  This must be called from the robot's periodic
         // block in order for anything in the Command-based framework to work.
-        CommandScheduler.getInstance().run();
+        this.profiler.runScheduler();
+        this.bot.getInputLatency().endLoop();
 
+        this.dashboardStage.start();
         this.bot.updateDashboard();
+        this.dashboardStage.stop();
+
+        this.alertsStage.start();
+        this.alerts.update();
+        this.alertsStage.stop();
+
+        this.loggerStage.start();
+        this.logger.sample();
+        this.loggerStage.stop();
+
+        this.profiler.endLoop();
+
+        if (this.isAutonomousEnabled()) {
+            this.bot.getAutoWarmup().recordLoop(System.nanoTime() - start);
+        }
+        this.bot.getJitWarmup().recordLoop(start);
     }
 
     @Override
     public void disabledPeriodic() {
+        this.bot.updateStartup();
+        this.bot.prepareAutonomous();
+        this.bot.warmUp();
         if (this.disabledTimer.hasElapsed(1)) {
             this.bot.setMotorBrake(false);
             this.disabledTimer.stop();
@@ -133,4 +208,21 @@ public class Robot extends TimedRobot {
     @Override
     public void testPeriodic() {
     }
+
+    /**
+     * This function is called periodically in simulation, after robotPeriodic.
+     */
+    @Override
+    public void simulationPeriodic() {
+        this.bot.updateSimulation();
+    }
+
+    /**
+     * Get the robot container.
+     *
+     * @return the robot container
+     */
+    public RobotContainer getContainer() {
+        return this.bot;
+    }
 }
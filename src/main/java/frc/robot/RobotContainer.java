@@ -1,46 +1,179 @@
 package frc.robot;
 
-import edu.wpi.first.cameraserver.CameraServer;
-import edu.wpi.first.math.MathUtil;
+import com.pathplanner.lib.auto.AutoBuilder;
+import com.pathplanner.lib.commands.PathPlannerAuto;
+import com.pathplanner.lib.path.GoalEndState;
+import com.pathplanner.lib.path.PathConstraints;
+import com.pathplanner.lib.pathfinding.Pathfinding;
+import com.pathplanner.lib.util.FlippingUtil;
+import edu.wpi.first.apriltag.AprilTagFieldLayout;
+import edu.wpi.first.apriltag.AprilTagFields;
 import edu.wpi.first.math.controller.PIDController;
 import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.DifferentialDriveKinematics;
+import edu.wpi.first.networktables.NetworkTableInstance;
 import edu.wpi.first.units.measure.Angle;
 import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
 import edu.wpi.first.wpilibj.PowerDistribution;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj.XboxController;
 import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
 import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.button.CommandXboxController;
 import edu.wpi.first.wpilibj2.command.button.JoystickButton;
 import frc.libzodiac.drivetrain.Differential;
 import frc.libzodiac.drivetrain.PathPlanner;
-import frc.libzodiac.hardware.Limelight;
 import frc.libzodiac.hardware.Pigeon;
 import frc.libzodiac.util.CommandUtil;
 import frc.libzodiac.util.Rotation2dSupplier;
+import frc.robot.sim.RobotSimulation;
 import frc.robot.subsystem.Elevator;
 import frc.robot.subsystem.Intake;
 import frc.robot.subsystem.Outtake;
-
+import frc.robot.subsystem.io.DrivetrainIO;
+import frc.robot.subsystem.io.DrivetrainIOReal;
+import frc.robot.subsystem.io.DrivetrainIOReplay;
+import frc.robot.subsystem.io.ElevatorIO;
+import frc.robot.subsystem.io.ElevatorIOReal;
+import frc.robot.subsystem.io.ElevatorIOReplay;
+import frc.robot.subsystem.io.ElevatorIOSink;
+import frc.robot.subsystem.io.IntakeIO;
+import frc.robot.subsystem.io.IntakeIOReal;
+import frc.robot.subsystem.io.IntakeIOReplay;
+import frc.robot.subsystem.io.IntakeIOSink;
+import frc.robot.subsystem.io.OuttakeIOReal;
+import frc.robot.subsystem.io.OuttakeIOReplay;
+import frc.robot.util.AutoWarmup;
+import frc.robot.util.BootProfiler;
+import frc.robot.util.DataLogger;
+import frc.robot.util.DriverCamera;
+import frc.robot.util.FieldTarget;
+import frc.robot.util.GridPathfinder;
+import frc.robot.util.InputLatency;
+import frc.robot.util.InputPipeline;
+import frc.robot.util.Interlocks;
+import frc.robot.util.JitWarmup;
+import frc.robot.util.LogReplay;
+import frc.robot.util.NavGrid;
+import frc.robot.util.NavGridCompiler;
+import frc.robot.util.OdometryThread;
+import frc.robot.util.PathTable;
+import frc.robot.util.Sensors;
+import frc.robot.util.Telemetry;
+import frc.robot.util.Tuning;
+import frc.robot.util.VisionFusion;
+import org.json.simple.parser.ParseException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.DoubleSupplier;
 
 public class RobotContainer {
+    // The frequency of the odometry thread in Hz.
+    private static final double ODOMETRY_FREQUENCY = 200;
+    // The USB device of the driver camera, and the bandwidth limit of its stream in bits per second, under the
+    // 4 Mbit/s of the field network.
+    private static final int DRIVER_CAMERA_DEVICE = 0;
+    private static final double DRIVER_CAMERA_BANDWIDTH = 2.5e6;
+
     // The driver's controller
     private final CommandXboxController driver = new CommandXboxController(0);
     // The driver's second controller
     private final CommandXboxController operator = new CommandXboxController(1);
+    // The log being replayed, or null when running on the hardware or in simulation
+    private final LogReplay replay;
+    // The snapshot of the sensors, sampled at the start of each loop
+    private final Sensors sensors;
+    // The shaped inputs of the driver, evaluated at most once per loop
+    private final InputPipeline velocityInput;
+    private final InputPipeline rotationInput;
+    private final InputPipeline headingXInput;
+    private final InputPipeline headingYInput;
     // The robot's subsystems
     private final Differential drivetrain;
+    // The odometry sampled faster than the main loop.
+    private final OdometryThread odometry;
+    // The Limelight pose estimates fused into the odometry.
+    private final VisionFusion vision;
+    // The pose of the drivetrain sampled at the start of the loop, in meters and radians.
+    private double poseX = 0;
+    private double poseY = 0;
+    private double poseHeading = 0;
+    // The physics of the robot, only in simulation.
+    private final RobotSimulation simulation;
     private final PowerDistribution powerDistribution = new PowerDistribution();
-    private final Elevator elevator = new Elevator();
-    private final Intake intake = new Intake();
-    private final Outtake outtake = new Outtake();
-
-    private final SendableChooser<Command> autoChooser;
+    private final Sensors.DoubleSignal voltage;
+    private final Sensors.DoubleSignal matchTime;
+    private final Elevator elevator;
+    private final Intake intake;
+    private final Outtake outtake;
+
+    private SendableChooser<Command> autoChooser;
+    // The parsing of the auto files, after which the chooser is built.
+    private final CompletableFuture<Void> autoFiles;
+    // The preparation of the selected auto while disabled.
+    private final AutoWarmup autoWarmup;
+    // The auto and the alliance the pose was last reset to the start of.
+    private Command startPoseAuto;
+    private boolean startPoseFlipped;
+    // The warmup of the code of the enabled modes while disabled.
+    private final JitWarmup jitWarmup = new JitWarmup(TimedRobot.kDefaultPeriod,
+            RobotBase.isSimulation() || Tuning.get("jit.monitor", 0) != 0);
+    // The trace of the driver inputs from the driver station packets to the drive outputs.
+    private final InputLatency inputLatency = new InputLatency();
+    // The command that drives the robot out of the starting area.
+    private final Command leaveCommand;
+    // The precomputed paths to the field targets, or null if they were not deployed.
+    private final PathTable pathTable;
+    // The AprilTags on the field, to find the field targets without the path table.
+    private final AprilTagFieldLayout fieldLayout;
+    // The constraints of the paths to the field targets, the defaults of the PathPlanner settings.
+    private static final PathConstraints PATH_CONSTRAINTS = new PathConstraints(0.5, 0.5, Math.PI, Math.PI);
+
+    // The rules between the subsystems.
+    private final Interlocks interlocks = new Interlocks();
+    // The slow mode of the drivetrain before the elevator interlock engaged.
+    private boolean slowModeBeforeElevatorRaised;
+
+    // The telemetry published to the dashboard.
+    private final Telemetry telemetry = new Telemetry(NetworkTableInstance.getDefault().getTable("SmartDashboard"),
+            TimedRobot.kDefaultPeriod);
 
+    /**
+     * Construct a new RobotContainer on the hardware, or in simulation.
+     */
     public RobotContainer() {
+        this(null);
+    }
+
+    /**
+     * Construct a new RobotContainer.
+     *
+     * @param replay the log to replay the inputs from, or null to read the hardware
+     */
+    public RobotContainer(LogReplay replay) {
+        this.replay = replay;
+        // In a replay, the snapshots are timestamped as they were recorded.
+        this.sensors = replay == null ? new Sensors() : new Sensors(() -> replay.getDouble("Sensors/Timestamp", 0));
+        this.voltage = this.sensors.addDouble(this.powerDistribution::getVoltage);
+        this.matchTime = this.sensors.addDouble(DriverStation::getMatchTime);
+
+        // Configure the motors of the subsystems in the background, while the drivetrain is configured
+        var boot = BootProfiler.getInstance();
+        CompletableFuture<ElevatorIO> elevatorIOFuture = replay == null
+                ? boot.async("Elevator Motors", ElevatorIOReal::new)
+                : CompletableFuture.completedFuture(new ElevatorIOReplay(replay));
+        CompletableFuture<IntakeIO> intakeIOFuture = replay == null ? boot.async("Intake Motors", IntakeIOReal::new)
+                : CompletableFuture.completedFuture(new IntakeIOReplay(replay));
+
         // Configure the drivetrain
         Differential.Config differentialConfig = new Differential.Config();
         differentialConfig.ROBOT_WIDTH = 0.762;
@@ -61,32 +194,293 @@ public class RobotContainer {
         differentialConfig.leftEncoderPhase = true;
         differentialConfig.rightEncoderPhase = true;
 
-        differentialConfig.gyro = new Pigeon(0);
+        Pigeon gyro = new Pigeon(0);
+        differentialConfig.gyro = gyro;
 
-        differentialConfig.pidController = new PIDController(1, 0.0005, 0.02);
-        differentialConfig.headingController = new PIDController(0.5, 0.025, 0.2);
+        differentialConfig.pidController = new PIDController(Tuning.get("drive.kP", 1), Tuning.get("drive.kI", 0.0005),
+                Tuning.get("drive.kD", 0.02));
+        differentialConfig.headingController = new PIDController(Tuning.get("heading.kP", 0.5),
+                Tuning.get("heading.kI", 0.025), Tuning.get("heading.kD", 0.2));
         differentialConfig.headingController.setIZone(Math.PI / 8);
 
-        this.drivetrain = new Differential(differentialConfig, new Pose2d()); // TODO: Set initial pose
+        // TODO: Set initial pose
+        // The pose of the drivetrain, which PathPlanner drives from, is the one the odometry thread estimates. The
+        // estimator the drivetrain updates itself once per loop is not read.
+        this.drivetrain = boot.get("Drivetrain", () -> new Differential(differentialConfig, new Pose2d()) {
+            @Override
+            public Pose2d getPose() {
+                return RobotContainer.this.getPose();
+            }
 
-        // Initialize PathPlanner
-        PathPlanner.initInstance(this.drivetrain);
+            @Override
+            public void setPose(Pose2d pose) {
+                RobotContainer.this.resetPose(pose);
+            }
+        });
+
+        // Create the subsystems on the hardware or on the log
+        ElevatorIO elevatorIO = boot.get("Wait for Elevator Motors", elevatorIOFuture::join);
+        this.elevator = new Elevator(this.sensors, elevatorIO);
+        IntakeIO intakeIO = boot.get("Wait for Intake Motors", intakeIOFuture::join);
+        this.intake = new Intake(intakeIO);
+        this.outtake = new Outtake(replay == null ? new OuttakeIOReal() : new OuttakeIOReplay());
+
+        // Simulate the physics of the robot, unless its inputs are replayed
+        this.simulation = RobotBase.isSimulation() && elevatorIO instanceof ElevatorIOReal elevatorIOReal
+                && intakeIO instanceof IntakeIOReal intakeIOReal
+                ? new RobotSimulation(differentialConfig, this.drivetrain.getLeftLeader(),
+                this.drivetrain.getRightLeader(), gyro, elevatorIOReal.getLeader(), Elevator.LIMIT_SWITCH_CHANNEL,
+                intakeIOReal.getLeftMotor(), intakeIOReal.getRightMotor(), intakeIOReal.getArmMotor())
+                : null;
+
+        // Start the high-rate odometry, the only writer of the pose of the robot
+        DrivetrainIO drivetrainIO = replay == null ? boot.get("Odometry Sensors",
+                () -> new DrivetrainIOReal(this.drivetrain.getLeftLeader(), this.drivetrain.getRightLeader(), gyro,
+                        differentialConfig.WHEEL_RADIUS, ODOMETRY_FREQUENCY)) : new DrivetrainIOReplay(replay);
+        this.odometry = new OdometryThread(new DifferentialDriveKinematics(differentialConfig.ROBOT_WIDTH),
+                drivetrainIO::getLeftDistance, drivetrainIO::getRightDistance, drivetrainIO::getYaw);
+        this.odometry.start(ODOMETRY_FREQUENCY);
+        this.vision = new VisionFusion("limelight", this.odometry);
+
+        // Initialize PathPlanner, pathfinding on the compiled navigation grid
+        // The compiled files are deployed from the build directory, where the simulation reads them.
+        Path navGridDirectory = RobotBase.isSimulation() ? NavGridCompiler.BUILD_DIRECTORY
+                : Filesystem.getDeployDirectory().toPath().resolve("pathplanner");
+        NavGrid navGrid = boot.get("Navigation Grid", () -> loadNavGrid(navGridDirectory));
+        if (navGrid != null) {
+            Pathfinding.setPathfinder(new GridPathfinder(navGrid));
+        }
+        boot.run("PathPlanner", () -> PathPlanner.initInstance(this.drivetrain));
+        this.pathTable = navGrid == null ? null : loadPathTable(navGrid, navGridDirectory);
+        this.fieldLayout = boot.get("AprilTag Field Layout",
+                () -> AprilTagFieldLayout.loadField(AprilTagFields.k2025ReefscapeWelded));
+        this.autoWarmup = new AutoWarmup(differentialConfig.ROBOT_WIDTH);
 
         // Configure the button bindings
         this.configureButtonBindings();
         this.drivetrain.setDirectAngle(false);
         this.drivetrain.setSlowMode(true);
         this.drivetrain.setDirectPower(true);
+        // Shape the driver inputs. The drive streams apply their own deadband on top.
+        DoubleSupplier clock = this.sensors::getTimestamp;
+        this.velocityInput = new InputPipeline(new InputPipeline.TriggerAxis(this.driver::getRightTriggerAxis,
+                this.driver::getLeftTriggerAxis, Tuning.get("driver.triggerDeadband", 0.05),
+                Tuning.get("driver.triggerConflict", 0.5)), clock)
+                .curve(Tuning.get("driver.velocityExponent", 1))
+                .slewRate(Tuning.get("driver.velocitySlewRate", Double.POSITIVE_INFINITY));
+        this.rotationInput = new InputPipeline(() -> -this.driver.getLeftX(), clock)
+                .deadband(Tuning.get("driver.rotationDeadband", 0))
+                .curve(Tuning.get("driver.rotationExponent", 1))
+                .slewRate(Tuning.get("driver.rotationSlewRate", Double.POSITIVE_INFINITY));
+        this.headingXInput = new InputPipeline(() -> -this.driver.getLeftY(), clock);
+        this.headingYInput = new InputPipeline(() -> -this.driver.getLeftX(), clock);
         this.setDriveCommand();
+        this.inputLatency.start();
+        //this.leaveCommand = Commands.runOnce(() -> this.drivetrain.drive(-0.5, 0), this.drivetrain).repeatedly()
+        //        .withTimeout(10).finallyDo(() -> this.drivetrain.drive(0, 0));
+        this.leaveCommand = Commands.runOnce(() -> this.drivetrain.driveDirectPower(-0.5, -0.5), this.drivetrain).repeatedly().withTimeout(3).finallyDo(() -> this.drivetrain.driveDirectPower(0, 0));
+        // The commands are named, so their stages in the loop profiler keep their names.
+        this.leaveCommand.setName("Leave");
+
+        // Parse the auto files in the background; the chooser is built from them before the robot is enabled
+        this.autoFiles = boot.async("Auto Files", RobotContainer::loadAutoFiles);
 
-        // Build an auto chooser
-        autoChooser = PathPlanner.getInstance().buildAutoChooser();
-        SmartDashboard.putData("Auto Chooser", autoChooser);
+        // Configure the interlocks
+        this.configureInterlocks();
 
-        // Start the camera server
+        // Configure the telemetry
+        this.configureTelemetry();
+
+        // Configure the warmup of the enabled modes
+        this.configureWarmup();
+
+        // Configure the data log
+        this.configureLogging();
+
+        // Start the driver camera in the background
         // Disable the warning
         //noinspection resource
-        CameraServer.startAutomaticCapture();
+        boot.async("Camera", () -> new DriverCamera(DRIVER_CAMERA_DEVICE, DRIVER_CAMERA_BANDWIDTH).start());
+
+        // Load the classes of the enabled modes in the background
+        boot.async("Class Preload", () -> this.jitWarmup.preloadClasses("frc/robot/", "frc/libzodiac/",
+                "edu/wpi/first/wpilibj2/command/", "edu/wpi/first/math/", "com/pathplanner/lib/commands/",
+                "com/pathplanner/lib/controllers/", "com/pathplanner/lib/trajectory/", "com/ctre/phoenix/motorcontrol/"));
+    }
+
+    /**
+     * Parse every auto file and the paths it uses, so that building the auto chooser does not wait on the disk. Runs
+     * in the background, so it does not create any command.
+     */
+    private static void loadAutoFiles() {
+        for (var name : AutoBuilder.getAllAutoNames()) {
+            try {
+                PathPlannerAuto.getPathGroupFromAutoFile(name);
+            } catch (IOException | ParseException e) {
+                DriverStation.reportWarning("Failed to load auto " + name + ": " + e.getMessage(), false);
+            }
+        }
+    }
+
+    /**
+     * Build the auto chooser once the auto files are parsed, and report the background startup phases once they have
+     * finished. Call this periodically while disabled.
+     */
+    public void updateStartup() {
+        if (this.autoChooser == null && this.autoFiles.isDone()) {
+            this.buildAutoChooser();
+        }
+        BootProfiler.getInstance().update();
+    }
+
+    /**
+     * Reset the pose to the start of the selected auto when the selection or the alliance changes, generate the
+     * trajectories of the selected auto and warm up the path following. Call this periodically while disabled.
+     */
+    public void prepareAutonomous() {
+        if (this.autoChooser == null) {
+            return;
+        }
+        var selected = this.autoChooser.getSelected();
+        boolean flipped = AutoBuilder.shouldFlip();
+        if (selected != this.startPoseAuto || flipped != this.startPoseFlipped) {
+            this.startPoseAuto = selected;
+            this.startPoseFlipped = flipped;
+            // Without a PathPlanner auto, the robot keeps the start pose of the drivetrain.
+            if (selected instanceof PathPlannerAuto auto) {
+                var pose = flipped ? FlippingUtil.flipFieldPose(auto.getStartingPose()) : auto.getStartingPose();
+                AutoBuilder.resetOdom(pose);
+                // The simulated robot is placed where the robot is placed for the auto.
+                if (this.simulation != null) {
+                    this.simulation.resetPose(pose);
+                }
+            }
+        }
+        this.autoWarmup.update(selected);
+    }
+
+    /**
+     * Warm up the code of the enabled modes. Call this periodically while disabled.
+     */
+    public void warmUp() {
+        this.jitWarmup.update();
+    }
+
+    /**
+     * Get the warmup of the code of the enabled modes.
+     *
+     * @return the warmup of the code of the enabled modes
+     */
+    public JitWarmup getJitWarmup() {
+        return this.jitWarmup;
+    }
+
+    /**
+     * Get the trace of the driver inputs from the driver station packets to the drive outputs.
+     *
+     * @return the trace of the driver inputs
+     */
+    public InputLatency getInputLatency() {
+        return this.inputLatency;
+    }
+
+    /**
+     * Get the preparation of the selected auto.
+     *
+     * @return the preparation of the selected auto
+     */
+    public AutoWarmup getAutoWarmup() {
+        return this.autoWarmup;
+    }
+
+    /**
+     * Wait for the auto files and build the auto chooser. Call this before the robot is enabled. The motors are
+     * configured before the constructor returns, and the other background phases, which the enabled modes do not need,
+     * are not waited for.
+     */
+    public void finishStartup() {
+        if (this.autoChooser == null) {
+            this.autoFiles.join();
+            this.buildAutoChooser();
+        }
+        BootProfiler.getInstance().update();
+    }
+
+    private void buildAutoChooser() {
+        this.autoChooser = BootProfiler.getInstance().get("Auto Chooser",
+                () -> PathPlanner.getInstance().buildAutoChooser());
+        SmartDashboard.putData("Auto Chooser", this.autoChooser);
+    }
+
+    /**
+     * Read the navigation grid compiled at build time.
+     *
+     * @param directory the directory of the compiled navigation grid
+     * @return the grid, or null if it cannot be loaded
+     */
+    private static NavGrid loadNavGrid(Path directory) {
+        try {
+            return NavGrid.load(directory.resolve(NavGridCompiler.NAVGRID));
+        } catch (IOException e) {
+            DriverStation.reportWarning("Failed to load the navigation grid, using PathPlanner's pathfinder: "
+                    + e.getMessage(), false);
+            return null;
+        }
+    }
+
+    /**
+     * Map the path table compiled at build time.
+     *
+     * @param grid      the navigation grid
+     * @param directory the directory of the compiled path table
+     * @return the path table, or null if it cannot be loaded
+     */
+    private static PathTable loadPathTable(NavGrid grid, Path directory) {
+        try {
+            return PathTable.load(grid, directory.resolve(NavGridCompiler.PATH_TABLE));
+        } catch (IOException e) {
+            DriverStation.reportWarning("Failed to load the path table, pathfinding on the fly: " + e.getMessage(),
+                    false);
+            return null;
+        }
+    }
+
+    /**
+     * Get the command that drives the robot to a field target. The path is looked up in the path table from the pose
+     * of the robot when the command starts, and found on the fly if the table is missing or has no path.
+     *
+     * @param target the target
+     * @return the command
+     */
+    public Command getDriveToCommand(FieldTarget target) {
+        return this.getDriveToCommand(target, target);
+    }
+
+    /**
+     * Get the command that drives the robot to the field target of its alliance, chosen when the command starts.
+     *
+     * @param blue the target on the blue alliance
+     * @param red  the target on the red alliance
+     * @return the command
+     */
+    private Command getDriveToCommand(FieldTarget blue, FieldTarget red) {
+        return Commands.defer(() -> this.buildDriveToCommand(
+                DriverStation.getAlliance().orElse(DriverStation.Alliance.Blue) == DriverStation.Alliance.Red ? red
+                        : blue), Set.of(this.drivetrain));
+    }
+
+    private Command buildDriveToCommand(FieldTarget target) {
+        if (this.pathTable == null) {
+            return AutoBuilder.pathfindToPose(target.getPose(this.fieldLayout), PATH_CONSTRAINTS);
+        }
+        var goal = this.pathTable.getPose(target);
+        // The path starts from the pose the path following drives from.
+        var waypoints = this.pathTable.getWaypoints(AutoBuilder.getCurrentPose().getTranslation(), target);
+        if (waypoints == null || waypoints.size() < 2) {
+            return AutoBuilder.pathfindToPose(goal, PATH_CONSTRAINTS);
+        }
+        return AutoBuilder.followPath(
+                GridPathfinder.createPath(waypoints, PATH_CONSTRAINTS, new GoalEndState(0, goal.getRotation())));
     }
 
     /**
@@ -107,42 +501,184 @@ public class RobotContainer {
         this.operator.povUp().onTrue(this.elevator.getMoveUpCommand());
         this.operator.povDown().onTrue(this.elevator.getMoveDownCommand());
         this.operator.povLeft().onTrue(Commands.runOnce(this.elevator::tryGoDown));
+        // Drive to the coral stations and to the reef face towards the driver station, while held.
+        this.operator.leftBumper().whileTrue(
+                this.getDriveToCommand(FieldTarget.BLUE_LEFT_STATION, FieldTarget.RED_LEFT_STATION));
+        this.operator.rightBumper().whileTrue(
+                this.getDriveToCommand(FieldTarget.BLUE_RIGHT_STATION, FieldTarget.RED_RIGHT_STATION));
+        this.operator.povRight().whileTrue(this.getDriveToCommand(FieldTarget.BLUE_REEF_1, FieldTarget.RED_REEF_1));
     }
 
     /**
-     * Set the default command for the drivetrain.
+     * Declare the rules between the subsystems. They are evaluated once per loop against the sampled sensor values and
+     * act only when their condition changes.
      */
-    private void setDriveCommand() {
-        DoubleSupplier velocitySupplier = () -> {
-            double forward = MathUtil.applyDeadband(this.driver.getRightTriggerAxis(), 0.05);
-            double reverse = MathUtil.applyDeadband(this.driver.getLeftTriggerAxis(), 0.05);
-            if (forward != 0 && reverse != 0) {
-                double velocity = forward - reverse;
-                if (Math.abs(velocity) > 0.5) {
-                    return velocity;
-                }
-                return 0;
+    private void configureInterlocks() {
+        this.interlocks.add("Elevator Above L3 Slows Drivetrain",
+                () -> this.elevator.getPositionRadians() > Elevator.Level.L3.getSensorPositionRadians(), () -> {
+                    this.slowModeBeforeElevatorRaised = this.drivetrain.getSlowMode();
+                    this.drivetrain.setSlowMode(true);
+                }, () -> this.drivetrain.setSlowMode(this.slowModeBeforeElevatorRaised));
+        this.interlocks.add("Intake Up Blocks Elevator Crossing L2",
+                () -> this.elevator.getCrossingL2State() && this.intake.getUpState(), this.elevator::brake, null);
+    }
+
+    /**
+     * Register the values and sendables shown on the dashboard. Each one is registered once and published at the
+     * period of its Elastic widget.
+     */
+    private void configureTelemetry() {
+        this.telemetry.addDouble("Match Time", this.matchTime::get, Telemetry.Tier.DASHBOARD);
+        this.telemetry.addDouble("Voltage", this.voltage::get, Telemetry.Tier.DASHBOARD);
+        this.telemetry.addSendable("Drivetrain", this.drivetrain, Telemetry.Tier.DASHBOARD);
+        this.telemetry.addSendable("Field", this.drivetrain.getField(), Telemetry.Tier.DASHBOARD);
+        this.telemetry.addSendable("Elevator", this.elevator, Telemetry.Tier.DASHBOARD);
+        this.telemetry.addSendable("Interlocks", this.interlocks, Telemetry.Tier.DASHBOARD);
+        this.telemetry.addSendable("Driver Inputs/Velocity", this.velocityInput, Telemetry.Tier.SLOW);
+        this.telemetry.addSendable("Driver Inputs/Rotation", this.rotationInput, Telemetry.Tier.SLOW);
+    }
+
+    /**
+     * Register the warmup tasks. Each task runs the logic of the enabled modes on a detached copy of a subsystem whose
+     * IO drives no motor, so the real subsystems are not touched while disabled.
+     */
+    private void configureWarmup() {
+        var elevatorSensors = new Sensors();
+        var elevatorIO = new ElevatorIOSink();
+        var elevator = Elevator.createDetached(elevatorSensors, elevatorIO);
+        var levels = Elevator.Level.values();
+        int[] elevatorRuns = {0};
+        this.jitWarmup.add("Elevator", () -> {
+            int run = elevatorRuns[0]++;
+            elevatorIO.setPositionRadians(run % 70);
+            elevatorIO.setAtBottom(run % 64 == 0);
+            if (run % 256 == 0) {
+                elevator.tryGoDown();
             }
-            return forward - reverse;
-        };
+            elevatorSensors.sample();
+            int command = run % (levels.length + 2);
+            runDetached(command < levels.length ? elevator.getMoveCommand(levels[command])
+                    : command == levels.length ? elevator.getMoveUpCommand() : elevator.getMoveDownCommand());
+            elevator.periodic();
+            elevator.getCrossingL2State();
+        }, "frc.robot.subsystem.Elevator.periodic", "frc.robot.subsystem.Elevator.moveBy",
+                "frc.robot.subsystem.Elevator.moveTo", "frc.robot.subsystem.Elevator.getCrossingL2State",
+                "frc.robot.util.Sensors.sample");
+
+        var intake = Intake.createDetached(new IntakeIOSink());
+        int[] intakeRuns = {0};
+        this.jitWarmup.add("Intake", () -> {
+            int run = intakeRuns[0]++;
+            runDetached(switch (run % 4) {
+                case 0 -> intake.getIntakeCommand();
+                case 1 -> intake.getOuttakeCommand();
+                case 2 -> intake.getStopCommand();
+                default -> intake.getIntakeCommand(1);
+            });
+            intake.getUpState();
+        }, "frc.robot.subsystem.Intake.intake", "frc.robot.subsystem.Intake.outtake",
+                "frc.robot.subsystem.Intake.stop", "frc.robot.subsystem.Intake.getIntakeCommand");
+
+        double[] driveInputs = {0};
+        this.jitWarmup.add("Driver Inputs", () -> {
+            driveInputs[0] += this.velocityInput.evaluate() + this.rotationInput.evaluate()
+                    + this.headingXInput.evaluate() + this.headingYInput.evaluate();
+        }, "frc.robot.util.InputPipeline.evaluate", "frc.robot.util.InputPipeline$TriggerAxis.getAsDouble");
+    }
+
+    /**
+     * Run a command once through its lifecycle without scheduling it.
+     *
+     * @param command the command to run
+     */
+    private static void runDetached(Command command) {
+        command.initialize();
+        command.execute();
+        command.isFinished();
+        command.end(false);
+    }
+
+    /**
+     * Register the signals recorded to the data log every loop. The inputs are replayed, and the outputs are compared
+     * in a replay.
+     */
+    private void configureLogging() {
+        var logger = DataLogger.getInstance();
+        logger.addDouble("Sensors/Timestamp", this.sensors::getTimestamp);
+        logger.addDouble("Drivetrain/Inputs/Left Distance", this.odometry::getLastLeftDistance);
+        logger.addDouble("Drivetrain/Inputs/Right Distance", this.odometry::getLastRightDistance);
+        logger.addDouble("Drivetrain/Inputs/Yaw", this.odometry::getLastYaw);
+        logger.addDouble("Drivetrain/Inputs/Pose X", () -> this.poseX);
+        logger.addDouble("Drivetrain/Inputs/Pose Y", () -> this.poseY);
+        logger.addDouble("Drivetrain/Inputs/Pose Heading", () -> this.poseHeading);
+        // The drivetrain is driven by libzodiac, so its outputs are read back from the motor controllers, which are
+        // simulated in a replay.
+        var leftLeader = this.drivetrain.getLeftLeader().getMotor();
+        var rightLeader = this.drivetrain.getRightLeader().getMotor();
+        logger.addDouble("Drivetrain/Outputs/Left Output", leftLeader::getMotorOutputPercent);
+        logger.addDouble("Drivetrain/Outputs/Right Output", rightLeader::getMotorOutputPercent);
+        logger.addBoolean("Drivetrain/Outputs/Slow Mode", this.drivetrain::getSlowMode);
+        logger.addDouble("Driver/Outputs/Velocity Input", this.velocityInput::getLast);
+        logger.addDouble("Driver/Outputs/Rotation Input", this.rotationInput::getLast);
+        for (var segment : InputLatency.Segment.values()) {
+            logger.addDouble("Driver/Latency/" + segment.getDisplayName(), () -> this.inputLatency.getLast(segment));
+        }
+        logger.addDouble("Voltage", this.voltage::get);
+        logger.addDouble("Match Time", this.matchTime::get);
+    }
 
+    /**
+     * Set the default command for the drivetrain. Each input is shaped lazily, so only the inputs the drive command
+     * reads in its current mode are evaluated, once per loop.
+     */
+    private void setDriveCommand() {
         /*
           Converts driver input into a ChassisSpeeds that is controlled by angular velocity.
          */
-        var angularVelocityInput = new Differential.InputStream(this.drivetrain, velocitySupplier).rotation(
-                () -> -this.driver.getLeftX()).deadband(0.05);
+        var velocityInput = this.inputLatency.trace(this.velocityInput);
+        var angularVelocityInput = new Differential.InputStream(this.drivetrain, velocityInput).rotation(
+                this.rotationInput::getAsDouble).deadband(0.05);
 
         /*
-          Clone's the angular velocity input stream and converts it to a direct angle input stream.
+          Shares the velocity input of the angular velocity input stream and converts it to a direct angle input stream.
          */
-        var directAngleInput = new Differential.InputStream(this.drivetrain, velocitySupplier).heading(
-                new Rotation2dSupplier(() -> -this.driver.getLeftY(), () -> -this.driver.getLeftX())).deadband(0.05);
+        var directAngleInput = new Differential.InputStream(this.drivetrain, velocityInput).heading(
+                new Rotation2dSupplier(this.headingXInput::getAsDouble, this.headingYInput::getAsDouble)).deadband(0.05);
 
         /*
           Direct angle input can only be used in field centric mode.
          */
-        this.drivetrain.setDefaultCommand(this.drivetrain.getDriveCommand(directAngleInput, angularVelocityInput,
-                this.drivetrain::getDirectAngle, this.drivetrain::getDirectPower));
+        var driveCommand = this.drivetrain.getDriveCommand(directAngleInput, angularVelocityInput,
+                this.drivetrain::getDirectAngle, this.drivetrain::getDirectPower);
+        driveCommand.setName("Drive");
+        this.drivetrain.setDefaultCommand(driveCommand);
+
+        /*
+          The drive command sets the motor outputs from the traced input when it executes.
+         */
+        CommandScheduler.getInstance().onCommandExecute(command -> {
+            if (command == driveCommand) {
+                this.inputLatency.markOutput();
+            }
+        });
+    }
+
+    /**
+     * Get the pipeline of the velocity input of the driver.
+     *
+     * @return the pipeline of the velocity input
+     */
+    InputPipeline getVelocityInput() {
+        return this.velocityInput;
+    }
+
+    /**
+     * Get the pipeline of the rotation input of the driver.
+     *
+     * @return the pipeline of the rotation input
+     */
+    InputPipeline getRotationInput() {
+        return this.rotationInput;
     }
 
     /**
@@ -150,9 +686,31 @@ public class RobotContainer {
      */
     private void zeroHeading() {
         this.drivetrain.zeroHeading();
+        this.resetPose(new Pose2d(this.getPose().getTranslation(), Rotation2d.kZero));
         CommandUtil.rumbleController(this.driver.getHID(), 0.5, 0.5);
     }
 
+    /**
+     * Get the pose of the robot estimated by the odometry thread.
+     *
+     * @return the pose of the robot, or the origin while the drivetrain is constructed
+     */
+    private Pose2d getPose() {
+        return this.odometry == null ? Pose2d.kZero : this.odometry.getPose();
+    }
+
+    /**
+     * Reset the pose of the robot estimated by the odometry thread.
+     *
+     * @param pose the pose of the robot
+     */
+    private void resetPose(Pose2d pose) {
+        // The drivetrain may set its initial pose while it is constructed, before the odometry is started.
+        if (this.odometry != null) {
+            this.odometry.resetPose(pose);
+        }
+    }
+
     /**
      * Toggle direct angle mode.
      */
@@ -167,6 +725,7 @@ public class RobotContainer {
      * @return the command to run in autonomous
      */
     public Command getAutonomousCommand() {
+        this.finishStartup();
         return this.autoChooser.getSelected();
     }
 
@@ -179,15 +738,56 @@ public class RobotContainer {
         this.drivetrain.setMotorBrake(brake);
     }
 
+    /**
+     * Sample the sensors into the snapshot of this loop.
+     */
+    public void sampleSensors() {
+        this.sensors.sample();
+        this.odometry.update();
+        this.vision.update(DriverStation.isDisabled());
+        if (this.replay != null) {
+            // The pose is estimated from every sample of the odometry thread and from the vision, which are not in the
+            // log, so it is replayed as an input.
+            AutoBuilder.resetOdom(new Pose2d(this.replay.getDouble("Drivetrain/Inputs/Pose X", 0),
+                    this.replay.getDouble("Drivetrain/Inputs/Pose Y", 0),
+                    Rotation2d.fromRadians(this.replay.getDouble("Drivetrain/Inputs/Pose Heading", 0))));
+        }
+        var pose = this.odometry.getPose();
+        this.poseX = pose.getX();
+        this.poseY = pose.getY();
+        this.poseHeading = pose.getRotation().getRadians();
+    }
+
+    /**
+     * Step the physics of the robot in simulation.
+     */
+    public void updateSimulation() {
+        if (this.simulation != null) {
+            this.simulation.update(TimedRobot.kDefaultPeriod);
+        }
+    }
+
+    /**
+     * Get the physics of the robot.
+     *
+     * @return the physics of the robot, or null if not in simulation
+     */
+    public RobotSimulation getSimulation() {
+        return this.simulation;
+    }
+
+    /**
+     * Evaluate the rules between the subsystems.
+     */
+    public void updateInterlocks() {
+        this.interlocks.update();
+    }
+
     /**
      * Update the dashboard.
      */
     public void updateDashboard() {
-        SmartDashboard.putNumber("Match Time", DriverStation.getMatchTime());
-        SmartDashboard.putNumber("Voltage", this.powerDistribution.getVoltage());
-        SmartDashboard.putData("Drivetrain", this.drivetrain);
-        SmartDashboard.putData("Field", this.drivetrain.getField());
-        SmartDashboard.putData("Elevator", this.elevator);
+        this.telemetry.update();
     }
 
     /**
@@ -208,6 +808,24 @@ public class RobotContainer {
         return this.operator;
     }
 
+    /**
+     * Get the log being replayed.
+     *
+     * @return the log being replayed, or null when running on the hardware or in simulation
+     */
+    public LogReplay getReplay() {
+        return this.replay;
+    }
+
+    /**
+     * Get the elevator.
+     *
+     * @return the elevator
+     */
+    public Elevator getElevator() {
+        return this.elevator;
+    }
+
     public Command getMoveIntakeDownCommand() {
         return this.intake.getDownCommand();
     }
@@ -217,15 +835,17 @@ public class RobotContainer {
     }
 
     public Command getLeaveCommand() {
-        //return Commands.runOnce(() -> this.drivetrain.drive(-0.5, 0), this.drivetrain).repeatedly()
-        //        .withTimeout(10).finallyDo(() -> this.drivetrain.drive(0, 0));
-        return Commands.runOnce(() -> this.drivetrain.driveDirectPower(-0.5, -0.5), this.drivetrain).repeatedly().withTimeout(3).finallyDo(() -> this.drivetrain.driveDirectPower(0, 0));
+        return this.leaveCommand;
     }
 
     public Angle getElevatorSensorPosition() {
         return this.elevator.getPosition().getSensorPosition();
     }
 
+    public double getElevatorSensorPositionRadians() {
+        return this.elevator.getPositionRadians();
+    }
+
     public Angle getTargetPosition() {
         return this.elevator.getTargetPosition().getSensorPosition();
     }
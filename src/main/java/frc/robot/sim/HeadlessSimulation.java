@@ -0,0 +1,229 @@
+package frc.robot.sim;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import frc.robot.Robot;
+import frc.robot.util.InputLatency;
+import frc.robot.util.LoopProfiler;
+
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Runs a match in simulation without the GUI, stepping the simulated time as fast as the CPU allows.
+ */
+public final class HeadlessSimulation implements AutoCloseable {
+    // The length of each part of a match in seconds.
+    public static final double AUTONOMOUS_TIME = 15;
+    public static final double TELEOP_TIME = 135;
+    // The simulated time of a match run by runMatch, with the second disabled before it, in seconds.
+    public static final double MATCH_TIME = 1 + AUTONOMOUS_TIME + TELEOP_TIME;
+    // The longest simulated time to stay disabled for the warmup before a match, in seconds.
+    public static final double WARMUP_TIMEOUT = 60;
+
+    // The simulated robot.
+    private final Robot robot;
+    // The thread running the robot loop.
+    private final Thread robotThread;
+
+    /**
+     * Start a robot in simulation. The simulated time is paused until it is stepped.
+     */
+    public HeadlessSimulation() {
+        this(Robot::new);
+    }
+
+    /**
+     * Start a robot in simulation. The simulated time is paused until it is stepped.
+     *
+     * @param robotFactory the factory of the robot, called after the HAL is initialized
+     */
+    public HeadlessSimulation(Supplier<Robot> robotFactory) {
+        if (!HAL.initialize(500, 0)) {
+            throw new IllegalStateException("Failed to initialize the HAL");
+        }
+        SimHooks.pauseTiming();
+        DriverStation.silenceJoystickConnectionWarning(true);
+        DriverStationSim.setDsAttached(true);
+        DriverStationSim.setEnabled(false);
+        DriverStationSim.notifyNewData();
+
+        this.robot = robotFactory.get();
+        this.robotThread = new Thread(this.robot::startCompetition, "Robot");
+        this.robotThread.setDaemon(true);
+        this.robotThread.start();
+        // Wait for the robot loop to start.
+        SimHooks.stepTiming(0);
+    }
+
+    /**
+     * Run a match: the warmup while disabled, autonomous, then teleoperated. Print the bytes each stage of the loop
+     * allocated per loop while enabled, after the first second of autonomous, and the latencies from the driver station
+     * packets to the drive outputs in teleoperated.
+     *
+     * @param args unused
+     */
+    public static void main(String... args) {
+        try (var simulation = new HeadlessSimulation()) {
+            if (!simulation.warmUp(WARMUP_TIMEOUT)) {
+                System.out.println("The warmup did not finish in " + WARMUP_TIMEOUT + " s");
+            }
+            double elapsed = simulation.runMatch();
+            printAllocations(LoopProfiler.getInstance().getAllocatedBytesPerLoop(false));
+            printLatency(simulation.getRobot().getContainer().getInputLatency());
+
+            var drivetrain = simulation.getSimulation().getDrivetrain();
+            System.out.printf("Simulated %.0f s in %.3f s (%.0fx real time)%n", MATCH_TIME, elapsed,
+                    MATCH_TIME / elapsed);
+            System.out.println("Final pose: " + drivetrain.getPose());
+        }
+    }
+
+    /**
+     * Stay disabled until the code of the enabled modes and the selected auto are warmed up, as the robot is before a
+     * match.
+     *
+     * @param timeout the longest simulated time to wait in seconds
+     * @return whether the warmup finished before the timeout
+     */
+    public boolean warmUp(double timeout) {
+        var container = this.robot.getContainer();
+        return !Double.isNaN(this.stepUntil(
+                () -> container.getJitWarmup().isWarm() && container.getAutoWarmup().isWarm(), timeout));
+    }
+
+    /**
+     * Run a match: a second disabled, autonomous, then teleoperated, which stays enabled at the end. The allocations of
+     * the loop are counted after the first second of autonomous, once the first loops have created and compiled the
+     * code of the mode, and the latency of the driver inputs is traced from the start of teleoperated.
+     *
+     * @return the wall-clock time the match took in seconds
+     */
+    public double runMatch() {
+        long start = System.nanoTime();
+        this.step(1);
+        this.setMode(true, true);
+        this.step(1);
+        LoopProfiler.getInstance().resetAllocations();
+        this.step(AUTONOMOUS_TIME - 1);
+        this.setMode(false, true);
+        this.robot.getContainer().getInputLatency().reset();
+        this.step(TELEOP_TIME);
+        return (System.nanoTime() - start) / 1e9;
+    }
+
+    /**
+     * Print the latencies from the driver station packets to the drive outputs.
+     *
+     * @param latency the trace of the driver inputs
+     */
+    private static void printLatency(InputLatency latency) {
+        if (latency.getTracedLoops() == 0) {
+            System.out.println("No loop traced the driver inputs to the drive outputs");
+            return;
+        }
+        System.out.printf("Input latency over %d loops (simulated ms), %d packets missed by a loop:%n",
+                latency.getTracedLoops(), latency.getLatePackets());
+        for (var segment : InputLatency.Segment.values()) {
+            System.out.printf("  %-20s p50 %6.2f  p99 %6.2f  max %6.2f%n", segment.getDisplayName(),
+                    latency.getPercentile(segment, 0.5), latency.getPercentile(segment, 0.99),
+                    latency.getPercentile(segment, 1));
+        }
+    }
+
+    /**
+     * Print the bytes allocated per loop by each stage of the loop, without the stages that contain other stages.
+     *
+     * @param allocations the bytes allocated per loop by each stage
+     */
+    private static void printAllocations(Map<String, Double> allocations) {
+        if (allocations.isEmpty()) {
+            System.out.println("The JVM does not count the allocations");
+            return;
+        }
+        System.out.println("Allocated bytes per loop:");
+        for (var allocation : allocations.entrySet()) {
+            System.out.printf("  %-40s %10.0f%n", allocation.getKey(), allocation.getValue());
+        }
+    }
+
+    /**
+     * Set the mode of the driver station.
+     *
+     * @param autonomous whether the robot is in autonomous
+     * @param enabled    whether the robot is enabled
+     */
+    public void setMode(boolean autonomous, boolean enabled) {
+        DriverStationSim.setAutonomous(autonomous);
+        DriverStationSim.setEnabled(enabled);
+        DriverStationSim.notifyNewData();
+    }
+
+    /**
+     * Run the robot loop for the given simulated time. A driver station packet is sent before each loop, as the driver
+     * station does.
+     *
+     * @param seconds the simulated time in seconds
+     */
+    public void step(double seconds) {
+        long loops = Math.round(seconds / TimedRobot.kDefaultPeriod);
+        for (long i = 0; i < loops; i++) {
+            DriverStationSim.notifyNewData();
+            SimHooks.stepTiming(TimedRobot.kDefaultPeriod);
+        }
+    }
+
+    /**
+     * Run the robot loop until the condition is true or the timeout has passed. A driver station packet is sent before
+     * each loop, as the driver station does.
+     *
+     * @param condition the condition, checked after each loop
+     * @param timeout   the timeout in simulated seconds
+     * @return the simulated time in seconds until the condition was true, or NaN on timeout
+     */
+    public double stepUntil(BooleanSupplier condition, double timeout) {
+        long loops = Math.round(timeout / TimedRobot.kDefaultPeriod);
+        for (long i = 1; i <= loops; i++) {
+            DriverStationSim.notifyNewData();
+            SimHooks.stepTiming(TimedRobot.kDefaultPeriod);
+            if (condition.getAsBoolean()) {
+                return i * TimedRobot.kDefaultPeriod;
+            }
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * Get the simulated robot.
+     *
+     * @return the simulated robot
+     */
+    public Robot getRobot() {
+        return this.robot;
+    }
+
+    /**
+     * Get the physics of the simulated robot.
+     *
+     * @return the physics of the simulated robot
+     */
+    public RobotSimulation getSimulation() {
+        return this.robot.getContainer().getSimulation();
+    }
+
+    @Override
+    public void close() {
+        this.robot.endCompetition();
+        try {
+            this.robotThread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.robot.close();
+        SimHooks.resumeTiming();
+    }
+}
@@ -0,0 +1,178 @@
+package frc.robot.sim;
+
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import frc.robot.Robot;
+import frc.robot.util.DataLogger;
+import frc.robot.util.LogReplay;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Replays a recorded {@code .wpilog} through the robot code as fast as possible. The driver station state, the
+ * joysticks and the logged inputs of the subsystems are fed back loop by loop, and the recomputed outputs are logged
+ * next to the replayed log and compared to the recorded ones. Exits with status 1 if any output diverges.
+ */
+public final class LogReplayRunner {
+    // The number of joysticks the driver station logs.
+    private static final int JOYSTICKS = 6;
+    // The difference below which two doubles are equal.
+    private static final double TOLERANCE = 1e-9;
+    // The number of loops between two flushes of the replay log, less than the frames the data logger buffers.
+    private static final int FLUSH_PERIOD = 64;
+
+    private LogReplayRunner() {
+    }
+
+    /**
+     * Replay a log.
+     *
+     * @param args the path of the log
+     * @throws IOException if the log cannot be read
+     */
+    public static void main(String... args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: LogReplayRunner <log.wpilog>");
+            System.exit(2);
+        }
+        var replay = new LogReplay(Path.of(args[0]));
+        int divergences = 0;
+        try (var simulation = new HeadlessSimulation(() -> new Robot(replay))) {
+            var logger = DataLogger.getInstance();
+            var comparisons = createComparisons(replay);
+            long start = System.nanoTime();
+            int loops = 0;
+            while (replay.next()) {
+                applyDriverStation(replay);
+                SimHooks.stepTiming(TimedRobot.kDefaultPeriod);
+                for (var comparison : comparisons) {
+                    comparison.compare(replay, loops);
+                }
+                if (++loops % FLUSH_PERIOD == 0) {
+                    logger.flush();
+                }
+            }
+            logger.stop();
+            double elapsed = (System.nanoTime() - start) / 1e9;
+
+            System.out.printf("Replayed %d loops (%.1f s) in %.3f s%n", loops, loops * TimedRobot.kDefaultPeriod,
+                    elapsed);
+            for (var comparison : comparisons) {
+                if (comparison.divergentLoops > 0) {
+                    divergences++;
+                    System.out.printf("DIVERGED %s: %d loops, first at loop %d, max error %g%n", comparison.name,
+                            comparison.divergentLoops, comparison.firstDivergentLoop, comparison.maxError);
+                }
+            }
+            System.out.printf("%d of %d outputs diverged%n", divergences, comparisons.size());
+        }
+        System.exit(divergences == 0 ? 0 : 1);
+    }
+
+    /**
+     * Create a comparison for every recorded output that the robot code still logs.
+     *
+     * @param replay the log being replayed
+     * @return the comparisons
+     */
+    private static ArrayList<Comparison> createComparisons(LogReplay replay) {
+        var logger = DataLogger.getInstance();
+        var comparisons = new ArrayList<Comparison>();
+        for (var name : replay.getNames()) {
+            if (!name.contains("/Outputs/")) {
+                continue;
+            }
+            DoubleSupplier doubleReader = logger.getDoubleReader(name);
+            BooleanSupplier booleanReader = logger.getBooleanReader(name);
+            if (doubleReader != null) {
+                comparisons.add(new Comparison(name, doubleReader::getAsDouble));
+            } else if (booleanReader != null) {
+                comparisons.add(new Comparison(name, () -> booleanReader.getAsBoolean() ? 1 : 0));
+            } else {
+                System.out.println("No longer logged: " + name);
+            }
+        }
+        return comparisons;
+    }
+
+    /**
+     * Set the simulated driver station to the recorded state of the current loop.
+     *
+     * @param replay the log being replayed
+     */
+    private static void applyDriverStation(LogReplay replay) {
+        DriverStationSim.setEnabled(replay.getBoolean("DS:enabled", false));
+        DriverStationSim.setAutonomous(replay.getBoolean("DS:autonomous", false));
+        DriverStationSim.setTest(replay.getBoolean("DS:test", false));
+        DriverStationSim.setEStop(replay.getBoolean("DS:estop", false));
+        for (int stick = 0; stick < JOYSTICKS; stick++) {
+            String prefix = "DS:joystick" + stick + "/";
+            float[] axes = replay.getFloatArray(prefix + "axes");
+            if (axes != null) {
+                DriverStationSim.setJoystickAxisCount(stick, axes.length);
+                for (int i = 0; i < axes.length; i++) {
+                    DriverStationSim.setJoystickAxis(stick, i, axes[i]);
+                }
+            }
+            boolean[] buttons = replay.getBooleanArray(prefix + "buttons");
+            if (buttons != null) {
+                DriverStationSim.setJoystickButtonCount(stick, buttons.length);
+                for (int i = 0; i < buttons.length; i++) {
+                    // The buttons are numbered from 1.
+                    DriverStationSim.setJoystickButton(stick, i + 1, buttons[i]);
+                }
+            }
+            long[] povs = replay.getIntegerArray(prefix + "povs");
+            if (povs != null) {
+                DriverStationSim.setJoystickPOVCount(stick, povs.length);
+                for (int i = 0; i < povs.length; i++) {
+                    DriverStationSim.setJoystickPOV(stick, i, (int) povs[i]);
+                }
+            }
+        }
+        DriverStationSim.notifyNewData();
+    }
+
+    /**
+     * The comparison of a recomputed output with the recorded one.
+     */
+    private static class Comparison {
+        // The name of the output.
+        private final String name;
+        // The reader of the recomputed output, booleans as 0 or 1.
+        private final DoubleSupplier recomputed;
+        // The number of loops in which the output diverged, the first one and the largest difference.
+        private int divergentLoops = 0;
+        private int firstDivergentLoop = -1;
+        private double maxError = 0;
+
+        private Comparison(String name, DoubleSupplier recomputed) {
+            this.name = name;
+            this.recomputed = recomputed;
+        }
+
+        private void compare(LogReplay replay, int loop) {
+            if (!replay.hasValue(this.name)) {
+                return;
+            }
+            double recorded = replay.getBoolean(this.name, false) ? 1 : replay.getDouble(this.name, 0);
+            double recomputed = this.recomputed.getAsDouble();
+            // NaN marks an unused output, so two NaNs are equal.
+            if (Double.isNaN(recorded) && Double.isNaN(recomputed)) {
+                return;
+            }
+            double error = Math.abs(recorded - recomputed);
+            if (!(error <= TOLERANCE)) {
+                if (this.divergentLoops++ == 0) {
+                    this.firstDivergentLoop = loop;
+                }
+                this.maxError = Double.isNaN(error) ? Double.NaN : Math.max(this.maxError, error);
+            }
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package frc.robot.sim;
+
+import com.ctre.phoenix.motorcontrol.TalonSRXSimCollection;
+import com.ctre.phoenix6.sim.Pigeon2SimState;
+import com.ctre.phoenix6.sim.TalonFXSimState;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.simulation.BatterySim;
+import edu.wpi.first.wpilibj.simulation.DIOSim;
+import edu.wpi.first.wpilibj.simulation.DifferentialDrivetrainSim;
+import edu.wpi.first.wpilibj.simulation.ElevatorSim;
+import edu.wpi.first.wpilibj.simulation.RoboRioSim;
+import frc.libzodiac.drivetrain.Differential;
+import frc.libzodiac.hardware.Pigeon;
+import frc.libzodiac.hardware.TalonFXMotor;
+import frc.libzodiac.hardware.TalonSRXMotor;
+
+/**
+ * The physics of the robot in simulation. The models are driven by the simulated motor controllers and write back to
+ * the simulated sensors, so the robot code runs unchanged. The simulation states are taken from the devices the robot
+ * code drives.
+ */
+public class RobotSimulation {
+    // The resolution of the quadrature encoders on the Talon SRXs.
+    private static final double SENSOR_UNITS_PER_ROTATION = 4096;
+    // The drivetrain, from the PathPlanner robot configuration.
+    private static final double DRIVE_GEARING = 8.46;
+    private static final double ROBOT_MASS = 52;
+    private static final double ROBOT_MOI = 6.883;
+    // The elevator. These are estimates, not measurements; the sensor is assumed to be on the drum.
+    private static final double ELEVATOR_GEARING = 10;
+    private static final double ELEVATOR_CARRIAGE_MASS = 8;
+    private static final double ELEVATOR_DRUM_RADIUS = 0.02;
+    private static final double ELEVATOR_MAX_HEIGHT = 70 * ELEVATOR_DRUM_RADIUS;
+    // The elevator height at which the bottom limit switch is pressed, in meters.
+    private static final double ELEVATOR_LIMIT_SWITCH_HEIGHT = 0.002;
+
+    // The drivetrain.
+    private final DifferentialDrivetrainSim drivetrain;
+    private final TalonSRXSimCollection leftLeader;
+    private final TalonSRXSimCollection rightLeader;
+    private final double leftDirection;
+    private final double rightDirection;
+    private final Pigeon2SimState gyro;
+    private final double wheelRadius;
+    // The readings of the encoders in meters and of the gyro in degrees when the simulated robot was last placed.
+    private double leftOffset = 0;
+    private double rightOffset = 0;
+    private double yawOffset = 0;
+
+    // The elevator.
+    private final ElevatorSim elevator = new ElevatorSim(DCMotor.getCIM(2), ELEVATOR_GEARING,
+            ELEVATOR_CARRIAGE_MASS, ELEVATOR_DRUM_RADIUS, 0, ELEVATOR_MAX_HEIGHT, true, 0);
+    private final TalonSRXSimCollection elevatorLeader;
+    private final DIOSim elevatorLimitSwitch;
+
+    // The intake. It has no sensors, so its controllers are only powered to apply their outputs.
+    private final TalonFXSimState intakeLeft;
+    private final TalonFXSimState intakeRight;
+    private final TalonSRXSimCollection intakeArm;
+
+    /**
+     * Construct a new RobotSimulation.
+     *
+     * @param config              the configuration of the drivetrain
+     * @param leftLeader          the leading motor of the left side of the drivetrain
+     * @param rightLeader         the leading motor of the right side of the drivetrain
+     * @param gyro                the gyro of the drivetrain
+     * @param elevatorLeader      the leading motor of the elevator
+     * @param elevatorLimitSwitch the DIO channel of the bottom limit switch of the elevator
+     * @param intakeLeft          the motor of the left roller of the intake
+     * @param intakeRight         the motor of the right roller of the intake
+     * @param intakeArm           the motor of the arm of the intake
+     */
+    public RobotSimulation(Differential.Config config, TalonSRXMotor leftLeader, TalonSRXMotor rightLeader,
+                           Pigeon gyro, TalonSRXMotor elevatorLeader, int elevatorLimitSwitch,
+                           TalonFXMotor intakeLeft, TalonFXMotor intakeRight, TalonSRXMotor intakeArm) {
+        this.wheelRadius = config.WHEEL_RADIUS;
+        this.drivetrain = new DifferentialDrivetrainSim(DCMotor.getCIM(2), DRIVE_GEARING, ROBOT_MOI, ROBOT_MASS,
+                config.WHEEL_RADIUS, config.ROBOT_WIDTH, null);
+        this.leftLeader = leftLeader.getMotor().getSimCollection();
+        this.rightLeader = rightLeader.getMotor().getSimCollection();
+        this.leftDirection = config.leftLeaderInverted ? -1 : 1;
+        this.rightDirection = config.rightLeaderInverted ? -1 : 1;
+        this.gyro = gyro.getPigeon().getSimState();
+
+        this.elevatorLeader = elevatorLeader.getMotor().getSimCollection();
+        this.elevatorLimitSwitch = new DIOSim(elevatorLimitSwitch);
+
+        this.intakeLeft = intakeLeft.getMotor().getSimState();
+        this.intakeRight = intakeRight.getMotor().getSimState();
+        this.intakeArm = intakeArm.getMotor().getSimCollection();
+    }
+
+    /**
+     * Step the physics.
+     *
+     * @param dt the time step in seconds
+     */
+    public void update(double dt) {
+        double batteryVoltage = RobotController.getBatteryVoltage();
+        this.leftLeader.setBusVoltage(batteryVoltage);
+        this.rightLeader.setBusVoltage(batteryVoltage);
+        this.elevatorLeader.setBusVoltage(batteryVoltage);
+        this.gyro.setSupplyVoltage(batteryVoltage);
+        this.intakeLeft.setSupplyVoltage(batteryVoltage);
+        this.intakeRight.setSupplyVoltage(batteryVoltage);
+        this.intakeArm.setBusVoltage(batteryVoltage);
+
+        // The lead voltage is on the motor side, so it is inverted back for the wheels.
+        this.drivetrain.setInputs(this.leftLeader.getMotorOutputLeadVoltage() * this.leftDirection,
+                this.rightLeader.getMotorOutputLeadVoltage() * this.rightDirection);
+        this.drivetrain.update(dt);
+        this.setEncoder(this.leftLeader, this.leftDirection,
+                (this.drivetrain.getLeftPositionMeters() + this.leftOffset) / this.wheelRadius,
+                this.drivetrain.getLeftVelocityMetersPerSecond() / this.wheelRadius);
+        this.setEncoder(this.rightLeader, this.rightDirection,
+                (this.drivetrain.getRightPositionMeters() + this.rightOffset) / this.wheelRadius,
+                this.drivetrain.getRightVelocityMetersPerSecond() / this.wheelRadius);
+        this.gyro.setRawYaw(this.drivetrain.getHeading().getDegrees() + this.yawOffset);
+
+        this.elevator.setInputVoltage(this.elevatorLeader.getMotorOutputLeadVoltage());
+        this.elevator.update(dt);
+        this.setEncoder(this.elevatorLeader, 1, this.elevator.getPositionMeters() / ELEVATOR_DRUM_RADIUS,
+                this.elevator.getVelocityMetersPerSecond() / ELEVATOR_DRUM_RADIUS);
+        // The limit switch is active low.
+        this.elevatorLimitSwitch.setValue(this.elevator.getPositionMeters() > ELEVATOR_LIMIT_SWITCH_HEIGHT);
+
+        RoboRioSim.setVInVoltage(BatterySim.calculateDefaultBatteryLoadedVoltage(
+                this.drivetrain.getCurrentDrawAmps(), this.elevator.getCurrentDrawAmps()));
+    }
+
+    /**
+     * Place the simulated robot at a pose on the field, as it is placed before a match. The encoders and the gyro keep
+     * their readings, so the odometry of the robot does not move.
+     *
+     * @param pose the pose of the robot on the field
+     */
+    public void resetPose(Pose2d pose) {
+        this.leftOffset += this.drivetrain.getLeftPositionMeters();
+        this.rightOffset += this.drivetrain.getRightPositionMeters();
+        this.yawOffset += this.drivetrain.getHeading().getDegrees() - pose.getRotation().getDegrees();
+        this.drivetrain.setPose(pose);
+    }
+
+    /**
+     * Write a position and a velocity to the quadrature encoder of a Talon SRX.
+     *
+     * @param talon     the simulated Talon SRX
+     * @param direction the direction of the motor, -1 if it is inverted
+     * @param position  the position in radians
+     * @param velocity  the velocity in radians per second
+     */
+    private void setEncoder(TalonSRXSimCollection talon, double direction, double position, double velocity) {
+        double unitsPerRadian = SENSOR_UNITS_PER_ROTATION / (2 * Math.PI);
+        talon.setQuadratureRawPosition((int) (direction * position * unitsPerRadian));
+        // The velocity of a Talon SRX is in sensor units per 100 ms.
+        talon.setQuadratureVelocity((int) (direction * velocity * unitsPerRadian / 10));
+    }
+
+    /**
+     * Get the simulated drivetrain.
+     *
+     * @return the simulated drivetrain
+     */
+    public DifferentialDrivetrainSim getDrivetrain() {
+        return this.drivetrain;
+    }
+
+    /**
+     * Get the position of the simulated elevator as measured by its sensor.
+     *
+     * @return the position in radians
+     */
+    public double getElevatorPositionRadians() {
+        return this.elevator.getPositionMeters() / ELEVATOR_DRUM_RADIUS;
+    }
+
+    /**
+     * Get the velocity of the simulated elevator as measured by its sensor.
+     *
+     * @return the velocity in radians per second
+     */
+    public double getElevatorVelocityRadiansPerSecond() {
+        return this.elevator.getVelocityMetersPerSecond() / ELEVATOR_DRUM_RADIUS;
+    }
+
+    /**
+     * Get the simulated elevator.
+     *
+     * @return the simulated elevator
+     */
+    public ElevatorSim getElevator() {
+        return this.elevator;
+    }
+}
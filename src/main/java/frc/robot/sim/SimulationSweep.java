@@ -0,0 +1,200 @@
+package frc.robot.sim;
+
+import frc.robot.util.Tuning;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs the {@link SweepScenario} for every combination of the given values of the tunable constants and the autonomous
+ * routines, in parallel, and ranks the configurations.
+ * <p>
+ * The HAL and NetworkTables are global to a process, so every configuration runs in its own JVM; the workers only
+ * launch the processes and collect their metrics.
+ * <p>
+ * Each argument is a key and its comma-separated values, e.g. {@code elevator.kP=0.05,0.1,0.2 auto=Left,Center}. The
+ * key {@code auto} selects autonomous routines by name, every other key is a {@link Tuning} key. {@code --workers=N}
+ * sets the number of parallel runs, the number of processors by default.
+ */
+public final class SimulationSweep {
+    // The key of the autonomous routines.
+    private static final String AUTO_KEY = "auto";
+    // The time after which a run is aborted, in minutes.
+    private static final long RUN_TIMEOUT = 5;
+    // The weight of the tracking error of the autonomous routine in the score, in seconds per meter.
+    private static final double TRACKING_ERROR_WEIGHT = 10;
+    // The weight of the overshoot of the elevator in the score, in seconds per radian.
+    private static final double OVERSHOOT_WEIGHT = 1;
+
+    private SimulationSweep() {
+    }
+
+    /**
+     * Run the sweep and print the ranked configurations.
+     *
+     * @param args the swept values and options
+     * @throws InterruptedException if the sweep is interrupted
+     * @throws ExecutionException   if a worker fails
+     */
+    public static void main(String... args) throws InterruptedException, ExecutionException {
+        int workers = Runtime.getRuntime().availableProcessors();
+        var values = new LinkedHashMap<String, String[]>();
+        for (var arg : args) {
+            if (arg.startsWith("--workers=")) {
+                workers = Integer.parseInt(arg.substring("--workers=".length()));
+                continue;
+            }
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expected key=value,...: " + arg);
+            }
+            values.put(arg.substring(0, separator), arg.substring(separator + 1).split(","));
+        }
+
+        var configs = new ArrayList<Map<String, String>>();
+        configs.add(new LinkedHashMap<>());
+        for (var entry : values.entrySet()) {
+            var expanded = new ArrayList<Map<String, String>>();
+            for (var config : configs) {
+                for (var value : entry.getValue()) {
+                    var next = new LinkedHashMap<>(config);
+                    next.put(entry.getKey(), value);
+                    expanded.add(next);
+                }
+            }
+            configs = expanded;
+        }
+
+        System.out.printf("Running %d configurations on %d workers%n", configs.size(), workers);
+        long start = System.nanoTime();
+        var tasks = new ArrayList<Callable<Result>>();
+        for (var config : configs) {
+            tasks.add(() -> run(config));
+        }
+        var results = new ArrayList<Result>();
+        var pool = new ForkJoinPool(workers);
+        try {
+            for (var future : pool.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+        results.sort(Comparator.comparingDouble(Result::score));
+        System.out.printf("Finished in %.1f s%n", (System.nanoTime() - start) / 1e9);
+
+        System.out.printf("%4s %8s %10s %10s %10s %6s  %s%n", "rank", "score", "tracking", "elevator", "overshoot",
+                "failed", "configuration");
+        for (int i = 0; i < results.size(); i++) {
+            var result = results.get(i);
+            System.out.printf("%4d %8.3f %10.3f %10.3f %10.3f %6d  %s%n", i + 1, result.score(),
+                    result.trackingError(), result.elevatorTime(), result.overshoot(), result.failedMoves(),
+                    result.config());
+        }
+    }
+
+    /**
+     * Run the scenario with a configuration in a new process.
+     *
+     * @param config the configuration
+     * @return the metrics of the run
+     * @throws IOException          if the process cannot be started
+     * @throws InterruptedException if the run is interrupted
+     */
+    private static Result run(Map<String, String> config) throws IOException, InterruptedException {
+        var command = new ArrayList<String>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("-Djava.library.path=" + System.getProperty("java.library.path"));
+        // The tuning overrides of the sweep itself apply to every run, unless the configuration sets them.
+        for (var property : System.getProperties().stringPropertyNames()) {
+            if (property.startsWith(Tuning.PREFIX) && !config.containsKey(property.substring(Tuning.PREFIX.length()))) {
+                command.add("-D" + property + "=" + System.getProperty(property));
+            }
+        }
+        for (var entry : config.entrySet()) {
+            String property = entry.getKey().equals(AUTO_KEY) ? SweepScenario.AUTO_PROPERTY
+                    : Tuning.PREFIX + entry.getKey();
+            command.add("-D" + property + "=" + entry.getValue());
+        }
+        command.add(SweepScenario.class.getName());
+
+        var process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        // The output is drained on its own thread, so a run that hangs does not block the timeout.
+        var output = new AtomicReference<String>();
+        var drain = new Thread(() -> output.set(readResult(process.getInputStream())), "Sweep Output");
+        drain.setDaemon(true);
+        drain.start();
+        boolean finished = process.waitFor(RUN_TIMEOUT, TimeUnit.MINUTES);
+        if (!finished) {
+            process.destroyForcibly().waitFor();
+        }
+        drain.join();
+        String result = finished ? output.get() : null;
+        if (result == null) {
+            return new Result(config, Double.NaN, Double.NaN, Double.NaN, -1);
+        }
+        String[] metrics = result.split(" ");
+        return new Result(config, Double.parseDouble(metrics[1]), Double.parseDouble(metrics[2]),
+                Double.parseDouble(metrics[3]), Integer.parseInt(metrics[4]));
+    }
+
+    /**
+     * Read the output of a run until it ends.
+     *
+     * @param output the output of the process
+     * @return the line with the metrics, or null if the run printed none
+     */
+    private static String readResult(InputStream output) {
+        String result = null;
+        try (var reader = new BufferedReader(new InputStreamReader(output))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(SweepScenario.RESULT_PREFIX)) {
+                    result = line;
+                }
+            }
+        } catch (IOException e) {
+            // The output is closed when a run that timed out is destroyed.
+        }
+        return result;
+    }
+
+    /**
+     * The metrics of a run.
+     *
+     * @param config        the configuration
+     * @param trackingError the RMS error between the robot and the path targets in meters, NaN without a path
+     * @param elevatorTime  the time for the elevator moves in seconds
+     * @param overshoot     the largest overshoot of the elevator in radians
+     * @param failedMoves   the number of elevator moves that timed out, -1 if the run failed
+     */
+    private record Result(Map<String, String> config, double trackingError, double elevatorTime, double overshoot,
+                          int failedMoves) {
+        /**
+         * Get the score of the run. Lower is better, and a failed run is ranked last.
+         *
+         * @return the score
+         */
+        double score() {
+            if (this.failedMoves < 0) {
+                return Double.POSITIVE_INFINITY;
+            }
+            double tracking = Double.isNaN(this.trackingError) ? 0 : this.trackingError;
+            return this.elevatorTime + TRACKING_ERROR_WEIGHT * tracking + OVERSHOOT_WEIGHT * this.overshoot;
+        }
+    }
+}
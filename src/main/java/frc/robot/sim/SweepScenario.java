@@ -0,0 +1,103 @@
+package frc.robot.sim;
+
+import com.pathplanner.lib.util.PathPlannerLogging;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import frc.robot.subsystem.Elevator;
+
+/**
+ * One run of a simulation sweep. Runs the selected autonomous routine and a fixed sequence of elevator moves in a
+ * headless simulation and prints the metrics on a single line, so {@link SimulationSweep} can run each configuration
+ * in its own process. The tunable constants are set through system properties, see {@link frc.robot.util.Tuning}.
+ */
+public final class SweepScenario {
+    // The prefix of the line with the metrics.
+    public static final String RESULT_PREFIX = "SWEEP_RESULT";
+    // The system property with the name of the autonomous routine to run.
+    public static final String AUTO_PROPERTY = "sweep.auto";
+
+    // The elevator moves, starting from the bottom.
+    private static final Elevator.Level[] ELEVATOR_SEQUENCE = {Elevator.Level.L2, Elevator.Level.L4,
+            Elevator.Level.L1, Elevator.Level.L3, Elevator.Level.BOTTOM};
+    // The error and velocity within which the elevator has settled, in radians and radians per second.
+    private static final double ELEVATOR_POSITION_TOLERANCE = 0.2;
+    private static final double ELEVATOR_VELOCITY_TOLERANCE = 0.5;
+    // The time the autonomous routine may take to be prepared while disabled, in seconds.
+    private static final double PREPARE_TIMEOUT = 10;
+    // The time after which a move has failed, in seconds.
+    private static final double ELEVATOR_TIMEOUT = 5;
+
+    // The sum of the squared tracking errors of the autonomous routine and their count.
+    private static double trackingErrorSquares = 0;
+    private static long trackingErrorSamples = 0;
+    // The largest overshoot of the current move in radians.
+    private static double overshoot = 0;
+
+    private SweepScenario() {
+    }
+
+    /**
+     * Run the scenario and print the metrics.
+     *
+     * @param args unused
+     */
+    public static void main(String... args) {
+        try (var simulation = new HeadlessSimulation()) {
+            String auto = System.getProperty(AUTO_PROPERTY);
+            if (auto != null) {
+                NetworkTableInstance.getDefault().getTable("SmartDashboard").getSubTable("Auto Chooser")
+                        .getEntry("selected").setString(auto);
+            }
+            var physics = simulation.getSimulation();
+            PathPlannerLogging.setLogTargetPoseCallback(target -> {
+                double error = physics.getDrivetrain().getPose().getTranslation()
+                        .getDistance(target.getTranslation());
+                trackingErrorSquares += error * error;
+                trackingErrorSamples++;
+            });
+
+            // While disabled, the auto is selected and warmed up, and the robot and its physics are placed at the
+            // start pose of the auto.
+            var container = simulation.getRobot().getContainer();
+            simulation.step(1);
+            simulation.stepUntil(() -> container.getAutoWarmup().isWarm(), PREPARE_TIMEOUT);
+            simulation.setMode(true, true);
+            simulation.step(HeadlessSimulation.AUTONOMOUS_TIME);
+            double trackingError = trackingErrorSamples == 0 ? Double.NaN
+                    : Math.sqrt(trackingErrorSquares / trackingErrorSamples);
+
+            simulation.setMode(false, true);
+            // The intake has to be down for the elevator to cross L2.
+            container.getMoveIntakeDownCommand().schedule();
+            simulation.step(1);
+
+            double elevatorTime = 0;
+            double maxOvershoot = 0;
+            int failedMoves = 0;
+            double start = physics.getElevatorPositionRadians();
+            for (var level : ELEVATOR_SEQUENCE) {
+                double target = level.getSensorPositionRadians();
+                double direction = Math.signum(target - start);
+                overshoot = 0;
+                container.getElevator().getMoveCommand(level).schedule();
+                double time = simulation.stepUntil(() -> {
+                    double position = physics.getElevatorPositionRadians();
+                    overshoot = Math.max(overshoot, (position - target) * direction);
+                    return Math.abs(position - target) < ELEVATOR_POSITION_TOLERANCE
+                            && Math.abs(physics.getElevatorVelocityRadiansPerSecond()) < ELEVATOR_VELOCITY_TOLERANCE;
+                }, ELEVATOR_TIMEOUT);
+                if (Double.isNaN(time)) {
+                    failedMoves++;
+                    time = ELEVATOR_TIMEOUT;
+                }
+                elevatorTime += time;
+                maxOvershoot = Math.max(maxOvershoot, overshoot);
+                start = physics.getElevatorPositionRadians();
+            }
+
+            simulation.setMode(false, false);
+            simulation.step(1);
+            System.out.println(RESULT_PREFIX + " " + trackingError + " " + elevatorTime + " " + maxOvershoot + " "
+                    + failedMoves);
+        }
+    }
+}
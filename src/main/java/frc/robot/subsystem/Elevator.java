@@ -2,93 +2,250 @@ package frc.robot.subsystem;
 
 import edu.wpi.first.units.Units;
 import edu.wpi.first.units.measure.Angle;
+import edu.wpi.first.units.measure.Voltage;
 import edu.wpi.first.util.sendable.SendableBuilder;
-import edu.wpi.first.wpilibj.DigitalInput;
+import edu.wpi.first.util.sendable.SendableRegistry;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj.sysid.SysIdRoutineLog;
 import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
 import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
-import frc.libzodiac.hardware.TalonSRXMotor;
+import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine;
 import frc.libzodiac.ui.Elastic;
+import frc.robot.subsystem.io.ElevatorIO;
+import frc.robot.subsystem.io.ElevatorIOReal;
+import frc.robot.util.Alerts;
+import frc.robot.util.DataLogger;
+import frc.robot.util.LoopProfiler;
+import frc.robot.util.Sensors;
+import frc.robot.util.Tuning;
 
-import java.util.Objects;
+import java.util.EnumMap;
 
 public class Elevator extends SubsystemBase {
-    // The elevator motors.
-    TalonSRXMotor elevatorLeftLeader = new TalonSRXMotor(5);
-    TalonSRXMotor elevatorLeftFollower = new TalonSRXMotor(6);
-
-    // The bottom limit switch.
-    DigitalInput limitSwitch = new DigitalInput(0);
+    // The notification sent when the intake is in the way of the elevator.
+    private static final Elastic.Notification MOVE_DOWN_INTAKE_NOTIFICATION = new Elastic.Notification().withTitle(
+            "MOVE DOWN INTAKE").withLevel(Elastic.Notification.NotificationLevel.WARNING).withDisplaySeconds(3);
+
+    // The feedforward model of the elevator in percent output. The velocity and acceleration terms are handled by the
+    // kF of Motion Magic on the Talon, so only static friction and gravity are sent as arbitrary feedforward.
+    // TODO: Characterize with the SysId commands on the dashboard, and set the results with the Tuning keys.
+    // The output to overcome static friction.
+    private static final double STATIC_FEEDFORWARD = Tuning.get("elevator.kS", 0);
+    // The sensor positions in radians at which each stage starts being lifted, in increasing order.
+    private static final double[] STAGE_POSITIONS = {0};
+    // The output to hold the elevator against gravity from each stage position on.
+    private static final double[] GRAVITY_FEEDFORWARDS = {Tuning.get("elevator.kG", 0)};
+    // The distance to the target in radians within which no static friction is added.
+    private static final double FEEDFORWARD_TOLERANCE = 0.05;
+    // The nominal battery voltage.
+    private static final double NOMINAL_VOLTAGE = 12;
+
+    // The CAN IDs of the elevator motors.
+    public static final int LEADER_ID = 5;
+    public static final int FOLLOWER_ID = 6;
+    // The DIO channel of the bottom limit switch.
+    public static final int LIMIT_SWITCH_CHANNEL = 0;
+
+    // The hardware of the elevator.
+    ElevatorIO io;
+
+    // The sensors of the elevator in the snapshot of each loop.
+    Sensors sensors;
+    Sensors.DoubleSignal positionSignal;
+    Sensors.BooleanSignal atBottomSignal;
+
+    // The profiled stage of the elevator.
+    LoopProfiler.Stage periodicStage = LoopProfiler.getInstance().stage("Elevator.periodic()");
 
     // The target position of the elevator.
     Position targetPosition;
+    // The position of the elevator in radians, sampled once per loop.
+    double positionRadians = 0;
+    // The position wrapping positionRadians, created lazily for the Measure-based API.
+    Position position = Level.BOTTOM.position;
+    // The velocity of the elevator in radians per second, from the sampled positions.
+    double velocityRadiansPerSecond = 0;
+    // The last sampled position in radians and its time in seconds.
+    double lastPositionRadians = 0;
+    double lastSampleTime = Double.NaN;
+    // The voltage applied during characterization.
+    double characterizationVoltage = 0;
+    // The last commanded output: the open-loop output, or the Motion Magic setpoint in radians and its feedforward.
+    // The unused ones are NaN.
+    double outputPower = Double.NaN;
+    double outputSetpointRadians = Double.NaN;
+    double outputFeedforward = Double.NaN;
     // Whether the elevator has reset to zero.
     boolean hasResetToZero = false;
     boolean isTryingGoDown = true;
 
-    public Elevator() {
-        // Configure the elevator motors.
-        this.elevatorLeftLeader.factoryDefault();
-        this.elevatorLeftFollower.factoryDefault();
-        this.elevatorLeftLeader.setMotionMagicConfig(0.1, 0.005, 1, 0.125, Units.RadiansPerSecond.of(16 * Math.PI),
-                Units.RadiansPerSecondPerSecond.of(16 * Math.PI), 3);
-        this.elevatorLeftLeader.setMaxIntegralAccum(27500);
-        this.elevatorLeftLeader.setPeakOutput(0.5);
-        this.elevatorLeftLeader.allowableError(200);
+    // The commands of the elevator, constructed once and reused.
+    private final Command moveUpCommand = runOnce(() -> this.moveBy(1));
+    private final Command moveDownCommand = runOnce(() -> this.moveBy(-1));
+    private final EnumMap<Level, Command> moveCommands = new EnumMap<>(Level.class);
+    // The characterization routine of the elevator and its commands.
+    private final SysIdRoutine sysIdRoutine = new SysIdRoutine(
+            new SysIdRoutine.Config(Units.Volts.per(Units.Second).of(0.5), Units.Volts.of(3), Units.Seconds.of(5)),
+            new SysIdRoutine.Mechanism(this::driveCharacterization, this::logCharacterization, this));
+    private final Command quasistaticUpCommand = this.getCharacterizationCommand(
+            this.sysIdRoutine.quasistatic(SysIdRoutine.Direction.kForward), true);
+    private final Command quasistaticDownCommand = this.getCharacterizationCommand(
+            this.sysIdRoutine.quasistatic(SysIdRoutine.Direction.kReverse), false);
+    private final Command dynamicUpCommand = this.getCharacterizationCommand(
+            this.sysIdRoutine.dynamic(SysIdRoutine.Direction.kForward), true);
+    private final Command dynamicDownCommand = this.getCharacterizationCommand(
+            this.sysIdRoutine.dynamic(SysIdRoutine.Direction.kReverse), false);
 
-        this.elevatorLeftLeader.setInverted(false);
-        this.elevatorLeftLeader.setPhase(false);
+    /**
+     * Construct a new Elevator on the real hardware.
+     *
+     * @param sensors the sensor snapshot to sample the elevator sensors into
+     */
+    public Elevator(Sensors sensors) {
+        this(sensors, new ElevatorIOReal());
+    }
 
-        this.elevatorLeftFollower.follow(elevatorLeftLeader);
+    /**
+     * Construct a new Elevator.
+     *
+     * @param sensors the sensor snapshot to sample the elevator sensors into
+     * @param io      the hardware of the elevator
+     */
+    public Elevator(Sensors sensors, ElevatorIO io) {
+        this(sensors, io, true);
+    }
 
-        this.elevatorLeftLeader.setBrakeWhenNeutral(true);
+    /**
+     * Construct a new Elevator.
+     *
+     * @param sensors  the sensor snapshot to sample the elevator sensors into
+     * @param io       the hardware of the elevator
+     * @param attached whether the elevator is registered with the scheduler, the alerts and the data log
+     */
+    private Elevator(Sensors sensors, ElevatorIO io, boolean attached) {
+        this.io = io;
 
         // Reset the elevator position.
-        this.elevatorLeftLeader.resetPosition();
+        this.io.resetPosition();
         this.targetPosition = null;
+
+        // Sample the sensors once per loop.
+        this.sensors = sensors;
+        this.positionSignal = sensors.addDouble(io::getPositionRadians);
+        this.atBottomSignal = sensors.addBoolean(io::getAtBottom);
+
+        for (var level : Level.values()) {
+            this.moveCommands.put(level, runOnce(() -> this.moveTo(level)));
+        }
+
+        if (!attached) {
+            CommandScheduler.getInstance().unregisterSubsystem(this);
+            SendableRegistry.remove(this);
+            this.periodicStage = LoopProfiler.getInstance().stage("Elevator.periodic() (Detached)");
+            return;
+        }
+
+        // Warn the operator whenever the elevator starts moving up across L2.
+        Alerts.getInstance().addCondition("Move Down Intake", this::getCrossingL2State, MOVE_DOWN_INTAKE_NOTIFICATION);
+
+        // Log the elevator every loop. The inputs are replayed, and the outputs are compared in a replay.
+        var logger = DataLogger.getInstance();
+        logger.addDouble("Elevator/Inputs/Position", this.positionSignal::get);
+        logger.addBoolean("Elevator/Inputs/At Bottom", this.atBottomSignal::get);
+        logger.addDouble("Elevator/Inputs/Applied Output", io::getAppliedOutput);
+        logger.addDouble("Elevator/Outputs/Velocity", () -> this.velocityRadiansPerSecond);
+        logger.addDouble("Elevator/Outputs/Target",
+                () -> this.targetPosition == null ? Double.NaN : this.targetPosition.getSensorPositionRadians());
+        logger.addDouble("Elevator/Outputs/Power", () -> this.outputPower);
+        logger.addDouble("Elevator/Outputs/Setpoint", () -> this.outputSetpointRadians);
+        logger.addDouble("Elevator/Outputs/Feedforward", () -> this.outputFeedforward);
+    }
+
+    /**
+     * Construct an elevator that is not registered with the scheduler, the alerts or the data log. Its sensors are
+     * sampled into their own snapshot and its periodic is called by its owner, so its logic can be run against an IO
+     * that drives no motor.
+     *
+     * @param sensors the sensor snapshot to sample the elevator sensors into
+     * @param io      the hardware of the elevator
+     * @return the detached elevator
+     */
+    public static Elevator createDetached(Sensors sensors, ElevatorIO io) {
+        return new Elevator(sensors, io, false);
     }
 
     /**
      * Get the target position that is within the limits.
      *
-     * @param target the original target position
+     * @param sensorPosition the original target position in radians
      * @return the target position that is within the limits
      */
-    private static Position getMovablePosition(Position target) {
-        if (target.getSensorPosition().in(Units.Radians) > Level.L4.position.getSensorPosition().in(Units.Radians)) {
+    private static Position getMovablePosition(double sensorPosition) {
+        if (sensorPosition > Level.L4.getSensorPositionRadians()) {
             return Level.L4.position;
         }
-        if (target.getSensorPosition().in(Units.Radians) < 0) {
-            return new Position(Units.Radians.of(0));
+        if (sensorPosition < 0) {
+            return Level.BOTTOM.position;
         }
-        return target;
+        return Position.ofRadians(sensorPosition);
     }
 
     @Override
     public void periodic() {
+        this.periodicStage.start();
+        this.updatePosition(this.positionSignal.get());
+        this.updateVelocity(this.sensors.getTimestamp());
+
         if (this.getAtBottomState()) {
             if (this.isTryingGoDown) {
-                this.elevatorLeftLeader.brake();
+                this.brakeMotors();
             }
             if (this.hasResetToZero) {
-                this.elevatorLeftLeader.setBrakeWhenNeutral(true);
+                this.io.setBrakeWhenNeutral(true);
             }
-            this.elevatorLeftLeader.resetPosition();
+            this.io.resetPosition();
+            this.updatePosition(0);
             this.hasResetToZero = true;
             this.isTryingGoDown = false;
         }
         if (!this.hasResetToZero && this.isTryingGoDown) {
-            this.elevatorLeftLeader.power(-0.15);
+            this.setPower(-0.15);
             this.targetPosition = null;
         } else if (this.targetPosition != null) {
             double feedforward = this.getFeedforward(this.targetPosition);
-            this.elevatorLeftLeader.MotionMagic(this.targetPosition.getSensorPosition(), feedforward);
+            this.io.setMotionMagic(this.targetPosition.getSensorPositionRadians(), feedforward);
+            this.outputPower = Double.NaN;
+            this.outputSetpointRadians = this.targetPosition.getSensorPositionRadians();
+            this.outputFeedforward = feedforward;
         }
+        this.periodicStage.stop();
+    }
 
-        if (this.targetPosition != null && this.getPosition().sensorPosition.lt(Level.L2.getSensorPosition()) && this.targetPosition.sensorPosition.gt(Level.L2.getSensorPosition())) {
-            var notification = new Elastic.Notification().withTitle("MOVE DOWN INTAKE").withLevel(Elastic.Notification.NotificationLevel.WARNING).withDisplaySeconds(3);
-            Elastic.sendNotification(notification);
+    /**
+     * Update the velocity of the elevator from the sampled positions.
+     *
+     * @param timestamp the time of the sampled position in seconds
+     */
+    private void updateVelocity(double timestamp) {
+        double dt = timestamp - this.lastSampleTime;
+        if (dt > 0) {
+            this.velocityRadiansPerSecond = (this.positionRadians - this.lastPositionRadians) / dt;
+        }
+        this.lastPositionRadians = this.positionRadians;
+        this.lastSampleTime = timestamp;
+    }
+
+    /**
+     * Update the sampled position of the elevator.
+     *
+     * @param sensorPosition the sensor position in radians
+     */
+    private void updatePosition(double sensorPosition) {
+        if (sensorPosition != this.positionRadians) {
+            this.positionRadians = sensorPosition;
+            this.position = null;
         }
     }
 
@@ -111,41 +268,115 @@ public class Elevator extends SubsystemBase {
     }
 
     /**
-     * Get the feedforward of the elevator.
+     * Get the feedforward of the elevator, the gravity at the current position plus the static friction towards the
+     * target.
      *
      * @param position the target position
-     * @return the feedforward
+     * @return the feedforward in percent output
      */
     private double getFeedforward(Position position) {
-        return this.getFeedforward(position.sensorPosition);
+        double error = position.getSensorPositionRadians() - this.positionRadians;
+        double staticFriction = Math.abs(error) < FEEDFORWARD_TOLERANCE ? 0 : Math.copySign(STATIC_FEEDFORWARD, error);
+        return getGravityFeedforward(this.positionRadians) + staticFriction;
     }
 
     /**
-     * Get the feedforward of the elevator.
+     * Get the gravity feedforward of the elevator, which depends on the stages being lifted.
      *
-     * @param sensorPosition the target position
-     * @return the feedforward
+     * @param sensorPosition the position in radians
+     * @return the gravity feedforward in percent output
      */
-    private double getFeedforward(Angle sensorPosition) {
-        // Our elevator doesn't have a constant feedforward, so we just return 0.
-        return 0;
+    private static double getGravityFeedforward(double sensorPosition) {
+        int stage = 0;
+        while (stage + 1 < STAGE_POSITIONS.length && sensorPosition >= STAGE_POSITIONS[stage + 1]) {
+            stage++;
+        }
+        return GRAVITY_FEEDFORWARDS[stage];
+    }
+
+    /**
+     * Drive the elevator with a voltage during characterization.
+     *
+     * @param voltage the voltage
+     */
+    private void driveCharacterization(Voltage voltage) {
+        this.characterizationVoltage = voltage.in(Units.Volts);
+        this.setPower(this.characterizationVoltage / NOMINAL_VOLTAGE);
+    }
+
+    /**
+     * Log the state of the elevator during characterization.
+     *
+     * @param log the characterization log
+     */
+    private void logCharacterization(SysIdRoutineLog log) {
+        log.motor("elevator").voltage(Units.Volts.of(this.characterizationVoltage))
+                .angularPosition(Units.Radians.of(this.positionRadians))
+                .angularVelocity(Units.RadiansPerSecond.of(this.velocityRadiansPerSecond));
+    }
+
+    /**
+     * Get a characterization command that stays within the travel of the elevator and holds the elevator afterwards.
+     *
+     * @param command the characterization command
+     * @param up      whether the command moves the elevator up
+     * @return the characterization command
+     */
+    private Command getCharacterizationCommand(Command command, boolean up) {
+        return command.beforeStarting(() -> this.targetPosition = null)
+                .until(() -> up ? this.positionRadians > Level.L4.getSensorPositionRadians() : this.getAtBottomState())
+                .finallyDo(this::brake).onlyIf(() -> this.hasResetToZero);
     }
 
     /**
      * Brake the elevator.
      */
     public void brake() {
-        this.elevatorLeftLeader.brake();
+        this.brakeMotors();
         this.targetPosition = this.getPosition();
     }
 
+    /**
+     * Stop the motors and record the output.
+     */
+    private void brakeMotors() {
+        this.io.brake();
+        this.outputPower = 0;
+        this.outputSetpointRadians = Double.NaN;
+        this.outputFeedforward = Double.NaN;
+    }
+
+    /**
+     * Drive the motors with an open-loop output and record the output.
+     *
+     * @param power the output in percent
+     */
+    private void setPower(double power) {
+        this.io.setPower(power);
+        this.outputPower = power;
+        this.outputSetpointRadians = Double.NaN;
+        this.outputFeedforward = Double.NaN;
+    }
+
     /**
      * Get the current position of the elevator.
      *
      * @return the current position of the elevator
      */
     public Position getPosition() {
-        return new Position(this.elevatorLeftLeader.getPosition());
+        if (this.position == null) {
+            this.position = Position.ofRadians(this.positionRadians);
+        }
+        return this.position;
+    }
+
+    /**
+     * Get the current position of the elevator in radians.
+     *
+     * @return the current position of the elevator in radians
+     */
+    public double getPositionRadians() {
+        return this.positionRadians;
     }
 
     /**
@@ -154,16 +385,7 @@ public class Elevator extends SubsystemBase {
      * @return the command that moves the elevator up
      */
     public Command getMoveUpCommand() {
-        return runOnce(() -> {
-            if (!this.hasResetToZero) {
-                return;
-            }
-            if (this.targetPosition == null) {
-                this.targetPosition = new Position(Units.Radians.of(0));
-            }
-            var targetSensorPosition = this.targetPosition.sensorPosition.plus(Units.Radians.of(1));
-            this.moveTo(getMovablePosition(new Position(targetSensorPosition)));
-        });
+        return this.moveUpCommand;
     }
 
     /**
@@ -172,16 +394,22 @@ public class Elevator extends SubsystemBase {
      * @return the command that moves the elevator down
      */
     public Command getMoveDownCommand() {
-        return runOnce(() -> {
-            if (!this.hasResetToZero) {
-                return;
-            }
-            if (this.targetPosition == null) {
-                this.targetPosition = new Position(Units.Radians.of(0));
-            }
-            var targetSensorPosition = this.targetPosition.sensorPosition.minus(Units.Radians.of(1));
-            this.moveTo(getMovablePosition(new Position(targetSensorPosition)));
-        });
+        return this.moveDownCommand;
+    }
+
+    /**
+     * Move the target of the elevator by the given distance, within the limits.
+     *
+     * @param sensorDistance the distance in radians
+     */
+    private void moveBy(double sensorDistance) {
+        if (!this.hasResetToZero) {
+            return;
+        }
+        if (this.targetPosition == null) {
+            this.targetPosition = Level.BOTTOM.position;
+        }
+        this.moveTo(getMovablePosition(this.targetPosition.getSensorPositionRadians() + sensorDistance));
     }
 
     /**
@@ -201,7 +429,7 @@ public class Elevator extends SubsystemBase {
      * @return the command that moves the elevator to the specific position
      */
     public Command getMoveCommand(Level level) {
-        return runOnce(() -> this.moveTo(level));
+        return this.moveCommands.get(level);
     }
 
     /**
@@ -210,7 +438,16 @@ public class Elevator extends SubsystemBase {
      * @return whether the elevator is at the bottom
      */
     public boolean getAtBottomState() {
-        return !this.limitSwitch.get();
+        return this.atBottomSignal.get();
+    }
+
+    /**
+     * Get whether the elevator is below L2 and moving to a target above L2.
+     *
+     * @return whether the elevator is moving up across L2
+     */
+    public boolean getCrossingL2State() {
+        return this.targetPosition != null && this.positionRadians < Level.L2.getSensorPositionRadians() && this.targetPosition.getSensorPositionRadians() > Level.L2.getSensorPositionRadians();
     }
 
     @Override
@@ -218,8 +455,8 @@ public class Elevator extends SubsystemBase {
         builder.setSmartDashboardType("Elevator");
         builder.setActuator(true);
         builder.setSafeState(this::brake);
-        builder.addDoubleProperty("Position", () -> this.hasResetToZero ? this.getPosition().getSensorPosition().in(Units.Radians) : -1, (position) -> this.moveTo(new Position(Units.Radians.of(position))));
-        builder.addDoubleProperty("Target Position", () -> this.targetPosition == null ? -1 : this.targetPosition.getSensorPosition().in(Units.Radians), (position) -> this.moveTo(new Position(Units.Radians.of(position))));
+        builder.addDoubleProperty("Position", () -> this.hasResetToZero ? this.positionRadians : -1, (position) -> this.moveTo(Position.ofRadians(position)));
+        builder.addDoubleProperty("Target Position", () -> this.targetPosition == null ? -1 : this.targetPosition.getSensorPositionRadians(), (position) -> this.moveTo(Position.ofRadians(position)));
         builder.addBooleanProperty("At Bottom", this::getAtBottomState, null);
         SmartDashboard.putData("Move to Bottom", this.getMoveCommand(Level.BOTTOM));
         SmartDashboard.putData("Move to L1", this.getMoveCommand(Level.L1));
@@ -229,13 +466,18 @@ public class Elevator extends SubsystemBase {
         SmartDashboard.putData("Ball L3", this.getMoveCommand(Level.L3B));
         SmartDashboard.putData("Move to L4", this.getMoveCommand(Level.L4));
         SmartDashboard.putData("Reset", Commands.runOnce(this::reset).ignoringDisable(true));
+        SmartDashboard.putData("Elevator SysId Quasistatic Up", this.quasistaticUpCommand);
+        SmartDashboard.putData("Elevator SysId Quasistatic Down", this.quasistaticDownCommand);
+        SmartDashboard.putData("Elevator SysId Dynamic Up", this.dynamicUpCommand);
+        SmartDashboard.putData("Elevator SysId Dynamic Down", this.dynamicDownCommand);
     }
 
     /**
      * Reset the elevator.
      */
     public void reset() {
-        this.elevatorLeftLeader.resetPosition();
+        this.io.resetPosition();
+        this.updatePosition(0);
         this.targetPosition = null;
     }
 
@@ -248,7 +490,7 @@ public class Elevator extends SubsystemBase {
     }
 
     public Position getTargetPosition() {
-        return Objects.requireNonNullElseGet(this.targetPosition, () -> new Position(Units.Radians.of(0)));
+        return this.targetPosition == null ? Level.BOTTOM.position : this.targetPosition;
     }
 
     /**
@@ -266,12 +508,30 @@ public class Elevator extends SubsystemBase {
          * @param sensorPosition the sensor position of the level
          */
         Level(double sensorPosition) {
-            this.position = new Position(Units.Radians.of(sensorPosition));
+            this.position = Position.ofRadians(sensorPosition);
         }
 
         public Angle getSensorPosition() {
             return this.position.sensorPosition;
         }
+
+        /**
+         * Get the sensor position in radians.
+         *
+         * @return the sensor position in radians
+         */
+        public double getSensorPositionRadians() {
+            return this.position.sensorPositionRadians;
+        }
+
+        /**
+         * Get the position of the level.
+         *
+         * @return the position of the level
+         */
+        public Position getPosition() {
+            return this.position;
+        }
     }
 
     /**
@@ -280,6 +540,8 @@ public class Elevator extends SubsystemBase {
     public static class Position {
         // The sensor position of motor.
         private final Angle sensorPosition;
+        // The sensor position of motor in radians.
+        private final double sensorPositionRadians;
 
         /**
          * Construct a new Position.
@@ -288,6 +550,17 @@ public class Elevator extends SubsystemBase {
          */
         public Position(Angle sensorPosition) {
             this.sensorPosition = sensorPosition;
+            this.sensorPositionRadians = sensorPosition.in(Units.Radians);
+        }
+
+        /**
+         * Construct a new Position from a sensor position in radians.
+         *
+         * @param sensorPosition the sensor position of motor in radians
+         * @return the position
+         */
+        public static Position ofRadians(double sensorPosition) {
+            return new Position(Units.Radians.of(sensorPosition));
         }
 
         /**
@@ -298,6 +571,15 @@ public class Elevator extends SubsystemBase {
         public Angle getSensorPosition() {
             return sensorPosition;
         }
+
+        /**
+         * Get the sensor position in radians.
+         *
+         * @return the sensor position in radians
+         */
+        public double getSensorPositionRadians() {
+            return sensorPositionRadians;
+        }
     }
 }
 
@@ -1,63 +1,130 @@
 package frc.robot.subsystem;
 
+import edu.wpi.first.util.sendable.SendableRegistry;
 import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
 import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
-import frc.libzodiac.hardware.TalonFXMotor;
-import frc.libzodiac.hardware.TalonSRXMotor;
+import frc.robot.subsystem.io.IntakeIO;
+import frc.robot.subsystem.io.IntakeIOReal;
+import frc.robot.util.DataLogger;
 
 public class Intake extends SubsystemBase {
-    // The motor for the intake.
-    TalonFXMotor leftMotor = new TalonFXMotor(10);
-    TalonFXMotor rightMotor = new TalonFXMotor(9);
+    // The CAN IDs of the intake motors.
+    public static final int LEFT_ID = 10;
+    public static final int RIGHT_ID = 9;
+    public static final int ARM_ID = 11;
 
-    // The motor that controls the intake.
-    TalonSRXMotor intakeMotor = new TalonSRXMotor(11);
+    // The hardware of the intake.
+    IntakeIO io;
 
     // The state of the intake.
     boolean isUp;
+    // The last commanded outputs of the rollers and the arm.
+    double rollerPower = 0;
+    double armPower = 0;
+
+    // The commands of the intake, constructed once and reused.
+    private final Command intakeCommand = runOnce(this::intake);
+    private final Command outtakeCommand = runOnce(this::outtake);
+    private final Command stopCommand = runOnce(this::stop);
+    private final Command moveUpCommand = runOnce(() -> this.setArmPower(-0.3)).repeatedly().withTimeout(1).finallyDo(this::brakeArm);
+    private final Command moveDownCommand = runOnce(() -> this.setArmPower(0.3)).repeatedly().withTimeout(0.5).finallyDo(this::brakeArm);
+    private final Command upCommand = Commands.runOnce(this::up);
+    private final Command downCommand = Commands.runOnce(this::down);
+    private final Command switchUpStateCommand = Commands.runOnce(this::switchUpState);
+    // The last timed intake command and its timeout.
+    private Command timedIntakeCommand;
+    private double timedIntakeSeconds = Double.NaN;
 
     /**
-     * Construct a new Intake.
+     * Construct a new Intake on the real hardware.
      */
     public Intake() {
-        this.leftMotor.factoryDefault();
-        this.rightMotor.factoryDefault();
-        this.intakeMotor.factoryDefault();
-
-        this.leftMotor.setInverted(false);
-        this.rightMotor.setInverted(true);
-        this.intakeMotor.setInverted(false);
+        this(new IntakeIOReal());
+    }
 
-        this.leftMotor.setPID(0.1, 0, 0);
-        this.rightMotor.setPID(0.1, 0, 0);
-        this.intakeMotor.setPID(0.1, 0, 0);
+    /**
+     * Construct a new Intake.
+     *
+     * @param io the hardware of the intake
+     */
+    public Intake(IntakeIO io) {
+        this(io, true);
+    }
 
+    /**
+     * Construct a new Intake.
+     *
+     * @param io       the hardware of the intake
+     * @param attached whether the intake is registered with the scheduler and the data log
+     */
+    private Intake(IntakeIO io, boolean attached) {
+        this.io = io;
         this.isUp = true;
+
+        if (!attached) {
+            CommandScheduler.getInstance().unregisterSubsystem(this);
+            SendableRegistry.remove(this);
+            return;
+        }
+
+        // Log the intake every loop. The inputs are replayed, and the outputs are compared in a replay.
+        var logger = DataLogger.getInstance();
+        logger.addDouble("Intake/Inputs/Left Output", io::getLeftOutput);
+        logger.addDouble("Intake/Inputs/Right Output", io::getRightOutput);
+        logger.addDouble("Intake/Inputs/Arm Output", io::getArmOutput);
+        logger.addDouble("Intake/Outputs/Roller Power", () -> this.rollerPower);
+        logger.addDouble("Intake/Outputs/Arm Power", () -> this.armPower);
+        logger.addBoolean("Intake/Outputs/Up", () -> this.isUp);
+    }
+
+    /**
+     * Construct an intake that is not registered with the scheduler or the data log, so its logic can be run against
+     * an IO that drives no motor.
+     *
+     * @param io the hardware of the intake
+     * @return the detached intake
+     */
+    public static Intake createDetached(IntakeIO io) {
+        return new Intake(io, false);
     }
 
     /**
      * Intake the ball.
      */
     public void intake() {
-        this.leftMotor.power(0.3);
-        this.rightMotor.power(0.3);
+        this.setRollerPower(0.3);
     }
 
     /**
      * Outtake the ball.
      */
     public void outtake() {
-        this.leftMotor.power(-0.3);
-        this.rightMotor.power(-0.3);
+        this.setRollerPower(-0.3);
     }
 
     /**
      * Stop the intake.
      */
     public void stop() {
-        this.leftMotor.brake();
-        this.rightMotor.brake();
+        this.io.brakeRollers();
+        this.rollerPower = 0;
+    }
+
+    private void setRollerPower(double power) {
+        this.io.setRollerPower(power);
+        this.rollerPower = power;
+    }
+
+    private void setArmPower(double power) {
+        this.io.setArmPower(power);
+        this.armPower = power;
+    }
+
+    private void brakeArm() {
+        this.io.brakeArm();
+        this.armPower = 0;
     }
 
     /**
@@ -66,7 +133,7 @@ public class Intake extends SubsystemBase {
      * @return the intake command
      */
     public Command getIntakeCommand() {
-        return runOnce(this::intake);
+        return this.intakeCommand;
     }
 
     /**
@@ -75,7 +142,7 @@ public class Intake extends SubsystemBase {
      * @return the stop command
      */
     public Command getStopCommand() {
-        return runOnce(this::stop);
+        return this.stopCommand;
     }
 
     /**
@@ -84,7 +151,7 @@ public class Intake extends SubsystemBase {
      * @return the outtake command
      */
     public Command getOuttakeCommand() {
-        return runOnce(this::outtake);
+        return this.outtakeCommand;
     }
 
     /**
@@ -94,7 +161,11 @@ public class Intake extends SubsystemBase {
      * @return the intake command with a timeout
      */
     public Command getIntakeCommand(double seconds) {
-        return runOnce(this::intake).repeatedly().withTimeout(seconds).finallyDo(this::stop);
+        if (seconds != this.timedIntakeSeconds) {
+            this.timedIntakeCommand = runOnce(this::intake).repeatedly().withTimeout(seconds).finallyDo(this::stop);
+            this.timedIntakeSeconds = seconds;
+        }
+        return this.timedIntakeCommand;
     }
 
     /**
@@ -110,7 +181,7 @@ public class Intake extends SubsystemBase {
      * Move the outtake up.
      */
     public void up() {
-        runOnce(() -> this.intakeMotor.power(-0.3)).repeatedly().withTimeout(1).finallyDo(this.intakeMotor::brake).schedule();
+        this.moveUpCommand.schedule();
         this.isUp = true;
     }
 
@@ -118,7 +189,7 @@ public class Intake extends SubsystemBase {
      * Move the outtake down.
      */
     public void down() {
-        runOnce(() -> this.intakeMotor.power(0.3)).repeatedly().withTimeout(0.5).finallyDo(this.intakeMotor::brake).schedule();
+        this.moveDownCommand.schedule();
         this.isUp = false;
     }
 
@@ -133,13 +204,22 @@ public class Intake extends SubsystemBase {
         }
     }
 
+    /**
+     * Get whether the intake is up.
+     *
+     * @return whether the intake is up
+     */
+    public boolean getUpState() {
+        return this.isUp;
+    }
+
     /**
      * Get the command to move the outtake up.
      *
      * @return The command to move the outtake up.
      */
     public Command getUpCommand() {
-        return Commands.runOnce(this::up);
+        return this.upCommand;
     }
 
     /**
@@ -148,7 +228,7 @@ public class Intake extends SubsystemBase {
      * @return The command to move the outtake down.
      */
     public Command getDownCommand() {
-        return Commands.runOnce(this::down);
+        return this.downCommand;
     }
 
     /**
@@ -157,6 +237,6 @@ public class Intake extends SubsystemBase {
      * @return The command to switch the state of the outtake.
      */
     public Command getSwitchUpStateCommand() {
-        return Commands.runOnce(this::switchUpState);
+        return this.switchUpStateCommand;
     }
 }
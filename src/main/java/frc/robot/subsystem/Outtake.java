@@ -1,32 +1,53 @@
 package frc.robot.subsystem;
 
-import edu.wpi.first.wpilibj.Servo;
 import edu.wpi.first.wpilibj2.command.Command;
-import edu.wpi.first.wpilibj2.command.Commands;
-import frc.libzodiac.hardware.TalonSRXMotor;
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.subsystem.io.OuttakeIO;
+import frc.robot.subsystem.io.OuttakeIOReal;
+import frc.robot.util.DataLogger;
 
-import static edu.wpi.first.wpilibj2.command.Commands.runOnce;
-
-public class Outtake {
-    // The servos that control the outtake.
-    Servo leftServo = new Servo(0);
-    Servo rightServo = new Servo(1);
+public class Outtake extends SubsystemBase {
+    // The hardware of the outtake.
+    OuttakeIO io;
     // The state of the outtake.
     boolean isOpen;
+    // The last commanded positions of the servos.
+    double leftServoPosition;
+    double rightServoPosition;
+
+    // The commands of the outtake, constructed once and reused.
+    private final Command openCommand = runOnce(this::open);
+    private final Command closeCommand = runOnce(this::close);
+    private final Command switchOuttakeStateCommand = runOnce(this::switchOuttakeState);
 
     /**
-     * Construct a new Outtake.
+     * Construct a new Outtake on the real hardware.
      */
     public Outtake() {
+        this(new OuttakeIOReal());
+    }
+
+    /**
+     * Construct a new Outtake.
+     *
+     * @param io the hardware of the outtake
+     */
+    public Outtake(OuttakeIO io) {
+        this.io = io;
         this.close();
+
+        // Log the outtake every loop. The outputs are compared in a replay.
+        var logger = DataLogger.getInstance();
+        logger.addDouble("Outtake/Outputs/Left Servo", () -> this.leftServoPosition);
+        logger.addDouble("Outtake/Outputs/Right Servo", () -> this.rightServoPosition);
+        logger.addBoolean("Outtake/Outputs/Open", () -> this.isOpen);
     }
 
     /**
      * Open the outtake.
      */
     public void open() {
-        this.leftServo.set(0.05);
-        this.rightServo.set(0.55);
+        this.setServos(0.05, 0.55);
         this.isOpen = true;
     }
 
@@ -34,11 +55,16 @@ public class Outtake {
      * Close the outtake.
      */
     public void close() {
-        this.leftServo.set(0.6);
-        this.rightServo.set(0);
+        this.setServos(0.6, 0);
         this.isOpen = false;
     }
 
+    private void setServos(double left, double right) {
+        this.io.setServos(left, right);
+        this.leftServoPosition = left;
+        this.rightServoPosition = right;
+    }
+
     /**
      * Switch the state of the outtake.
      */
@@ -56,7 +82,7 @@ public class Outtake {
      * @return The command to open the outtake.
      */
     public Command getOpenCommand() {
-        return runOnce(this::open);
+        return this.openCommand;
     }
 
     /**
@@ -65,7 +91,7 @@ public class Outtake {
      * @return The command to close the outtake.
      */
     public Command getCloseCommand() {
-        return runOnce(this::close);
+        return this.closeCommand;
     }
 
     /**
@@ -74,6 +100,6 @@ public class Outtake {
      * @return The command to switch the state of the outtake.
      */
     public Command getSwitchOuttakeStateCommand() {
-        return runOnce(this::switchOuttakeState);
+        return this.switchOuttakeStateCommand;
     }
 }
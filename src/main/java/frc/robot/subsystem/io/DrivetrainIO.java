@@ -0,0 +1,28 @@
+package frc.robot.subsystem.io;
+
+/**
+ * The odometry sensors of the drivetrain. The drivetrain itself is driven by libzodiac, so only its inputs are behind
+ * this interface. The readers are called on the odometry thread.
+ */
+public interface DrivetrainIO {
+    /**
+     * Get the distance travelled by the left wheels.
+     *
+     * @return the distance in meters
+     */
+    double getLeftDistance();
+
+    /**
+     * Get the distance travelled by the right wheels.
+     *
+     * @return the distance in meters
+     */
+    double getRightDistance();
+
+    /**
+     * Get the yaw of the gyro.
+     *
+     * @return the yaw in radians
+     */
+    double getYaw();
+}
@@ -0,0 +1,59 @@
+package frc.robot.subsystem.io;
+
+import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
+import com.ctre.phoenix6.StatusSignal;
+import edu.wpi.first.units.Units;
+import edu.wpi.first.units.measure.Angle;
+import frc.libzodiac.hardware.Pigeon;
+import frc.libzodiac.hardware.TalonSRXMotor;
+
+/**
+ * The odometry sensors of the drivetrain: the encoders on the leading Talon SRXs and the Pigeon 2. They are read through
+ * the devices the drivetrain drives, so each device has a single object.
+ */
+public class DrivetrainIOReal implements DrivetrainIO {
+    // The leading motors of the drivetrain, with the encoders.
+    private final TalonSRXMotor leftLeader;
+    private final TalonSRXMotor rightLeader;
+    // The yaw of the gyro.
+    private final StatusSignal<Angle> yaw;
+    // The radius of the wheels in meters.
+    private final double wheelRadius;
+
+    /**
+     * Construct a new DrivetrainIOReal and have the sensors report at the sampling frequency.
+     *
+     * @param leftLeader  the leading motor of the left side of the drivetrain
+     * @param rightLeader the leading motor of the right side of the drivetrain
+     * @param gyro        the gyro of the drivetrain
+     * @param wheelRadius the radius of the wheels in meters
+     * @param frequency   the sampling frequency in Hz
+     */
+    public DrivetrainIOReal(TalonSRXMotor leftLeader, TalonSRXMotor rightLeader, Pigeon gyro, double wheelRadius,
+                            double frequency) {
+        int framePeriodMs = (int) Math.ceil(1000 / frequency);
+        leftLeader.getMotor().setStatusFramePeriod(StatusFrameEnhanced.Status_2_Feedback0, framePeriodMs);
+        rightLeader.getMotor().setStatusFramePeriod(StatusFrameEnhanced.Status_2_Feedback0, framePeriodMs);
+        this.yaw = gyro.getPigeon().getYaw();
+        this.yaw.setUpdateFrequency(frequency);
+
+        this.leftLeader = leftLeader;
+        this.rightLeader = rightLeader;
+        this.wheelRadius = wheelRadius;
+    }
+
+    @Override
+    public double getLeftDistance() {
+        return this.leftLeader.getPosition().in(Units.Radians) * this.wheelRadius;
+    }
+
+    @Override
+    public double getRightDistance() {
+        return this.rightLeader.getPosition().in(Units.Radians) * this.wheelRadius;
+    }
+
+    @Override
+    public double getYaw() {
+        return Math.toRadians(this.yaw.refresh().getValueAsDouble());
+    }
+}
@@ -0,0 +1,36 @@
+package frc.robot.subsystem.io;
+
+import frc.robot.util.LogReplay;
+
+/**
+ * The odometry sensors of the drivetrain read from a recorded log. The log holds the last sample of each loop, so the
+ * odometry is replayed at the rate of the main loop.
+ */
+public class DrivetrainIOReplay implements DrivetrainIO {
+    // The log being replayed.
+    private final LogReplay replay;
+
+    /**
+     * Construct a new DrivetrainIOReplay.
+     *
+     * @param replay the log being replayed
+     */
+    public DrivetrainIOReplay(LogReplay replay) {
+        this.replay = replay;
+    }
+
+    @Override
+    public double getLeftDistance() {
+        return this.replay.getDouble("Drivetrain/Inputs/Left Distance", 0);
+    }
+
+    @Override
+    public double getRightDistance() {
+        return this.replay.getDouble("Drivetrain/Inputs/Right Distance", 0);
+    }
+
+    @Override
+    public double getYaw() {
+        return this.replay.getDouble("Drivetrain/Inputs/Yaw", 0);
+    }
+}
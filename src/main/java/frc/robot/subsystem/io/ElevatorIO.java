@@ -0,0 +1,60 @@
+package frc.robot.subsystem.io;
+
+/**
+ * The hardware of the elevator. The inputs are read once per loop into the sensor snapshot, and the outputs are only
+ * written by the elevator.
+ */
+public interface ElevatorIO {
+    /**
+     * Get the position of the elevator.
+     *
+     * @return the sensor position in radians
+     */
+    double getPositionRadians();
+
+    /**
+     * Get whether the bottom limit switch is pressed.
+     *
+     * @return whether the elevator is at the bottom
+     */
+    boolean getAtBottom();
+
+    /**
+     * Get the output applied by the motor controller.
+     *
+     * @return the applied output in percent
+     */
+    double getAppliedOutput();
+
+    /**
+     * Move the elevator to a position with Motion Magic.
+     *
+     * @param positionRadians the sensor position in radians
+     * @param feedforward     the arbitrary feedforward in percent output
+     */
+    void setMotionMagic(double positionRadians, double feedforward);
+
+    /**
+     * Drive the elevator with an open-loop output.
+     *
+     * @param power the output in percent
+     */
+    void setPower(double power);
+
+    /**
+     * Stop the elevator.
+     */
+    void brake();
+
+    /**
+     * Set whether the motors brake when neutral.
+     *
+     * @param brake whether to brake when neutral
+     */
+    void setBrakeWhenNeutral(boolean brake);
+
+    /**
+     * Reset the position of the elevator to zero.
+     */
+    void resetPosition();
+}
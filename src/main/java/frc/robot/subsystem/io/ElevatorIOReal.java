@@ -0,0 +1,119 @@
+package frc.robot.subsystem.io;
+
+import com.ctre.phoenix.motorcontrol.ControlMode;
+import com.ctre.phoenix.motorcontrol.DemandType;
+import edu.wpi.first.units.Units;
+import edu.wpi.first.wpilibj.DigitalInput;
+import frc.libzodiac.hardware.TalonSRXMotor;
+import frc.robot.subsystem.Elevator;
+import frc.robot.util.MotorConfigs;
+import frc.robot.util.Tuning;
+
+/**
+ * The elevator hardware: two Talon SRXs and a bottom limit switch. In simulation, the same hardware is driven by the
+ * physics in {@link frc.robot.sim.RobotSimulation}.
+ */
+public class ElevatorIOReal implements ElevatorIO {
+    // The sensor units of the quadrature encoder per radian, to read and command the Talon without a Measure.
+    private static final double SENSOR_UNITS_PER_RADIAN = 4096 / (2 * Math.PI);
+
+    // The elevator motors. Each controller is only opened through them.
+    private final TalonSRXMotor leader = new TalonSRXMotor(Elevator.LEADER_ID);
+    private final TalonSRXMotor follower = new TalonSRXMotor(Elevator.FOLLOWER_ID);
+    // The bottom limit switch.
+    private final DigitalInput limitSwitch = new DigitalInput(Elevator.LIMIT_SWITCH_CHANNEL);
+
+    /**
+     * Construct a new ElevatorIOReal and configure the motors. The settings the Talons keep in their flash are only sent
+     * when they differ from the last configuration.
+     */
+    public ElevatorIOReal() {
+        double kP = Tuning.get("elevator.kP", 0.1);
+        double kI = Tuning.get("elevator.kI", 0.005);
+        double kD = Tuning.get("elevator.kD", 1);
+        double kF = Tuning.get("elevator.kF", 0.125);
+        double cruiseVelocity = Tuning.get("elevator.cruiseVelocity", 16 * Math.PI);
+        double acceleration = Tuning.get("elevator.acceleration", 16 * Math.PI);
+        int sCurveStrength = (int) Tuning.get("elevator.sCurveStrength", 3);
+        int maxIntegralAccumulator = 27500;
+        double peakOutput = Tuning.get("elevator.peakOutput", 0.5);
+        int allowableError = 200;
+
+        var configs = MotorConfigs.getInstance();
+        int leaderFingerprint = MotorConfigs.fingerprint(kP, kI, kD, kF, cruiseVelocity, acceleration, sCurveStrength,
+                maxIntegralAccumulator, peakOutput, allowableError);
+        if (!configs.isConfigured(this.leader.getMotor(), "Elevator Leader", leaderFingerprint)) {
+            this.leader.factoryDefault();
+            this.leader.setMotionMagicConfig(kP, kI, kD, kF, Units.RadiansPerSecond.of(cruiseVelocity),
+                    Units.RadiansPerSecondPerSecond.of(acceleration), sCurveStrength);
+            this.leader.setMaxIntegralAccum(maxIntegralAccumulator);
+            this.leader.setPeakOutput(peakOutput);
+            this.leader.allowableError(allowableError);
+            configs.setConfigured(this.leader.getMotor(), "Elevator Leader", leaderFingerprint);
+        }
+        int followerFingerprint = MotorConfigs.fingerprint();
+        if (!configs.isConfigured(this.follower.getMotor(), "Elevator Follower", followerFingerprint)) {
+            this.follower.factoryDefault();
+            configs.setConfigured(this.follower.getMotor(), "Elevator Follower", followerFingerprint);
+        }
+
+        // The Talons do not keep these settings, so they are sent every boot.
+        this.leader.setInverted(false);
+        this.leader.setPhase(false);
+
+        this.follower.follow(this.leader);
+
+        this.leader.setBrakeWhenNeutral(true);
+    }
+
+    /**
+     * Get the leading motor of the elevator, for its simulation state.
+     *
+     * @return the leading motor
+     */
+    public TalonSRXMotor getLeader() {
+        return this.leader;
+    }
+
+    @Override
+    public double getPositionRadians() {
+        return this.leader.getMotor().getSelectedSensorPosition() / SENSOR_UNITS_PER_RADIAN;
+    }
+
+    @Override
+    public boolean getAtBottom() {
+        // The limit switch is active low.
+        return !this.limitSwitch.get();
+    }
+
+    @Override
+    public double getAppliedOutput() {
+        return this.leader.getMotor().getMotorOutputPercent();
+    }
+
+    @Override
+    public void setMotionMagic(double positionRadians, double feedforward) {
+        this.leader.getMotor().set(ControlMode.MotionMagic, positionRadians * SENSOR_UNITS_PER_RADIAN,
+                DemandType.ArbitraryFeedForward, feedforward);
+    }
+
+    @Override
+    public void setPower(double power) {
+        this.leader.power(power);
+    }
+
+    @Override
+    public void brake() {
+        this.leader.brake();
+    }
+
+    @Override
+    public void setBrakeWhenNeutral(boolean brake) {
+        this.leader.setBrakeWhenNeutral(brake);
+    }
+
+    @Override
+    public void resetPosition() {
+        this.leader.resetPosition();
+    }
+}
@@ -0,0 +1,55 @@
+package frc.robot.subsystem.io;
+
+import frc.robot.util.LogReplay;
+
+/**
+ * The elevator inputs read from a recorded log. The outputs are discarded; the elevator records what it commanded.
+ */
+public class ElevatorIOReplay implements ElevatorIO {
+    // The log being replayed.
+    private final LogReplay replay;
+
+    /**
+     * Construct a new ElevatorIOReplay.
+     *
+     * @param replay the log being replayed
+     */
+    public ElevatorIOReplay(LogReplay replay) {
+        this.replay = replay;
+    }
+
+    @Override
+    public double getPositionRadians() {
+        return this.replay.getDouble("Elevator/Inputs/Position", 0);
+    }
+
+    @Override
+    public boolean getAtBottom() {
+        return this.replay.getBoolean("Elevator/Inputs/At Bottom", false);
+    }
+
+    @Override
+    public double getAppliedOutput() {
+        return this.replay.getDouble("Elevator/Inputs/Applied Output", 0);
+    }
+
+    @Override
+    public void setMotionMagic(double positionRadians, double feedforward) {
+    }
+
+    @Override
+    public void setPower(double power) {
+    }
+
+    @Override
+    public void brake() {
+    }
+
+    @Override
+    public void setBrakeWhenNeutral(boolean brake) {
+    }
+
+    @Override
+    public void resetPosition() {
+    }
+}
@@ -0,0 +1,65 @@
+package frc.robot.subsystem.io;
+
+/**
+ * An elevator that drives no motor. Its inputs are set by its owner and its outputs are discarded, so the elevator
+ * logic can be run while the robot is disabled.
+ */
+public class ElevatorIOSink implements ElevatorIO {
+    // The inputs returned to the elevator.
+    private double positionRadians = 0;
+    private boolean atBottom = false;
+
+    /**
+     * Set the position returned to the elevator.
+     *
+     * @param positionRadians the sensor position in radians
+     */
+    public void setPositionRadians(double positionRadians) {
+        this.positionRadians = positionRadians;
+    }
+
+    /**
+     * Set whether the limit switch returned to the elevator is pressed.
+     *
+     * @param atBottom whether the elevator is at the bottom
+     */
+    public void setAtBottom(boolean atBottom) {
+        this.atBottom = atBottom;
+    }
+
+    @Override
+    public double getPositionRadians() {
+        return this.positionRadians;
+    }
+
+    @Override
+    public boolean getAtBottom() {
+        return this.atBottom;
+    }
+
+    @Override
+    public double getAppliedOutput() {
+        return 0;
+    }
+
+    @Override
+    public void setMotionMagic(double positionRadians, double feedforward) {
+    }
+
+    @Override
+    public void setPower(double power) {
+    }
+
+    @Override
+    public void brake() {
+    }
+
+    @Override
+    public void setBrakeWhenNeutral(boolean brake) {
+    }
+
+    @Override
+    public void resetPosition() {
+        this.positionRadians = 0;
+    }
+}
@@ -0,0 +1,51 @@
+package frc.robot.subsystem.io;
+
+/**
+ * The hardware of the intake: the rollers and the arm that moves the intake up and down.
+ */
+public interface IntakeIO {
+    /**
+     * Get the output applied by the motor controller of the left roller.
+     *
+     * @return the applied output in percent
+     */
+    double getLeftOutput();
+
+    /**
+     * Get the output applied by the motor controller of the right roller.
+     *
+     * @return the applied output in percent
+     */
+    double getRightOutput();
+
+    /**
+     * Get the output applied by the motor controller of the arm.
+     *
+     * @return the applied output in percent
+     */
+    double getArmOutput();
+
+    /**
+     * Drive the rollers.
+     *
+     * @param power the output in percent, positive to intake
+     */
+    void setRollerPower(double power);
+
+    /**
+     * Stop the rollers.
+     */
+    void brakeRollers();
+
+    /**
+     * Drive the arm.
+     *
+     * @param power the output in percent, positive to move down
+     */
+    void setArmPower(double power);
+
+    /**
+     * Stop the arm.
+     */
+    void brakeArm();
+}
@@ -0,0 +1,128 @@
+package frc.robot.subsystem.io;
+
+import com.ctre.phoenix6.StatusSignal;
+import frc.libzodiac.hardware.TalonFXMotor;
+import frc.libzodiac.hardware.TalonSRXMotor;
+import frc.robot.subsystem.Intake;
+import frc.robot.util.MotorConfigs;
+
+/**
+ * The intake hardware: two Talon FXs on the rollers and a Talon SRX on the arm. In simulation, the same controllers are
+ * powered by {@link frc.robot.sim.RobotSimulation}.
+ */
+public class IntakeIOReal implements IntakeIO {
+    // The motors for the intake. Each controller is only opened through them.
+    private final TalonFXMotor leftMotor = new TalonFXMotor(Intake.LEFT_ID);
+    private final TalonFXMotor rightMotor = new TalonFXMotor(Intake.RIGHT_ID);
+    // The motor that controls the intake.
+    private final TalonSRXMotor armMotor = new TalonSRXMotor(Intake.ARM_ID);
+    // The applied outputs of the motors.
+    private final StatusSignal<Double> leftDutyCycle = this.leftMotor.getMotor().getDutyCycle();
+    private final StatusSignal<Double> rightDutyCycle = this.rightMotor.getMotor().getDutyCycle();
+
+    /**
+     * Construct a new IntakeIOReal and configure the motors. The settings the controllers keep in their flash are only
+     * sent when they differ from the last configuration.
+     */
+    public IntakeIOReal() {
+        double rollerKP = 0.1;
+        double rollerKI = 0;
+        double rollerKD = 0;
+        boolean leftInverted = false;
+        boolean rightInverted = true;
+        double armKP = 0.1;
+        double armKI = 0;
+        double armKD = 0;
+        boolean armInverted = false;
+
+        var configs = MotorConfigs.getInstance();
+        // The Talon FXs keep their inversion along with their gains.
+        int leftFingerprint = MotorConfigs.fingerprint(leftInverted ? 1 : 0, rollerKP, rollerKI, rollerKD);
+        if (!configs.isConfigured(this.leftMotor.getMotor(), "Intake Left", leftFingerprint)) {
+            this.leftMotor.factoryDefault();
+            this.leftMotor.setInverted(leftInverted);
+            this.leftMotor.setPID(rollerKP, rollerKI, rollerKD);
+            configs.setConfigured(this.leftMotor.getMotor(), "Intake Left", leftFingerprint);
+        }
+        int rightFingerprint = MotorConfigs.fingerprint(rightInverted ? 1 : 0, rollerKP, rollerKI, rollerKD);
+        if (!configs.isConfigured(this.rightMotor.getMotor(), "Intake Right", rightFingerprint)) {
+            this.rightMotor.factoryDefault();
+            this.rightMotor.setInverted(rightInverted);
+            this.rightMotor.setPID(rollerKP, rollerKI, rollerKD);
+            configs.setConfigured(this.rightMotor.getMotor(), "Intake Right", rightFingerprint);
+        }
+        int armFingerprint = MotorConfigs.fingerprint(armKP, armKI, armKD);
+        if (!configs.isConfigured(this.armMotor.getMotor(), "Intake Arm", armFingerprint)) {
+            this.armMotor.factoryDefault();
+            this.armMotor.setPID(armKP, armKI, armKD);
+            configs.setConfigured(this.armMotor.getMotor(), "Intake Arm", armFingerprint);
+        }
+
+        // The Talon SRX does not keep its inversion, so it is sent every boot.
+        this.armMotor.setInverted(armInverted);
+    }
+
+    /**
+     * Get the motor of the left roller, for its simulation state.
+     *
+     * @return the motor of the left roller
+     */
+    public TalonFXMotor getLeftMotor() {
+        return this.leftMotor;
+    }
+
+    /**
+     * Get the motor of the right roller, for its simulation state.
+     *
+     * @return the motor of the right roller
+     */
+    public TalonFXMotor getRightMotor() {
+        return this.rightMotor;
+    }
+
+    /**
+     * Get the motor of the arm, for its simulation state.
+     *
+     * @return the motor of the arm
+     */
+    public TalonSRXMotor getArmMotor() {
+        return this.armMotor;
+    }
+
+    @Override
+    public double getLeftOutput() {
+        return this.leftDutyCycle.refresh().getValueAsDouble();
+    }
+
+    @Override
+    public double getRightOutput() {
+        return this.rightDutyCycle.refresh().getValueAsDouble();
+    }
+
+    @Override
+    public double getArmOutput() {
+        return this.armMotor.getMotor().getMotorOutputPercent();
+    }
+
+    @Override
+    public void setRollerPower(double power) {
+        this.leftMotor.power(power);
+        this.rightMotor.power(power);
+    }
+
+    @Override
+    public void brakeRollers() {
+        this.leftMotor.brake();
+        this.rightMotor.brake();
+    }
+
+    @Override
+    public void setArmPower(double power) {
+        this.armMotor.power(power);
+    }
+
+    @Override
+    public void brakeArm() {
+        this.armMotor.brake();
+    }
+}
@@ -0,0 +1,51 @@
+package frc.robot.subsystem.io;
+
+import frc.robot.util.LogReplay;
+
+/**
+ * The intake inputs read from a recorded log. The outputs are discarded; the intake records what it commanded.
+ */
+public class IntakeIOReplay implements IntakeIO {
+    // The log being replayed.
+    private final LogReplay replay;
+
+    /**
+     * Construct a new IntakeIOReplay.
+     *
+     * @param replay the log being replayed
+     */
+    public IntakeIOReplay(LogReplay replay) {
+        this.replay = replay;
+    }
+
+    @Override
+    public double getLeftOutput() {
+        return this.replay.getDouble("Intake/Inputs/Left Output", 0);
+    }
+
+    @Override
+    public double getRightOutput() {
+        return this.replay.getDouble("Intake/Inputs/Right Output", 0);
+    }
+
+    @Override
+    public double getArmOutput() {
+        return this.replay.getDouble("Intake/Inputs/Arm Output", 0);
+    }
+
+    @Override
+    public void setRollerPower(double power) {
+    }
+
+    @Override
+    public void brakeRollers() {
+    }
+
+    @Override
+    public void setArmPower(double power) {
+    }
+
+    @Override
+    public void brakeArm() {
+    }
+}
@@ -0,0 +1,38 @@
+package frc.robot.subsystem.io;
+
+/**
+ * An intake that drives no motor. Its outputs are discarded, so the intake logic can be run while the robot is
+ * disabled.
+ */
+public class IntakeIOSink implements IntakeIO {
+    @Override
+    public double getLeftOutput() {
+        return 0;
+    }
+
+    @Override
+    public double getRightOutput() {
+        return 0;
+    }
+
+    @Override
+    public double getArmOutput() {
+        return 0;
+    }
+
+    @Override
+    public void setRollerPower(double power) {
+    }
+
+    @Override
+    public void brakeRollers() {
+    }
+
+    @Override
+    public void setArmPower(double power) {
+    }
+
+    @Override
+    public void brakeArm() {
+    }
+}
@@ -0,0 +1,14 @@
+package frc.robot.subsystem.io;
+
+/**
+ * The hardware of the outtake: the two servos that open and close it.
+ */
+public interface OuttakeIO {
+    /**
+     * Set the positions of the servos.
+     *
+     * @param left  the position of the left servo, from 0 to 1
+     * @param right the position of the right servo, from 0 to 1
+     */
+    void setServos(double left, double right);
+}
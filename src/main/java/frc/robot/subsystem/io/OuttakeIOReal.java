@@ -0,0 +1,18 @@
+package frc.robot.subsystem.io;
+
+import edu.wpi.first.wpilibj.Servo;
+
+/**
+ * The outtake hardware: two servos on PWM.
+ */
+public class OuttakeIOReal implements OuttakeIO {
+    // The servos that control the outtake.
+    private final Servo leftServo = new Servo(0);
+    private final Servo rightServo = new Servo(1);
+
+    @Override
+    public void setServos(double left, double right) {
+        this.leftServo.set(left);
+        this.rightServo.set(right);
+    }
+}
@@ -0,0 +1,11 @@
+package frc.robot.subsystem.io;
+
+/**
+ * The outtake in a replay. The outtake has no inputs, and the outputs are discarded; the outtake records what it
+ * commanded.
+ */
+public class OuttakeIOReplay implements OuttakeIO {
+    @Override
+    public void setServos(double left, double right) {
+    }
+}
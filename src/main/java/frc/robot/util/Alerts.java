@@ -0,0 +1,163 @@
+package frc.robot.util;
+
+import edu.wpi.first.wpilibj.Timer;
+import frc.libzodiac.ui.Elastic;
+
+import java.util.ArrayList;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Sends Elastic notifications on the rising edge of named conditions. Repeated alerts inside the coalesce window are
+ * dropped, and the notifications are serialized and sent on a background thread, so the main loop only enqueues.
+ */
+public class Alerts {
+    // The number of notifications that can wait to be sent.
+    private static final int QUEUE_CAPACITY = 16;
+
+    private static Alerts INSTANCE;
+
+    // The registered alerts.
+    private final ArrayList<Alert> alerts = new ArrayList<>();
+    // The notifications waiting to be sent.
+    private final SpscQueue<Elastic.Notification> queue = new SpscQueue<>(QUEUE_CAPACITY);
+    // The thread that sends the notifications.
+    private final Thread sender;
+    // The time in seconds during which an alert is not sent again.
+    private double coalesceWindow = 3;
+
+    private Alerts() {
+        this.sender = new Thread(this::send, "Alerts");
+        this.sender.setDaemon(true);
+        this.sender.setPriority(Thread.MIN_PRIORITY);
+        this.sender.start();
+    }
+
+    /**
+     * Get the instance of the alerts.
+     *
+     * @return the instance of the alerts
+     */
+    public static Alerts getInstance() {
+        if (INSTANCE == null) {
+            INSTANCE = new Alerts();
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Set the time during which an alert is not sent again.
+     *
+     * @param seconds the coalesce window in seconds
+     */
+    public void setCoalesceWindow(double seconds) {
+        this.coalesceWindow = seconds;
+    }
+
+    /**
+     * Register an alert that is sent when its condition becomes true.
+     *
+     * @param name         the name of the alert
+     * @param condition    the condition, evaluated once per loop
+     * @param notification the notification to send
+     * @return the alert
+     */
+    public Alert addCondition(String name, BooleanSupplier condition, Elastic.Notification notification) {
+        var alert = new Alert(name, condition, notification);
+        this.alerts.add(alert);
+        return alert;
+    }
+
+    /**
+     * Register an alert that is sent when it is fired.
+     *
+     * @param name         the name of the alert
+     * @param notification the notification to send
+     * @return the alert
+     */
+    public Alert add(String name, Elastic.Notification notification) {
+        return this.addCondition(name, null, notification);
+    }
+
+    /**
+     * Evaluate the conditions of the alerts. Call this once per loop from the main thread.
+     */
+    public void update() {
+        for (int i = 0; i < this.alerts.size(); i++) {
+            var alert = this.alerts.get(i);
+            if (alert.condition == null) {
+                continue;
+            }
+            boolean active = alert.condition.getAsBoolean();
+            if (active && !alert.active) {
+                alert.fire();
+            }
+            alert.active = active;
+        }
+    }
+
+    private void send() {
+        while (!Thread.currentThread().isInterrupted()) {
+            var notification = this.queue.poll();
+            if (notification == null) {
+                LockSupport.park(this);
+            } else {
+                Elastic.sendNotification(notification);
+            }
+        }
+    }
+
+    /**
+     * A named alert.
+     */
+    public class Alert {
+        // The name of the alert.
+        private final String name;
+        // The condition of the alert, or null if the alert is fired manually.
+        private final BooleanSupplier condition;
+        // The notification to send.
+        private final Elastic.Notification notification;
+        // Whether the condition was true in the last loop.
+        private boolean active = false;
+        // The time the alert was last sent.
+        private double lastSent = Double.NEGATIVE_INFINITY;
+
+        private Alert(String name, BooleanSupplier condition, Elastic.Notification notification) {
+            this.name = name;
+            this.condition = condition;
+            this.notification = notification;
+        }
+
+        /**
+         * Send the alert unless it was sent inside the coalesce window. Call this from the main thread.
+         */
+        public void fire() {
+            double now = Timer.getFPGATimestamp();
+            if (now - this.lastSent < Alerts.this.coalesceWindow) {
+                return;
+            }
+            if (Alerts.this.queue.offer(this.notification)) {
+                this.lastSent = now;
+                LockSupport.unpark(Alerts.this.sender);
+            }
+        }
+
+        /**
+         * Get the name of the alert.
+         *
+         * @return the name of the alert
+         */
+        public String getName() {
+            return this.name;
+        }
+
+        /**
+         * Get whether the condition of the alert is true.
+         *
+         * @return whether the condition is true
+         */
+        public boolean isActive() {
+            return this.active;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package frc.robot.util;
+
+import com.pathplanner.lib.commands.PathPlannerAuto;
+import com.pathplanner.lib.config.RobotConfig;
+import com.pathplanner.lib.controllers.PPLTVController;
+import com.pathplanner.lib.path.GoalEndState;
+import com.pathplanner.lib.path.PathConstraints;
+import com.pathplanner.lib.path.PathPlannerPath;
+import com.pathplanner.lib.trajectory.PathPlannerTrajectory;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.DifferentialDriveKinematics;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj2.command.Command;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Prepares the selected autonomous routine while disabled. When the selection changes, its paths are loaded and their
+ * trajectories generated, for both alliances, and the path following code is run in a dry run that drives no motor, so
+ * it is compiled before the match. The work is split into steps run within a time budget per loop. The duration of the
+ * first loops of autonomous is published and logged.
+ */
+public class AutoWarmup {
+    // The number of dry runs of each trajectory.
+    private static final int PASSES = 30;
+    // The time a disabled loop may spend preparing the routine in nanoseconds.
+    private static final long BUDGET = 5_000_000;
+    // The number of autonomous loops that are timed.
+    private static final int TIMED_LOOPS = 10;
+
+    private final NetworkTable table = NetworkTableInstance.getDefault().getTable("Auto Warmup");
+    // The configuration of the robot in the PathPlanner settings, or null if it cannot be read.
+    private final RobotConfig config;
+    // The controller and kinematics the dry runs go through.
+    private final PPLTVController controller = new PPLTVController(TimedRobot.kDefaultPeriod);
+    private final DifferentialDriveKinematics kinematics;
+    // A path that is warmed up whatever is selected, so the follower is compiled even without an auto.
+    private final PathPlannerPath warmupPath;
+
+    // The selected routine, its paths, or null until they are loaded, and the trajectories generated so far, each path
+    // followed by its flipped path.
+    private Command selected;
+    private List<PathPlannerPath> paths = null;
+    private final ArrayList<PathPlannerTrajectory> trajectories = new ArrayList<>();
+    // The time spent loading the paths and generating the trajectories in nanoseconds.
+    private long resolveTime = 0;
+    // The progress of the dry runs.
+    private int pass = 0;
+    private int trajectoryIndex = 0;
+
+    // The durations of the first autonomous loops in nanoseconds.
+    private final long[] loopTimes = new long[TIMED_LOOPS];
+    private int timedLoops = TIMED_LOOPS;
+    // The longest of the first autonomous loops in milliseconds, NaN until they are recorded.
+    private double firstLoopsMax = Double.NaN;
+
+    /**
+     * Construct a new AutoWarmup.
+     *
+     * @param trackWidth the track width of the drivetrain in meters
+     */
+    public AutoWarmup(double trackWidth) {
+        this.kinematics = new DifferentialDriveKinematics(trackWidth);
+        RobotConfig config;
+        try {
+            config = RobotConfig.fromGUISettings();
+        } catch (Exception e) {
+            DriverStation.reportWarning("Failed to read the PathPlanner settings, not warming up autos: "
+                    + e.getMessage(), false);
+            config = null;
+        }
+        this.config = config;
+        this.warmupPath = GridPathfinder.createPath(
+                List.of(new Translation2d(2, 2), new Translation2d(4, 2.5), new Translation2d(6, 4)),
+                new PathConstraints(0.5, 0.5, Math.PI, Math.PI), new GoalEndState(0, Rotation2d.kZero));
+        DataLogger.getInstance().addDouble("Auto Warmup/First Loops Max (ms)", () -> this.firstLoopsMax);
+    }
+
+    /**
+     * Prepare the selected routine. Call this once per loop while disabled.
+     *
+     * @param selected the selected routine
+     */
+    public void update(Command selected) {
+        if (this.config == null) {
+            return;
+        }
+        if (selected != this.selected) {
+            this.selected = selected;
+            this.paths = null;
+            this.trajectories.clear();
+            this.resolveTime = 0;
+            this.pass = 0;
+            this.trajectoryIndex = 0;
+        }
+
+        long deadline = System.nanoTime() + BUDGET;
+        while (this.pass < PASSES && System.nanoTime() < deadline) {
+            if (this.paths == null) {
+                this.loadPaths();
+            } else if (this.trajectories.size() < 2 * this.paths.size()) {
+                this.generateTrajectory();
+            } else {
+                this.dryRun(this.trajectories.get(this.trajectoryIndex));
+                if (++this.trajectoryIndex == this.trajectories.size()) {
+                    this.trajectoryIndex = 0;
+                    this.pass++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Load the paths of the selected routine, and the path that is warmed up whatever is selected.
+     */
+    private void loadPaths() {
+        long start = System.nanoTime();
+        var paths = new ArrayList<PathPlannerPath>();
+        if (this.selected instanceof PathPlannerAuto auto) {
+            try {
+                paths.addAll(PathPlannerAuto.getPathGroupFromAutoFile(auto.getName()));
+            } catch (Exception e) {
+                DriverStation.reportWarning("Failed to load auto " + auto.getName() + ": " + e.getMessage(), false);
+            }
+        }
+        paths.add(this.warmupPath);
+        this.paths = paths;
+        this.resolveTime += System.nanoTime() - start;
+    }
+
+    /**
+     * Generate the next trajectory, of a path or of its flipped path. The ideal trajectory is kept by each path, so
+     * following it does not generate it again.
+     */
+    private void generateTrajectory() {
+        long start = System.nanoTime();
+        int index = this.trajectories.size();
+        var path = this.paths.get(index / 2);
+        this.trajectories.add(this.getTrajectory(index % 2 == 0 ? path : path.flipPath()));
+        this.resolveTime += System.nanoTime() - start;
+        if (this.trajectories.size() == 2 * this.paths.size()) {
+            this.table.getEntry("Resolve Time (ms)").setDouble(this.resolveTime / 1e6);
+            this.table.getEntry("Trajectories").setDouble(this.trajectories.size());
+        }
+    }
+
+    /**
+     * Get the ideal trajectory of a path, or generate one from rest if the path has no ideal starting state.
+     */
+    private PathPlannerTrajectory getTrajectory(PathPlannerPath path) {
+        return path.getIdealTrajectory(this.config).orElseGet(() -> path.generateTrajectory(new ChassisSpeeds(),
+                path.getStartingHolonomicPose().map(Pose2d::getRotation).orElse(Rotation2d.kZero), this.config));
+    }
+
+    /**
+     * Follow a trajectory through the controller and the kinematics without driving the motors.
+     */
+    private void dryRun(PathPlannerTrajectory trajectory) {
+        var initial = trajectory.getInitialState();
+        this.controller.reset(initial.pose, initial.fieldSpeeds);
+        for (double t = 0; t <= trajectory.getTotalTimeSeconds(); t += TimedRobot.kDefaultPeriod) {
+            var state = trajectory.sample(t);
+            var speeds = this.controller.calculateRobotRelativeSpeeds(state.pose, state);
+            this.kinematics.toWheelSpeeds(speeds).desaturate(3);
+        }
+    }
+
+    /**
+     * Get whether the selected routine has been warmed up.
+     *
+     * @return whether the dry runs are done
+     */
+    public boolean isWarm() {
+        return this.pass >= PASSES;
+    }
+
+    /**
+     * Start timing the first loops of autonomous.
+     *
+     * @param initTime the duration of the autonomous init in nanoseconds
+     */
+    public void startTiming(long initTime) {
+        this.timedLoops = 0;
+        this.table.getEntry("Warm").setBoolean(this.isWarm());
+        this.table.getEntry("Init Time (ms)").setDouble(initTime / 1e6);
+    }
+
+    /**
+     * Record the duration of a loop, and report the first loops of autonomous once they are recorded.
+     *
+     * @param loopTime the duration of the loop in nanoseconds
+     */
+    public void recordLoop(long loopTime) {
+        if (this.timedLoops >= TIMED_LOOPS) {
+            return;
+        }
+        this.loopTimes[this.timedLoops++] = loopTime;
+        if (this.timedLoops < TIMED_LOOPS) {
+            return;
+        }
+
+        double[] milliseconds = new double[TIMED_LOOPS];
+        double max = 0;
+        for (int i = 0; i < TIMED_LOOPS; i++) {
+            milliseconds[i] = this.loopTimes[i] / 1e6;
+            max = Math.max(max, milliseconds[i]);
+        }
+        this.table.getEntry("First Loops (ms)").setDoubleArray(milliseconds);
+        this.table.getEntry("First Loops Max (ms)").setDouble(max);
+        this.firstLoopsMax = max;
+    }
+}
@@ -0,0 +1,150 @@
+package frc.robot.util;
+
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.RobotController;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Times the phases of the robot startup and runs the independent ones in the background. The duration of each phase
+ * is published to NetworkTables, and the time the code became ready is also printed to the console.
+ */
+public class BootProfiler {
+    // The number of threads that run the background phases.
+    private static final int THREADS = 3;
+
+    private static BootProfiler INSTANCE;
+
+    private final NetworkTable table = NetworkTableInstance.getDefault().getTable("Startup");
+    // The publishers of the durations, kept so they are not closed.
+    private final ArrayList<DoublePublisher> publishers = new ArrayList<>();
+    // The background phases.
+    private final ArrayList<CompletableFuture<?>> tasks = new ArrayList<>();
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS, runnable -> {
+        var thread = new Thread(runnable, "Startup");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Whether every background phase has finished and been reported.
+    private boolean complete = false;
+
+    private BootProfiler() {
+    }
+
+    /**
+     * Get the instance of the profiler.
+     *
+     * @return the instance of the profiler
+     */
+    public static BootProfiler getInstance() {
+        if (INSTANCE == null) {
+            INSTANCE = new BootProfiler();
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Run a phase on the calling thread.
+     *
+     * @param name  the name of the phase
+     * @param phase the phase
+     */
+    public void run(String name, Runnable phase) {
+        long start = System.nanoTime();
+        phase.run();
+        this.record(name, System.nanoTime() - start);
+    }
+
+    /**
+     * Run a phase that creates a value on the calling thread.
+     *
+     * @param name  the name of the phase
+     * @param phase the phase
+     * @param <T>   the type of the value
+     * @return the value
+     */
+    public <T> T get(String name, Supplier<T> phase) {
+        long start = System.nanoTime();
+        T value = phase.get();
+        this.record(name, System.nanoTime() - start);
+        return value;
+    }
+
+    /**
+     * Run a phase that creates a value in the background. Call this from the main thread only.
+     *
+     * @param name  the name of the phase
+     * @param phase the phase, which must not touch the command scheduler
+     * @param <T>   the type of the value
+     * @return the future value
+     */
+    public <T> CompletableFuture<T> async(String name, Supplier<T> phase) {
+        var task = CompletableFuture.supplyAsync(() -> this.get(name, phase), this.executor);
+        this.tasks.add(task);
+        return task;
+    }
+
+    /**
+     * Run a phase in the background. Call this from the main thread only.
+     *
+     * @param name  the name of the phase
+     * @param phase the phase, which must not touch the command scheduler
+     * @return the future completion of the phase
+     */
+    public CompletableFuture<Void> async(String name, Runnable phase) {
+        var task = CompletableFuture.runAsync(() -> this.run(name, phase), this.executor);
+        this.tasks.add(task);
+        return task;
+    }
+
+    private void record(String name, long nanos) {
+        var publisher = this.table.getDoubleTopic(name + " (ms)").publish();
+        publisher.set(nanos / 1e6);
+        synchronized (this.publishers) {
+            this.publishers.add(publisher);
+        }
+    }
+
+    /**
+     * Report that the robot code is ready. The times are measured from the start of the JVM and from the boot of the
+     * roboRIO, which the FPGA clock starts at.
+     */
+    public void ready() {
+        this.report("Code Ready");
+    }
+
+    /**
+     * Report the background phases once they have all finished. Call this periodically from the main thread.
+     *
+     * @return whether every background phase has finished
+     */
+    public boolean update() {
+        if (this.complete) {
+            return true;
+        }
+        for (int i = 0; i < this.tasks.size(); i++) {
+            if (!this.tasks.get(i).isDone()) {
+                return false;
+            }
+        }
+        this.complete = true;
+        this.report("Background Done");
+        this.executor.shutdown();
+        return true;
+    }
+
+    private void report(String name) {
+        double jvm = ManagementFactory.getRuntimeMXBean().getUptime() / 1e3;
+        double boot = RobotController.getFPGATime() / 1e6;
+        this.table.getEntry(name + " Since JVM Start (s)").setDouble(jvm);
+        this.table.getEntry(name + " Since Boot (s)").setDouble(boot);
+        System.out.printf("Startup: %s %.2f s after the JVM start, %.2f s after boot%n", name, jvm, boot);
+    }
+}
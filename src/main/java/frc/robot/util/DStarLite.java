@@ -0,0 +1,487 @@
+package frc.robot.util;
+
+import java.util.Arrays;
+
+/**
+ * An incremental shortest path search on the {@link NavGrid}, with D* Lite. The search runs backwards from the goal, so
+ * when the start moves or cells become blocked or free, only the part of the search they affect is repaired. Cells are
+ * 8-connected, and diagonal steps may not cut the corner of an obstacle.
+ * <p>
+ * Cells are int indices, row * columns + column, and every structure is a preallocated primitive array, so planning
+ * does not allocate.
+ */
+public class DStarLite {
+    // The steps to the eight neighbours of a cell.
+    private static final int[] DX = {1, 1, 0, -1, -1, -1, 0, 1};
+    private static final int[] DY = {0, 1, 1, 1, 0, -1, -1, -1};
+    // The costs of the steps, whole numbers so that the keys compare exactly. The heuristic makes ties between keys
+    // common, and rounding would break them the wrong way.
+    private static final double STRAIGHT_COST = 1000;
+    private static final double DIAGONAL_COST = 1414;
+    // The cost of the step in each direction.
+    private static final double[] COSTS = {STRAIGHT_COST, DIAGONAL_COST, STRAIGHT_COST, DIAGONAL_COST, STRAIGHT_COST,
+            DIAGONAL_COST, STRAIGHT_COST, DIAGONAL_COST};
+
+    // The size of the grid.
+    private final int columns;
+    private final int rows;
+    private final int cells;
+    // The static obstacles of the grid, and the dynamic obstacles of this and the last plan.
+    private final long[] staticObstacles;
+    private final long[] dynamicObstacles;
+    private final long[] plannedDynamicObstacles;
+    private final long[] changedObstacles;
+    // The index offset of the neighbour in each direction, and the directions each cell can step in.
+    private final int[] offsets = new int[8];
+    private final byte[] moves;
+
+    // The cost to the goal of each cell, and its one-step lookahead.
+    private final double[] g;
+    private final double[] rhs;
+    // The priority queue, a binary heap of cells with the position of each cell in the heap, or -1.
+    private final int[] heap;
+    private final int[] heapIndex;
+    private final double[] primaryKeys;
+    private final double[] secondaryKeys;
+    private int heapSize = 0;
+
+    // The goal and the start of the last plan, or -1.
+    private int goal = -1;
+    private int start = -1;
+    // The key modifier, the sum of the heuristic distances the start has moved.
+    private double keyModifier = 0;
+    // The path of the last plan.
+    private final int[] path;
+    private int pathLength = 0;
+    // The number of cells expanded by the last plan.
+    private int expandedCells = 0;
+
+    /**
+     * Construct a new DStarLite.
+     *
+     * @param grid the grid to search
+     */
+    public DStarLite(NavGrid grid) {
+        this.columns = grid.getColumns();
+        this.rows = grid.getRows();
+        this.cells = grid.getCells();
+        this.staticObstacles = grid.getObstacles().clone();
+        this.dynamicObstacles = new long[this.staticObstacles.length];
+        this.plannedDynamicObstacles = new long[this.staticObstacles.length];
+        this.changedObstacles = new long[this.staticObstacles.length];
+        this.g = new double[this.cells];
+        this.rhs = new double[this.cells];
+        this.heap = new int[this.cells];
+        this.heapIndex = new int[this.cells];
+        this.primaryKeys = new double[this.cells];
+        this.secondaryKeys = new double[this.cells];
+        this.path = new int[this.cells];
+        this.moves = new byte[this.cells];
+        for (int i = 0; i < 8; i++) {
+            this.offsets[i] = DY[i] * this.columns + DX[i];
+        }
+        for (int cell = 0; cell < this.cells; cell++) {
+            this.updateMoves(cell);
+        }
+    }
+
+    /**
+     * Clear the dynamic obstacles. They take effect on the next plan.
+     */
+    public void clearDynamicObstacles() {
+        Arrays.fill(this.dynamicObstacles, 0);
+    }
+
+    /**
+     * Mark a cell as a dynamic obstacle. It takes effect on the next plan.
+     *
+     * @param column the column of the cell
+     * @param row    the row of the cell
+     */
+    public void addDynamicObstacle(int column, int row) {
+        if (column < 0 || row < 0 || column >= this.columns || row >= this.rows) {
+            return;
+        }
+        int cell = row * this.columns + column;
+        this.dynamicObstacles[cell >>> 6] |= 1L << cell;
+    }
+
+    /**
+     * Unmark a cell as a dynamic obstacle. It takes effect on the next plan.
+     *
+     * @param cell the index of the cell
+     */
+    public void removeDynamicObstacle(int cell) {
+        this.dynamicObstacles[cell >>> 6] &= ~(1L << cell);
+    }
+
+    /**
+     * Get whether a cell is blocked by a static or a dynamic obstacle, as of the last plan.
+     *
+     * @param cell the index of the cell
+     * @return whether the cell is blocked
+     */
+    public boolean isBlocked(int cell) {
+        return ((this.staticObstacles[cell >>> 6] | this.plannedDynamicObstacles[cell >>> 6]) & (1L << cell)) != 0;
+    }
+
+    /**
+     * Plan the shortest path from a start to a goal. If the goal is the goal of the last plan, the last search is
+     * repaired for the moved start and the changed dynamic obstacles; otherwise the search starts over.
+     *
+     * @param start the start cell
+     * @param goal  the goal cell
+     * @return whether a path was found
+     */
+    public boolean plan(int start, int goal) {
+        this.expandedCells = 0;
+        boolean goalChanged = this.updateObstacles(goal);
+        if (goal != this.goal || goalChanged) {
+            this.reset(start, goal);
+        } else {
+            this.keyModifier += this.heuristic(this.start, start);
+            this.start = start;
+            this.updateChangedCells();
+        }
+        this.computeShortestPath();
+        return this.extractPath();
+    }
+
+    /**
+     * Start the search over for a new goal.
+     */
+    private void reset(int start, int goal) {
+        this.goal = goal;
+        this.start = start;
+        this.keyModifier = 0;
+        Arrays.fill(this.g, Double.POSITIVE_INFINITY);
+        Arrays.fill(this.rhs, Double.POSITIVE_INFINITY);
+        Arrays.fill(this.heapIndex, -1);
+        this.heapSize = 0;
+        if (!this.isBlocked(goal)) {
+            this.rhs[goal] = 0;
+            this.push(goal);
+        }
+    }
+
+    /**
+     * Apply the dynamic obstacles that changed since the last plan, and recompute the moves of the cells around them. A
+     * changed cell changes its own moves and the diagonal moves of its neighbours around its corner.
+     *
+     * @param goal the goal cell of this plan
+     * @return whether the goal cell changed
+     */
+    private boolean updateObstacles(int goal) {
+        // Every change is applied before any move is recomputed, so the moves see all of them.
+        for (int word = 0; word < this.dynamicObstacles.length; word++) {
+            this.changedObstacles[word] = (this.dynamicObstacles[word] ^ this.plannedDynamicObstacles[word])
+                    & ~this.staticObstacles[word];
+            this.plannedDynamicObstacles[word] = this.dynamicObstacles[word];
+        }
+        for (int word = 0; word < this.changedObstacles.length; word++) {
+            long changed = this.changedObstacles[word];
+            while (changed != 0) {
+                int cell = (word << 6) + Long.numberOfTrailingZeros(changed);
+                changed &= changed - 1;
+                this.updateMoves(cell);
+                int column = cell % this.columns;
+                int row = cell / this.columns;
+                for (int i = 0; i < 8; i++) {
+                    int neighbourColumn = column + DX[i];
+                    int neighbourRow = row + DY[i];
+                    if (neighbourColumn >= 0 && neighbourRow >= 0 && neighbourColumn < this.columns
+                            && neighbourRow < this.rows) {
+                        this.updateMoves(neighbourRow * this.columns + neighbourColumn);
+                    }
+                }
+            }
+        }
+        return (this.changedObstacles[goal >>> 6] & (1L << goal)) != 0;
+    }
+
+    /**
+     * Recompute the lookahead of the cells whose moves changed with the obstacles.
+     */
+    private void updateChangedCells() {
+        for (int word = 0; word < this.changedObstacles.length; word++) {
+            long changed = this.changedObstacles[word];
+            while (changed != 0) {
+                int cell = (word << 6) + Long.numberOfTrailingZeros(changed);
+                changed &= changed - 1;
+                this.updateCell(cell);
+                int column = cell % this.columns;
+                int row = cell / this.columns;
+                for (int i = 0; i < 8; i++) {
+                    int neighbourColumn = column + DX[i];
+                    int neighbourRow = row + DY[i];
+                    if (neighbourColumn >= 0 && neighbourRow >= 0 && neighbourColumn < this.columns
+                            && neighbourRow < this.rows) {
+                        this.updateCell(neighbourRow * this.columns + neighbourColumn);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Recompute the moves of a cell, one bit per direction that is inside the grid, free, and does not cut the corner
+     * of an obstacle.
+     */
+    private void updateMoves(int cell) {
+        int moves = 0;
+        if (!this.isBlocked(cell)) {
+            int column = cell % this.columns;
+            int row = cell / this.columns;
+            for (int i = 0; i < 8; i++) {
+                int toColumn = column + DX[i];
+                int toRow = row + DY[i];
+                if (toColumn < 0 || toRow < 0 || toColumn >= this.columns || toRow >= this.rows
+                        || this.isBlocked(toRow * this.columns + toColumn)) {
+                    continue;
+                }
+                if (DX[i] != 0 && DY[i] != 0 && (this.isBlocked(row * this.columns + toColumn)
+                        || this.isBlocked(toRow * this.columns + column))) {
+                    continue;
+                }
+                moves |= 1 << i;
+            }
+        }
+        this.moves[cell] = (byte) moves;
+    }
+
+    /**
+     * Expand cells until the cost of the start is known.
+     */
+    private void computeShortestPath() {
+        while (this.heapSize > 0) {
+            int top = this.heap[0];
+            double startPrimary = this.primaryKey(this.start);
+            double startSecondary = this.secondaryKey(this.start);
+            if (!isLess(this.primaryKeys[top], this.secondaryKeys[top], startPrimary, startSecondary)
+                    && this.rhs[this.start] <= this.g[this.start]) {
+                return;
+            }
+
+            this.expandedCells++;
+            double primary = this.primaryKey(top);
+            double secondary = this.secondaryKey(top);
+            if (isLess(this.primaryKeys[top], this.secondaryKeys[top], primary, secondary)) {
+                // The key is stale because the start moved.
+                this.primaryKeys[top] = primary;
+                this.secondaryKeys[top] = secondary;
+                this.siftDown(0);
+            } else if (this.g[top] > this.rhs[top]) {
+                this.g[top] = this.rhs[top];
+                this.remove(top);
+                this.updateNeighbours(top);
+            } else {
+                this.g[top] = Double.POSITIVE_INFINITY;
+                this.updateCell(top);
+                this.updateNeighbours(top);
+            }
+        }
+    }
+
+    private void updateNeighbours(int cell) {
+        int moves = this.moves[cell];
+        for (int i = 0; i < 8; i++) {
+            if ((moves & (1 << i)) != 0) {
+                this.updateCell(cell + this.offsets[i]);
+            }
+        }
+    }
+
+    /**
+     * Recompute the lookahead of a cell and queue it if it is inconsistent.
+     */
+    private void updateCell(int cell) {
+        if (cell != this.goal) {
+            double best = Double.POSITIVE_INFINITY;
+            int moves = this.moves[cell];
+            for (int i = 0; i < 8; i++) {
+                if ((moves & (1 << i)) != 0) {
+                    double total = COSTS[i] + this.g[cell + this.offsets[i]];
+                    if (total < best) {
+                        best = total;
+                    }
+                }
+            }
+            this.rhs[cell] = best;
+        }
+
+        boolean queued = this.heapIndex[cell] >= 0;
+        if (this.g[cell] != this.rhs[cell]) {
+            if (queued) {
+                this.update(cell);
+            } else {
+                this.push(cell);
+            }
+        } else if (queued) {
+            this.remove(cell);
+        }
+    }
+
+    /**
+     * Get the octile distance between two cells, the cost of the path between them without obstacles.
+     */
+    private double heuristic(int from, int to) {
+        int dx = Math.abs(from % this.columns - to % this.columns);
+        int dy = Math.abs(from / this.columns - to / this.columns);
+        return STRAIGHT_COST * Math.max(dx, dy) + (DIAGONAL_COST - STRAIGHT_COST) * Math.min(dx, dy);
+    }
+
+    private double primaryKey(int cell) {
+        return Math.min(this.g[cell], this.rhs[cell]) + this.heuristic(this.start, cell) + this.keyModifier;
+    }
+
+    private double secondaryKey(int cell) {
+        return Math.min(this.g[cell], this.rhs[cell]);
+    }
+
+    private static boolean isLess(double primary, double secondary, double otherPrimary, double otherSecondary) {
+        return primary < otherPrimary || primary == otherPrimary && secondary < otherSecondary;
+    }
+
+    /**
+     * Follow the cheapest steps from the start to the goal.
+     *
+     * @return whether the goal was reached
+     */
+    private boolean extractPath() {
+        this.pathLength = 0;
+        if (this.g[this.start] == Double.POSITIVE_INFINITY && this.rhs[this.start] == Double.POSITIVE_INFINITY) {
+            return false;
+        }
+        int cell = this.start;
+        this.path[this.pathLength++] = cell;
+        while (cell != this.goal) {
+            if (this.pathLength >= this.cells) {
+                this.pathLength = 0;
+                return false;
+            }
+            int moves = this.moves[cell];
+            int next = -1;
+            double best = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < 8; i++) {
+                if ((moves & (1 << i)) != 0) {
+                    int neighbour = cell + this.offsets[i];
+                    double total = COSTS[i] + this.g[neighbour];
+                    if (total < best) {
+                        best = total;
+                        next = neighbour;
+                    }
+                }
+            }
+            if (next < 0) {
+                this.pathLength = 0;
+                return false;
+            }
+            cell = next;
+            this.path[this.pathLength++] = cell;
+        }
+        return true;
+    }
+
+    /**
+     * Get the number of cells in the path of the last plan, including the start and the goal.
+     *
+     * @return the number of cells, 0 if no path was found
+     */
+    public int getPathLength() {
+        return this.pathLength;
+    }
+
+    /**
+     * Get a cell of the path of the last plan.
+     *
+     * @param index the index along the path, 0 for the start
+     * @return the index of the cell
+     */
+    public int getPathCell(int index) {
+        return this.path[index];
+    }
+
+    /**
+     * Get the number of cells expanded by the last plan, a measure of its cost.
+     *
+     * @return the number of expanded cells
+     */
+    public int getExpandedCells() {
+        return this.expandedCells;
+    }
+
+    private void push(int cell) {
+        this.primaryKeys[cell] = this.primaryKey(cell);
+        this.secondaryKeys[cell] = this.secondaryKey(cell);
+        int index = this.heapSize++;
+        this.heap[index] = cell;
+        this.heapIndex[cell] = index;
+        this.siftUp(index);
+    }
+
+    private void update(int cell) {
+        this.primaryKeys[cell] = this.primaryKey(cell);
+        this.secondaryKeys[cell] = this.secondaryKey(cell);
+        int index = this.heapIndex[cell];
+        this.siftUp(index);
+        this.siftDown(this.heapIndex[cell]);
+    }
+
+    private void remove(int cell) {
+        int index = this.heapIndex[cell];
+        this.heapIndex[cell] = -1;
+        int last = this.heap[--this.heapSize];
+        if (index == this.heapSize) {
+            return;
+        }
+        this.heap[index] = last;
+        this.heapIndex[last] = index;
+        this.siftUp(index);
+        this.siftDown(this.heapIndex[last]);
+    }
+
+    private void siftUp(int index) {
+        int cell = this.heap[index];
+        while (index > 0) {
+            int parentIndex = (index - 1) >>> 1;
+            int parent = this.heap[parentIndex];
+            if (!isLess(this.primaryKeys[cell], this.secondaryKeys[cell], this.primaryKeys[parent],
+                    this.secondaryKeys[parent])) {
+                break;
+            }
+            this.heap[index] = parent;
+            this.heapIndex[parent] = index;
+            index = parentIndex;
+        }
+        this.heap[index] = cell;
+        this.heapIndex[cell] = index;
+    }
+
+    private void siftDown(int index) {
+        int cell = this.heap[index];
+        while (true) {
+            int childIndex = 2 * index + 1;
+            if (childIndex >= this.heapSize) {
+                break;
+            }
+            int child = this.heap[childIndex];
+            if (childIndex + 1 < this.heapSize) {
+                int right = this.heap[childIndex + 1];
+                if (isLess(this.primaryKeys[right], this.secondaryKeys[right], this.primaryKeys[child],
+                        this.secondaryKeys[child])) {
+                    childIndex++;
+                    child = right;
+                }
+            }
+            if (!isLess(this.primaryKeys[child], this.secondaryKeys[child], this.primaryKeys[cell],
+                    this.secondaryKeys[cell])) {
+                break;
+            }
+            this.heap[index] = child;
+            this.heapIndex[child] = index;
+            index = childIndex;
+        }
+        this.heap[index] = cell;
+        this.heapIndex[cell] = index;
+    }
+}
@@ -0,0 +1,348 @@
+package frc.robot.util;
+
+import edu.wpi.first.util.datalog.BooleanLogEntry;
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DoubleLogEntry;
+import edu.wpi.first.util.datalog.IntegerLogEntry;
+import edu.wpi.first.util.datalog.StringLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Records the registered signals, the command lifecycle and the driver station state to a {@code .wpilog} file
+ * through {@link DataLogManager}. The main loop only copies the values into preallocated ring buffers, and a
+ * background thread appends them to the log. When the writer falls behind, frames are dropped and counted instead of
+ * blocking the main loop.
+ * <p>
+ * Signals named {@code <subsystem>/Inputs/...} are read from the hardware and are fed back in a replay, and signals
+ * named {@code <subsystem>/Outputs/...} are computed by the robot code and are compared in a replay.
+ */
+public class DataLogger {
+    // The entry written once per frame, marking the loops for a replay.
+    public static final String LOOP_ENTRY = "DataLogger/Loop";
+
+    // The number of frames that can wait to be written, about 2.5 s of loops.
+    private static final int FRAME_CAPACITY = 128;
+    // The number of command events that can wait to be written.
+    private static final int EVENT_CAPACITY = 64;
+    // The period of the writer thread.
+    private static final long WRITE_PERIOD_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    // The kinds of command events.
+    private static final byte COMMAND_INITIALIZED = 0;
+    private static final byte COMMAND_FINISHED = 1;
+    private static final byte COMMAND_INTERRUPTED = 2;
+
+    private static DataLogger INSTANCE;
+
+    // The registered signals.
+    private final ArrayList<String> doubleNames = new ArrayList<>();
+    private final ArrayList<DoubleSupplier> doubleReaders = new ArrayList<>();
+    private final ArrayList<String> booleanNames = new ArrayList<>();
+    private final ArrayList<BooleanSupplier> booleanReaders = new ArrayList<>();
+
+    // The frames, indexed by sequence number modulo the capacity, each holding every registered signal.
+    private long[] frameTimestamps;
+    private double[] doubleFrames;
+    private boolean[] booleanFrames;
+    // The sequence number of the next frame to write, written by the writer thread.
+    private final AtomicLong frameHead = new AtomicLong();
+    // The sequence number of the next frame to sample, written by the main thread.
+    private final AtomicLong frameTail = new AtomicLong();
+
+    // The command events, indexed by sequence number modulo the capacity.
+    private final Command[] eventCommands = new Command[EVENT_CAPACITY];
+    private final byte[] eventKinds = new byte[EVENT_CAPACITY];
+    private final long[] eventTimestamps = new long[EVENT_CAPACITY];
+    // The sequence number of the next event to write, written by the writer thread.
+    private final AtomicLong eventHead = new AtomicLong();
+    // The sequence number of the next event to record, written by the main thread.
+    private final AtomicLong eventTail = new AtomicLong();
+
+    // The number of frames and events dropped because the writer fell behind, written by the main thread.
+    private volatile long droppedFrames = 0;
+    private volatile long droppedEvents = 0;
+
+    // The entries of the log, only used by the writer thread.
+    private DoubleLogEntry[] doubleEntries;
+    private BooleanLogEntry[] booleanEntries;
+    private final IdentityHashMap<Command, BooleanLogEntry> commandEntries = new IdentityHashMap<>();
+    private StringLogEntry interruptedEntry;
+    private IntegerLogEntry loopEntry;
+    private IntegerLogEntry droppedFramesEntry;
+    private IntegerLogEntry droppedEventsEntry;
+    private DataLog log;
+
+    // The thread that writes the frames to the log, or null if the logger is not started.
+    private Thread writer;
+
+    private DataLogger() {
+    }
+
+    /**
+     * Get the instance of the logger.
+     *
+     * @return the instance of the logger
+     */
+    public static DataLogger getInstance() {
+        if (INSTANCE == null) {
+            INSTANCE = new DataLogger();
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Register a double signal. Signals can only be registered before the logger is started.
+     *
+     * @param name   the name of the signal in the log
+     * @param reader the reader of the signal, called once per loop on the main thread
+     */
+    public void addDouble(String name, DoubleSupplier reader) {
+        this.checkNotStarted();
+        this.doubleNames.add(name);
+        this.doubleReaders.add(reader);
+    }
+
+    /**
+     * Register a boolean signal. Signals can only be registered before the logger is started.
+     *
+     * @param name   the name of the signal in the log
+     * @param reader the reader of the signal, called once per loop on the main thread
+     */
+    public void addBoolean(String name, BooleanSupplier reader) {
+        this.checkNotStarted();
+        this.booleanNames.add(name);
+        this.booleanReaders.add(reader);
+    }
+
+    private void checkNotStarted() {
+        if (this.writer != null) {
+            throw new IllegalStateException("Signals must be registered before the data logger is started");
+        }
+    }
+
+    /**
+     * Get the reader of a registered double signal.
+     *
+     * @param name the name of the signal
+     * @return the reader of the signal, or null if no double signal has the name
+     */
+    public DoubleSupplier getDoubleReader(String name) {
+        int index = this.doubleNames.indexOf(name);
+        return index < 0 ? null : this.doubleReaders.get(index);
+    }
+
+    /**
+     * Get the reader of a registered boolean signal.
+     *
+     * @param name the name of the signal
+     * @return the reader of the signal, or null if no boolean signal has the name
+     */
+    public BooleanSupplier getBooleanReader(String name) {
+        int index = this.booleanNames.indexOf(name);
+        return index < 0 ? null : this.booleanReaders.get(index);
+    }
+
+    /**
+     * Start the log in the default directory, on the USB drive if there is one, and the writer thread. Call this once
+     * after every signal is registered.
+     */
+    public void start() {
+        this.start("", "");
+    }
+
+    /**
+     * Start the log and the writer thread. Call this once after every signal is registered.
+     *
+     * @param directory the directory of the log, or empty for the default
+     * @param filename  the name of the log file, or empty for a name from the date and the match
+     */
+    public void start(String directory, String filename) {
+        if (this.writer != null) {
+            return;
+        }
+        DataLogManager.start(directory, filename);
+        this.log = DataLogManager.getLog();
+        // The driver station state and the joysticks are logged by WPILib when they change, which is also what a
+        // replay needs to drive the bindings.
+        DriverStation.startDataLog(this.log, true);
+        this.doubleEntries = new DoubleLogEntry[this.doubleNames.size()];
+        for (int i = 0; i < this.doubleEntries.length; i++) {
+            this.doubleEntries[i] = new DoubleLogEntry(this.log, this.doubleNames.get(i));
+        }
+        this.booleanEntries = new BooleanLogEntry[this.booleanNames.size()];
+        for (int i = 0; i < this.booleanEntries.length; i++) {
+            this.booleanEntries[i] = new BooleanLogEntry(this.log, this.booleanNames.get(i));
+        }
+        this.interruptedEntry = new StringLogEntry(this.log, "Commands/Interrupted");
+        this.loopEntry = new IntegerLogEntry(this.log, LOOP_ENTRY);
+        this.droppedFramesEntry = new IntegerLogEntry(this.log, "DataLogger/Dropped Frames");
+        this.droppedEventsEntry = new IntegerLogEntry(this.log, "DataLogger/Dropped Events");
+
+        this.frameTimestamps = new long[FRAME_CAPACITY];
+        this.doubleFrames = new double[FRAME_CAPACITY * this.doubleEntries.length];
+        this.booleanFrames = new boolean[FRAME_CAPACITY * this.booleanEntries.length];
+
+        var scheduler = CommandScheduler.getInstance();
+        scheduler.onCommandInitialize(command -> this.recordEvent(command, COMMAND_INITIALIZED));
+        scheduler.onCommandFinish(command -> this.recordEvent(command, COMMAND_FINISHED));
+        scheduler.onCommandInterrupt(command -> this.recordEvent(command, COMMAND_INTERRUPTED));
+
+        this.writer = new Thread(this::write, "DataLogger");
+        this.writer.setDaemon(true);
+        this.writer.setPriority(Thread.MIN_PRIORITY);
+        this.writer.start();
+    }
+
+    /**
+     * Sample every registered signal into the next frame. Call this once per loop from the main thread, after the
+     * scheduler has run.
+     */
+    public void sample() {
+        if (this.writer == null) {
+            return;
+        }
+        long tail = this.frameTail.get();
+        if (tail - this.frameHead.get() >= FRAME_CAPACITY) {
+            this.droppedFrames++;
+            return;
+        }
+        int frame = (int) (tail % FRAME_CAPACITY);
+        this.frameTimestamps[frame] = RobotController.getFPGATime();
+        int doubles = this.doubleReaders.size();
+        for (int i = 0; i < doubles; i++) {
+            this.doubleFrames[frame * doubles + i] = this.doubleReaders.get(i).getAsDouble();
+        }
+        int booleans = this.booleanReaders.size();
+        for (int i = 0; i < booleans; i++) {
+            this.booleanFrames[frame * booleans + i] = this.booleanReaders.get(i).getAsBoolean();
+        }
+        this.frameTail.lazySet(tail + 1);
+    }
+
+    /**
+     * Wait until the writer has written every sampled frame and event. This is not for the main loop of the robot; a
+     * replay, which runs faster than real time, calls it so no frames are dropped.
+     */
+    public void flush() {
+        if (this.writer == null) {
+            return;
+        }
+        while (this.frameHead.get() < this.frameTail.get() || this.eventHead.get() < this.eventTail.get()) {
+            LockSupport.unpark(this.writer);
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Write every sampled frame and event, stop the writer thread and close the log.
+     */
+    public void stop() {
+        if (this.writer == null) {
+            return;
+        }
+        this.flush();
+        this.writer.interrupt();
+        try {
+            this.writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        DataLogManager.stop();
+    }
+
+    private void recordEvent(Command command, byte kind) {
+        long tail = this.eventTail.get();
+        if (tail - this.eventHead.get() >= EVENT_CAPACITY) {
+            this.droppedEvents++;
+            return;
+        }
+        int index = (int) (tail % EVENT_CAPACITY);
+        this.eventCommands[index] = command;
+        this.eventKinds[index] = kind;
+        this.eventTimestamps[index] = RobotController.getFPGATime();
+        this.eventTail.lazySet(tail + 1);
+    }
+
+    private void write() {
+        long loggedDroppedFrames = 0;
+        long loggedDroppedEvents = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            this.writeFrames();
+            this.writeEvents();
+
+            long droppedFrames = this.droppedFrames;
+            if (droppedFrames != loggedDroppedFrames) {
+                this.droppedFramesEntry.append(droppedFrames);
+                loggedDroppedFrames = droppedFrames;
+            }
+            long droppedEvents = this.droppedEvents;
+            if (droppedEvents != loggedDroppedEvents) {
+                this.droppedEventsEntry.append(droppedEvents);
+                loggedDroppedEvents = droppedEvents;
+            }
+            LockSupport.parkNanos(this, WRITE_PERIOD_NANOS);
+        }
+    }
+
+    private void writeFrames() {
+        long head = this.frameHead.get();
+        long tail = this.frameTail.get();
+        int doubles = this.doubleEntries.length;
+        int booleans = this.booleanEntries.length;
+        for (long i = head; i < tail; i++) {
+            int frame = (int) (i % FRAME_CAPACITY);
+            long timestamp = this.frameTimestamps[frame];
+            this.loopEntry.append(i, timestamp);
+            // Only changed values are written, which keeps the log small.
+            for (int j = 0; j < doubles; j++) {
+                this.doubleEntries[j].update(this.doubleFrames[frame * doubles + j], timestamp);
+            }
+            for (int j = 0; j < booleans; j++) {
+                this.booleanEntries[j].update(this.booleanFrames[frame * booleans + j], timestamp);
+            }
+        }
+        this.frameHead.lazySet(tail);
+    }
+
+    private void writeEvents() {
+        long head = this.eventHead.get();
+        long tail = this.eventTail.get();
+        for (long i = head; i < tail; i++) {
+            int index = (int) (i % EVENT_CAPACITY);
+            var command = this.eventCommands[index];
+            long timestamp = this.eventTimestamps[index];
+            this.eventCommands[index] = null;
+
+            var entry = this.commandEntries.get(command);
+            if (entry == null) {
+                entry = new BooleanLogEntry(this.log, "Commands/" + command.getName());
+                this.commandEntries.put(command, entry);
+            }
+            entry.append(this.eventKinds[index] == COMMAND_INITIALIZED, timestamp);
+            if (this.eventKinds[index] == COMMAND_INTERRUPTED) {
+                this.interruptedEntry.append(command.getName(), timestamp);
+            }
+        }
+        this.eventHead.lazySet(tail);
+    }
+
+    /**
+     * Get the number of frames dropped because the writer fell behind.
+     *
+     * @return the number of dropped frames
+     */
+    public long getDroppedFrames() {
+        return this.droppedFrames;
+    }
+}
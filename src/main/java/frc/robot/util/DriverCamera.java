@@ -0,0 +1,350 @@
+package frc.robot.util;
+
+import com.sun.management.OperatingSystemMXBean;
+import edu.wpi.first.cameraserver.CameraServer;
+import edu.wpi.first.cscore.CameraServerJNI;
+import edu.wpi.first.cscore.CvSink;
+import edu.wpi.first.cscore.CvSource;
+import edu.wpi.first.cscore.MjpegServer;
+import edu.wpi.first.cscore.UsbCamera;
+import edu.wpi.first.cscore.VideoMode;
+import edu.wpi.first.cscore.VideoSource;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.StringPublisher;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.core.MatOfInt;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.opencv.imgproc.Imgproc;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Streams the driver camera with a profile chosen on the dashboard for each match mode. The profiles that the camera
+ * can encode itself are passed through to the stream untouched; the others are converted on a low-priority thread. The
+ * frame rate of the stream is lowered when it would exceed the bandwidth limit. The CPU time of the camera thread, the
+ * CPU load of the robot program and the bit rate of the stream are published.
+ */
+public class DriverCamera implements AutoCloseable {
+    // The time between two measurements of the stream in seconds.
+    private static final double MEASURE_PERIOD = 1;
+    // The number of converted frames between two measurements of their compressed size.
+    private static final int SIZE_SAMPLE_PERIOD = 10;
+    // The time to wait for a frame in seconds.
+    private static final double FRAME_TIMEOUT = 0.5;
+
+    // The camera and the source of the converted frames.
+    private final UsbCamera camera;
+    private final CvSource converted;
+    // The sink the frames to convert are grabbed from, and the server of the stream.
+    private final CvSink sink;
+    private final MjpegServer server;
+    // The bandwidth limit of the stream in bits per second.
+    private final double maxBitsPerSecond;
+    // The profile of each match mode.
+    private final SendableChooser<Profile> disabledProfile = createChooser(Profile.LOW);
+    private final SendableChooser<Profile> autonomousProfile = createChooser(Profile.LOW);
+    private final SendableChooser<Profile> teleopProfile = createChooser(Profile.DRIVING);
+    private final SendableChooser<Profile> testProfile = createChooser(Profile.FULL);
+    // The thread that applies the profiles, converts the frames and measures the stream.
+    private final Thread thread = new Thread(this::run, "Driver Camera");
+
+    // The CPU time counters.
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final OperatingSystemMXBean system = ManagementFactory.getPlatformMXBean(OperatingSystemMXBean.class);
+    private final StringPublisher profilePublisher;
+    private final DoublePublisher cpuPublisher;
+    private final DoublePublisher processCpuPublisher;
+    private final DoublePublisher bitRatePublisher;
+    private final DoublePublisher fpsPublisher;
+
+    // The frames of the conversion and the compressed frame its size is measured with. Only used on the thread.
+    private final Mat frame;
+    private final Mat grayFrame;
+    private final MatOfByte compressedFrame;
+    private MatOfInt compressionParameters;
+    // The applied profile and the frame rate of the stream under the bandwidth limit.
+    private Profile profile;
+    private int limitedFps;
+    // The converted frames, their compressed size in bytes and the time the last one was put.
+    private long convertedFrames = 0;
+    private double frameBytes = 0;
+    private long lastFrameTime = 0;
+
+    /**
+     * Construct a new DriverCamera. The stream starts when {@link #start()} is called.
+     *
+     * @param device           the device number of the USB camera
+     * @param maxBitsPerSecond the bandwidth limit of the stream in bits per second
+     */
+    public DriverCamera(int device, double maxBitsPerSecond) {
+        this.maxBitsPerSecond = maxBitsPerSecond;
+        this.camera = new UsbCamera("Driver Camera", device);
+        this.converted = new CvSource("Driver Camera Converted", VideoMode.PixelFormat.kGray, Profile.LOW.width,
+                Profile.LOW.height, Profile.LOW.fps);
+        CameraServer.addCamera(this.camera);
+        CameraServer.addCamera(this.converted);
+        this.sink = new CvSink("Driver Camera Sink");
+        this.sink.setSource(this.camera);
+        this.sink.setEnabled(false);
+        // The frames are created after the sink, which loads OpenCV.
+        this.frame = new Mat();
+        this.grayFrame = new Mat();
+        this.compressedFrame = new MatOfByte();
+        this.compressionParameters = new MatOfInt();
+        this.server = CameraServer.addServer("Driver Camera Stream");
+        this.server.setSource(this.camera);
+        // Measure the data rate of the sources.
+        CameraServerJNI.setTelemetryPeriod(MEASURE_PERIOD);
+
+        SmartDashboard.putData("Driver Camera/Disabled Profile", this.disabledProfile);
+        SmartDashboard.putData("Driver Camera/Autonomous Profile", this.autonomousProfile);
+        SmartDashboard.putData("Driver Camera/Teleop Profile", this.teleopProfile);
+        SmartDashboard.putData("Driver Camera/Test Profile", this.testProfile);
+        NetworkTable table = NetworkTableInstance.getDefault().getTable("Driver Camera");
+        this.profilePublisher = table.getStringTopic("Profile").publish();
+        this.cpuPublisher = table.getDoubleTopic("Thread CPU (ms per s)").publish();
+        this.processCpuPublisher = table.getDoubleTopic("Process CPU (%)").publish();
+        this.bitRatePublisher = table.getDoubleTopic("Stream (bits per s)").publish();
+        this.fpsPublisher = table.getDoubleTopic("Stream FPS").publish();
+
+        this.thread.setDaemon(true);
+        this.thread.setPriority(Thread.MIN_PRIORITY);
+    }
+
+    private static SendableChooser<Profile> createChooser(Profile defaultProfile) {
+        var chooser = new SendableChooser<Profile>();
+        for (var profile : Profile.values()) {
+            if (profile == defaultProfile) {
+                chooser.setDefaultOption(profile.name, profile);
+            } else {
+                chooser.addOption(profile.name, profile);
+            }
+        }
+        return chooser;
+    }
+
+    /**
+     * Start the camera thread.
+     */
+    public void start() {
+        this.thread.start();
+    }
+
+    /**
+     * Get the profile chosen for the current match mode.
+     */
+    private Profile getModeProfile() {
+        SendableChooser<Profile> chooser;
+        if (DriverStation.isDisabled()) {
+            chooser = this.disabledProfile;
+        } else if (DriverStation.isAutonomous()) {
+            chooser = this.autonomousProfile;
+        } else if (DriverStation.isTest()) {
+            chooser = this.testProfile;
+        } else {
+            chooser = this.teleopProfile;
+        }
+        var profile = chooser.getSelected();
+        return profile == null ? Profile.LOW : profile;
+    }
+
+    private void run() {
+        long lastMeasureTime = System.nanoTime();
+        long lastCpuTime = this.threads.getCurrentThreadCpuTime();
+        long lastConvertedFrames = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            var profile = this.getModeProfile();
+            if (profile != this.profile) {
+                this.apply(profile);
+            }
+
+            if (profile.grayscale) {
+                this.convert();
+            } else {
+                try {
+                    Thread.sleep((long) (MEASURE_PERIOD * 100));
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+
+            long now = System.nanoTime();
+            double elapsed = (now - lastMeasureTime) / 1e9;
+            if (elapsed < MEASURE_PERIOD) {
+                continue;
+            }
+            long cpuTime = this.threads.getCurrentThreadCpuTime();
+            this.cpuPublisher.set((cpuTime - lastCpuTime) / 1e6 / elapsed);
+            this.processCpuPublisher.set(this.system.getProcessCpuLoad() * 100);
+            double fps;
+            double bytesPerFrame;
+            if (profile.grayscale) {
+                fps = (this.convertedFrames - lastConvertedFrames) / elapsed;
+                bytesPerFrame = this.frameBytes;
+            } else {
+                // The server drops the frames of the camera above the limited frame rate.
+                double cameraFps = this.camera.getActualFPS();
+                fps = Math.min(cameraFps, this.limitedFps);
+                if (profile.quality >= 0) {
+                    bytesPerFrame = this.measureCompressedSize();
+                } else {
+                    bytesPerFrame = cameraFps > 0 ? this.camera.getActualDataRate() / cameraFps : 0;
+                }
+                this.limit(bytesPerFrame);
+            }
+            this.fpsPublisher.set(fps);
+            this.bitRatePublisher.set(bytesPerFrame * 8 * fps);
+            lastMeasureTime = now;
+            lastCpuTime = cpuTime;
+            lastConvertedFrames = this.convertedFrames;
+        }
+    }
+
+    /**
+     * Apply a profile to the camera and the stream.
+     */
+    private void apply(Profile profile) {
+        this.profile = profile;
+        this.limitedFps = profile.fps;
+        this.frameBytes = 0;
+        this.camera.setVideoMode(VideoMode.PixelFormat.kMJPEG, profile.width, profile.height, profile.fps);
+        this.server.setFPS(profile.fps);
+        // The frames the server compresses again are grabbed to measure their size.
+        this.sink.setEnabled(profile.grayscale || profile.quality >= 0);
+        if (profile.grayscale) {
+            this.converted.setVideoMode(VideoMode.PixelFormat.kGray, profile.width, profile.height, profile.fps);
+            this.server.setSource(this.converted);
+        } else {
+            this.server.setSource(this.camera);
+        }
+        // Without a quality, the frames compressed by the camera are streamed without being compressed again.
+        this.server.setCompression(profile.quality);
+        if (profile.quality >= 0) {
+            this.server.setDefaultCompression(profile.quality);
+        }
+        this.compressionParameters.release();
+        this.compressionParameters = new MatOfInt(Imgcodecs.IMWRITE_JPEG_QUALITY,
+                profile.quality < 0 ? 80 : profile.quality);
+        this.profilePublisher.set(profile.name);
+    }
+
+    /**
+     * Convert the next frame of the camera, dropping it if the stream is at its limited frame rate.
+     */
+    private void convert() {
+        if (this.sink.grabFrame(this.frame, FRAME_TIMEOUT) == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (now - this.lastFrameTime < 1e9 / this.limitedFps) {
+            return;
+        }
+        this.lastFrameTime = now;
+        Imgproc.cvtColor(this.frame, this.grayFrame, Imgproc.COLOR_BGR2GRAY);
+        this.converted.putFrame(this.grayFrame);
+        if (this.convertedFrames++ % SIZE_SAMPLE_PERIOD == 0) {
+            // The server compresses the frames itself, so their size is measured on a sample of them.
+            Imgcodecs.imencode(".jpg", this.grayFrame, this.compressedFrame, this.compressionParameters);
+            this.frameBytes = this.compressedFrame.total();
+            this.limit(this.frameBytes);
+        }
+    }
+
+    /**
+     * Measure the size of a frame of the camera compressed at the quality of the stream, as the server compresses the
+     * frames again before sending them. One frame is grabbed and compressed per measurement.
+     *
+     * @return the size of a streamed frame in bytes, or the last size if no frame was grabbed
+     */
+    private double measureCompressedSize() {
+        if (this.sink.grabFrame(this.frame, FRAME_TIMEOUT) != 0) {
+            Imgcodecs.imencode(".jpg", this.frame, this.compressedFrame, this.compressionParameters);
+            this.frameBytes = this.compressedFrame.total();
+        }
+        return this.frameBytes;
+    }
+
+    /**
+     * Lower the frame rate of the stream so it stays under the bandwidth limit, or raise it back up to the frame rate
+     * of the profile.
+     *
+     * @param bytesPerFrame the size of a streamed frame in bytes
+     */
+    private void limit(double bytesPerFrame) {
+        int fps = this.profile.fps;
+        if (bytesPerFrame > 0) {
+            fps = (int) Math.max(1, Math.min(fps, this.maxBitsPerSecond / (bytesPerFrame * 8)));
+        }
+        if (fps != this.limitedFps) {
+            this.limitedFps = fps;
+            if (!this.profile.grayscale) {
+                this.server.setFPS(fps);
+            }
+        }
+    }
+
+    /**
+     * Get the source currently streamed.
+     *
+     * @return the streamed source
+     */
+    public VideoSource getSource() {
+        return this.server.getSource();
+    }
+
+    @Override
+    public void close() {
+        this.thread.interrupt();
+        try {
+            this.thread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.server.close();
+        this.sink.close();
+        this.converted.close();
+        this.camera.close();
+        this.frame.release();
+        this.grayFrame.release();
+        this.compressedFrame.release();
+        this.compressionParameters.release();
+    }
+
+    /**
+     * The profiles of the stream, from the most to the least expensive.
+     */
+    public enum Profile {
+        FULL("Full", 320, 240, 30, -1, false),
+        DRIVING("Driving", 320, 240, 20, -1, false),
+        COMPRESSED("Compressed", 320, 240, 20, 30, false),
+        LOW("Low", 160, 120, 15, -1, false),
+        GRAYSCALE("Grayscale", 160, 120, 15, 40, true);
+
+        // The name of the profile, shown on the dashboard.
+        private final String name;
+        // The resolution and the frame rate of the camera.
+        private final int width;
+        private final int height;
+        private final int fps;
+        // The JPEG quality of the stream from 0 to 100, or -1 to stream the frames compressed by the camera.
+        private final int quality;
+        // Whether the frames are converted to grayscale on the camera thread.
+        private final boolean grayscale;
+
+        Profile(String name, int width, int height, int fps, int quality, boolean grayscale) {
+            this.name = name;
+            this.width = width;
+            this.height = height;
+            this.fps = fps;
+            this.quality = quality;
+            this.grayscale = grayscale;
+        }
+    }
+}
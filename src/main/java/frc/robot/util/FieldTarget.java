@@ -0,0 +1,54 @@
+package frc.robot.util;
+
+import edu.wpi.first.apriltag.AprilTagFieldLayout;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+
+/**
+ * The named places the robot drives to, each in front of an AprilTag on a reef face or a coral station. The reef faces
+ * are numbered counterclockwise from the face towards the alliance wall, and left and right are as seen from the
+ * driver station. The paths to them are precomputed into the {@link PathTable}, so changing this enum requires a
+ * rebuild.
+ */
+public enum FieldTarget {
+    BLUE_REEF_1(18), BLUE_REEF_2(17), BLUE_REEF_3(22), BLUE_REEF_4(21), BLUE_REEF_5(20), BLUE_REEF_6(19),
+    RED_REEF_1(7), RED_REEF_2(8), RED_REEF_3(9), RED_REEF_4(10), RED_REEF_5(11), RED_REEF_6(6),
+    BLUE_LEFT_STATION(13), BLUE_RIGHT_STATION(12), RED_LEFT_STATION(1), RED_RIGHT_STATION(2);
+
+    // The distance from the tag to the center of the robot, half the robot length plus a margin, in meters.
+    private static final double STANDOFF = 0.55;
+
+    // The ID of the AprilTag the target is in front of.
+    private final int tagId;
+
+    /**
+     * Construct a new FieldTarget.
+     *
+     * @param tagId the ID of the AprilTag the target is in front of
+     */
+    FieldTarget(int tagId) {
+        this.tagId = tagId;
+    }
+
+    /**
+     * Get the ID of the AprilTag the target is in front of.
+     *
+     * @return the ID of the AprilTag
+     */
+    public int getTagId() {
+        return this.tagId;
+    }
+
+    /**
+     * Get the pose of the robot at the target: in front of the tag, facing it.
+     *
+     * @param layout the layout of the AprilTags on the field
+     * @return the pose of the robot
+     */
+    public Pose2d getPose(AprilTagFieldLayout layout) {
+        var tag = layout.getTagPose(this.tagId).orElseThrow().toPose2d();
+        var outwards = new Translation2d(STANDOFF, tag.getRotation());
+        return new Pose2d(tag.getTranslation().plus(outwards), tag.getRotation().plus(Rotation2d.k180deg));
+    }
+}
@@ -0,0 +1,196 @@
+package frc.robot.util;
+
+import com.pathplanner.lib.path.GoalEndState;
+import com.pathplanner.lib.path.PathConstraints;
+import com.pathplanner.lib.path.PathPlannerPath;
+import com.pathplanner.lib.pathfinding.Pathfinder;
+import edu.wpi.first.math.Pair;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Translation2d;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A PathPlanner pathfinder on the {@link NavGrid}, searched with {@link DStarLite} on the main thread. The search is
+ * repaired instead of restarted when the robot moves or the dynamic obstacles change, and a new path is offered only
+ * when the planned cells change.
+ */
+public class GridPathfinder implements Pathfinder {
+    // The grid to search.
+    private final NavGrid grid;
+    private final DStarLite search;
+
+    // The start and goal positions.
+    private Translation2d start = new Translation2d();
+    private Translation2d goal = new Translation2d();
+    // Whether the start, the goal or the obstacles changed since the last plan.
+    private boolean dirty = false;
+    // Whether the last plan has not been taken yet.
+    private boolean newPathAvailable = false;
+    // The cells of the last plan.
+    private final int[] path;
+    private int pathLength = 0;
+
+    /**
+     * Construct a new GridPathfinder.
+     *
+     * @param grid the grid to search
+     */
+    public GridPathfinder(NavGrid grid) {
+        this.grid = grid;
+        this.search = new DStarLite(grid);
+        this.path = new int[grid.getCells()];
+    }
+
+    /**
+     * Create a path through waypoints. Each waypoint faces along its segment, so a differential drivetrain drives the
+     * path forwards.
+     *
+     * @param waypoints    the waypoints, at least two
+     * @param constraints  the constraints of the path
+     * @param goalEndState the state at the end of the path
+     * @return the path
+     */
+    public static PathPlannerPath createPath(List<Translation2d> waypoints, PathConstraints constraints,
+                                             GoalEndState goalEndState) {
+        var poses = new ArrayList<Pose2d>(waypoints.size());
+        for (int i = 0; i < waypoints.size(); i++) {
+            Translation2d from = waypoints.get(i == waypoints.size() - 1 ? i - 1 : i);
+            Translation2d to = waypoints.get(i == waypoints.size() - 1 ? i : i + 1);
+            poses.add(new Pose2d(waypoints.get(i), to.minus(from).getAngle()));
+        }
+        var path = new PathPlannerPath(PathPlannerPath.waypointsFromPoses(poses), constraints, null, goalEndState);
+        // The positions are already on the field of the alliance.
+        path.preventFlipping = true;
+        return path;
+    }
+
+    @Override
+    public boolean isNewPathAvailable() {
+        if (this.dirty) {
+            this.dirty = false;
+            this.plan();
+        }
+        return this.newPathAvailable;
+    }
+
+    @Override
+    public PathPlannerPath getCurrentPath(PathConstraints constraints, GoalEndState goalEndState) {
+        this.newPathAvailable = false;
+        if (this.pathLength == 0) {
+            return null;
+        }
+
+        // Keep only the cells where the line of sight from the last kept cell ends.
+        var waypoints = new ArrayList<Translation2d>();
+        waypoints.add(this.start);
+        int anchor = 0;
+        while (anchor < this.pathLength - 1) {
+            int next = anchor + 1;
+            for (int i = this.pathLength - 1; i > next; i--) {
+                if (this.hasLineOfSight(this.path[anchor], this.path[i])) {
+                    next = i;
+                    break;
+                }
+            }
+            if (next < this.pathLength - 1) {
+                int cell = this.path[next];
+                waypoints.add(new Translation2d(this.grid.getCenterX(cell), this.grid.getCenterY(cell)));
+            }
+            anchor = next;
+        }
+        waypoints.add(this.goal);
+        if (this.start.getDistance(this.goal) < this.grid.getNodeSize() / 2 && waypoints.size() == 2) {
+            return null;
+        }
+        return createPath(waypoints, constraints, goalEndState);
+    }
+
+    @Override
+    public void setStartPosition(Translation2d startPosition) {
+        this.start = startPosition;
+        this.dirty = true;
+    }
+
+    @Override
+    public void setGoalPosition(Translation2d goalPosition) {
+        this.goal = goalPosition;
+        this.dirty = true;
+    }
+
+    /**
+     * Set the dynamic obstacles, replacing the last ones. The cells overlapping each box are blocked, except the cell
+     * of the robot.
+     *
+     * @param obs             the opposite corners of the boxes of the obstacles
+     * @param currentRobotPos the position of the robot
+     */
+    @Override
+    public void setDynamicObstacles(List<Pair<Translation2d, Translation2d>> obs, Translation2d currentRobotPos) {
+        double nodeSize = this.grid.getNodeSize();
+        this.search.clearDynamicObstacles();
+        for (int i = 0; i < obs.size(); i++) {
+            var box = obs.get(i);
+            int minColumn = (int) Math.floor(Math.min(box.getFirst().getX(), box.getSecond().getX()) / nodeSize);
+            int maxColumn = (int) Math.floor(Math.max(box.getFirst().getX(), box.getSecond().getX()) / nodeSize);
+            int minRow = (int) Math.floor(Math.min(box.getFirst().getY(), box.getSecond().getY()) / nodeSize);
+            int maxRow = (int) Math.floor(Math.max(box.getFirst().getY(), box.getSecond().getY()) / nodeSize);
+            for (int row = minRow; row <= maxRow; row++) {
+                for (int column = minColumn; column <= maxColumn; column++) {
+                    this.search.addDynamicObstacle(column, row);
+                }
+            }
+        }
+        int robotCell = this.grid.getCell(currentRobotPos.getX(), currentRobotPos.getY());
+        if (robotCell >= 0) {
+            this.search.removeDynamicObstacle(robotCell);
+        }
+        this.start = currentRobotPos;
+        this.dirty = true;
+    }
+
+    /**
+     * Plan from the start to the goal, and offer the path if its cells changed.
+     */
+    private void plan() {
+        int startCell = this.grid.getNearestFreeCell(this.start.getX(), this.start.getY());
+        int goalCell = this.grid.getNearestFreeCell(this.goal.getX(), this.goal.getY());
+        if (startCell < 0 || goalCell < 0 || !this.search.plan(startCell, goalCell)) {
+            this.newPathAvailable |= this.pathLength != 0;
+            this.pathLength = 0;
+            return;
+        }
+
+        int length = this.search.getPathLength();
+        boolean changed = length != this.pathLength;
+        for (int i = 0; i < length; i++) {
+            int cell = this.search.getPathCell(i);
+            changed |= this.path[i] != cell;
+            this.path[i] = cell;
+        }
+        this.pathLength = length;
+        this.newPathAvailable |= changed;
+    }
+
+    /**
+     * Get whether the straight line between the centers of two cells crosses no static or dynamic obstacle.
+     */
+    private boolean hasLineOfSight(int from, int to) {
+        double nodeSize = this.grid.getNodeSize();
+        double x0 = this.grid.getCenterX(from);
+        double y0 = this.grid.getCenterY(from);
+        double x1 = this.grid.getCenterX(to);
+        double y1 = this.grid.getCenterY(to);
+        // Sample at a quarter of a cell, as NavGrid.hasLineOfSight does.
+        int steps = Math.max(1, (int) Math.ceil(Math.hypot(x1 - x0, y1 - y0) / (nodeSize / 4)));
+        for (int i = 0; i <= steps; i++) {
+            double t = (double) i / steps;
+            int cell = this.grid.getCell(x0 + (x1 - x0) * t, y0 + (y1 - y0) * t);
+            if (cell < 0 || this.search.isBlocked(cell)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,90 @@
+package frc.robot.util;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size histogram of non-negative long values with linear buckets. Recording never allocates.
+ */
+public class Histogram {
+    // The number of samples in each bucket, the last bucket holds every value past the range.
+    private final long[] counts;
+    // The width of each bucket.
+    private final long bucketWidth;
+    // The number of samples recorded.
+    private long count = 0;
+    // The largest sample recorded.
+    private long max = 0;
+
+    /**
+     * Construct a new Histogram.
+     *
+     * @param buckets     the number of buckets
+     * @param bucketWidth the width of each bucket
+     */
+    public Histogram(int buckets, long bucketWidth) {
+        this.counts = new long[buckets];
+        this.bucketWidth = bucketWidth;
+    }
+
+    /**
+     * Record a sample.
+     *
+     * @param value the sample
+     */
+    public void record(long value) {
+        int bucket = (int) Math.min(Math.max(value, 0) / this.bucketWidth, this.counts.length - 1);
+        this.counts[bucket]++;
+        this.count++;
+        if (value > this.max) {
+            this.max = value;
+        }
+    }
+
+    /**
+     * Get the upper bound of the bucket that contains the given percentile.
+     *
+     * @param percentile the percentile, between 0 and 1
+     * @return the value at the percentile, or 0 if nothing has been recorded
+     */
+    public long getPercentile(double percentile) {
+        if (this.count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile * this.count);
+        long seen = 0;
+        for (int i = 0; i < this.counts.length; i++) {
+            seen += this.counts[i];
+            if (seen >= rank) {
+                return Math.min((i + 1) * this.bucketWidth, this.max);
+            }
+        }
+        return this.max;
+    }
+
+    /**
+     * Get the largest sample recorded.
+     *
+     * @return the largest sample
+     */
+    public long getMax() {
+        return this.max;
+    }
+
+    /**
+     * Get the number of samples recorded.
+     *
+     * @return the number of samples
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * Clear all recorded samples.
+     */
+    public void reset() {
+        Arrays.fill(this.counts, 0);
+        this.count = 0;
+        this.max = 0;
+    }
+}
@@ -0,0 +1,290 @@
+package frc.robot.util;
+
+import edu.wpi.first.hal.DriverStationJNI;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.util.WPIUtilJNI;
+import edu.wpi.first.wpilibj.RobotController;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * Traces the driver inputs from the driver station packet they arrived in to the motor outputs computed from them. A
+ * background thread stamps each packet as the HAL receives it, and each loop that picks up a new packet records the
+ * time from the packet to the start of the loop, to the first read of the shaped input, and to the end of the command
+ * that sets the motor outputs. The latencies are kept in histograms, and p50/p99/max of each segment are published to
+ * NetworkTables. The packets picked up by a later loop than the first one to start after they arrived are counted.
+ * <p>
+ * The times are read from the FPGA clock of the HAL, which follows the simulated time when it is stepped with
+ * {@link edu.wpi.first.wpilibj.simulation.SimHooks}, so the latencies in a simulation faster than real time are in
+ * simulated time.
+ * <p>
+ * The trace ends when the motor outputs are set through the motor controller API; the time the controller takes to
+ * send the control frame on the CAN bus is not included.
+ */
+public class InputLatency implements AutoCloseable {
+    // The width of each histogram bucket in microseconds.
+    private static final long BUCKET_WIDTH = 100;
+    // The number of histogram buckets, covering 100 ms.
+    private static final int BUCKETS = 1000;
+    // The number of traced loops between two publishes.
+    private static final int PUBLISH_PERIOD = 50;
+
+    private final NetworkTable table = NetworkTableInstance.getDefault().getTable("Input Latency");
+    // The latencies of each segment, in the order of the segments.
+    private final Trace[] traces = new Trace[Segment.values().length];
+    // The event the HAL signals when a driver station packet arrives, and the thread waiting on it.
+    private final int packetEvent;
+    private final Thread packetThread;
+    private volatile boolean running = false;
+
+    // The time the last packet arrived in microseconds and the number of loops started before, written by the packet
+    // thread, the number of loops first.
+    private volatile long lastPacketTime = 0;
+    private volatile long lastPacketLoops = 0;
+    // The number of loops started, read by the packet thread.
+    private volatile long loops = 0;
+    // The time the packet of the current loop arrived, or 0 if the loop did not pick up a new packet.
+    private long packetTime = 0;
+    // The arrival time of the last packet that was picked up by a loop.
+    private long consumedPacketTime = 0;
+    // The times the current loop started, first read the shaped input and set the motor outputs, or 0 if not yet.
+    private long loopTime = 0;
+    private long inputTime = 0;
+    private long outputTime = 0;
+    // The number of traced loops since the last publish.
+    private int loopsSincePublish = 0;
+    // The number of packets picked up by a later loop than the first one to start after they arrived, since the reset.
+    private long latePackets = 0;
+    // Whether the latencies since the reset are to be reset at the next loop.
+    private volatile boolean resetRequested = false;
+
+    /**
+     * Construct a new InputLatency.
+     */
+    public InputLatency() {
+        for (var segment : Segment.values()) {
+            this.traces[segment.ordinal()] = new Trace(this.table.getSubTable(segment.displayName));
+        }
+        this.packetEvent = WPIUtilJNI.createEvent(false, false);
+        DriverStationJNI.provideNewDataEventHandle(this.packetEvent);
+        this.packetThread = new Thread(this::waitForPackets, "Driver Station Packets");
+        this.packetThread.setDaemon(true);
+    }
+
+    /**
+     * Start stamping the driver station packets.
+     */
+    public void start() {
+        this.running = true;
+        this.packetThread.start();
+    }
+
+    private void waitForPackets() {
+        while (this.running) {
+            try {
+                WPIUtilJNI.waitForObject(this.packetEvent);
+            } catch (InterruptedException e) {
+                return;
+            }
+            this.lastPacketLoops = this.loops;
+            this.lastPacketTime = RobotController.getFPGATime();
+        }
+    }
+
+    /**
+     * Wrap a shaped input so its first read of each loop is stamped as the time the input went through its pipeline.
+     *
+     * @param input the shaped input
+     * @return the traced input
+     */
+    public DoubleSupplier trace(DoubleSupplier input) {
+        return () -> {
+            double value = input.getAsDouble();
+            if (this.inputTime == 0) {
+                this.inputTime = RobotController.getFPGATime();
+            }
+            return value;
+        };
+    }
+
+    /**
+     * Mark the start of a loop, picking up the last driver station packet if it is new.
+     */
+    public void beginLoop() {
+        if (this.resetRequested) {
+            this.resetRequested = false;
+            for (var trace : this.traces) {
+                trace.total.reset();
+            }
+            this.latePackets = 0;
+        }
+        this.loopTime = RobotController.getFPGATime();
+        this.inputTime = 0;
+        this.outputTime = 0;
+        long packet = this.lastPacketTime;
+        if (packet != this.consumedPacketTime) {
+            this.consumedPacketTime = packet;
+            this.packetTime = packet;
+            // The loops started between the arrival of the packet and this one missed it.
+            if (this.loops > this.lastPacketLoops) {
+                this.latePackets++;
+            }
+        } else {
+            this.packetTime = 0;
+        }
+        this.loops++;
+    }
+
+    /**
+     * Mark the motor outputs as set from the traced inputs. Call this once the command that drives the motors has run.
+     */
+    public void markOutput() {
+        if (this.outputTime == 0) {
+            this.outputTime = RobotController.getFPGATime();
+        }
+    }
+
+    /**
+     * Mark the end of a loop, recording the latencies if the loop picked up a new packet, read the traced inputs and
+     * set the motor outputs, and publish the latencies periodically.
+     */
+    public void endLoop() {
+        if (this.packetTime == 0 || this.inputTime == 0 || this.outputTime == 0) {
+            for (var trace : this.traces) {
+                trace.last = Double.NaN;
+            }
+            return;
+        }
+        // The packet thread can stamp a packet just after the loop has started, count it as picked up immediately.
+        long packet = Math.min(this.packetTime, this.loopTime);
+        this.traces[Segment.PACKET_TO_LOOP.ordinal()].record(this.loopTime - packet);
+        this.traces[Segment.LOOP_TO_INPUT.ordinal()].record(this.inputTime - this.loopTime);
+        this.traces[Segment.INPUT_TO_OUTPUT.ordinal()].record(this.outputTime - this.inputTime);
+        this.traces[Segment.TOTAL.ordinal()].record(this.outputTime - packet);
+
+        if (++this.loopsSincePublish >= PUBLISH_PERIOD) {
+            this.loopsSincePublish = 0;
+            for (var trace : this.traces) {
+                trace.publish();
+            }
+        }
+    }
+
+    /**
+     * Get the latency of a segment in the last loop.
+     *
+     * @param segment the segment
+     * @return the latency in milliseconds, or NaN if the last loop was not traced
+     */
+    public double getLast(Segment segment) {
+        return this.traces[segment.ordinal()].last;
+    }
+
+    /**
+     * Restart collecting the latencies returned by {@link #getPercentile} at the next loop. Can be called from any
+     * thread.
+     */
+    public void reset() {
+        this.resetRequested = true;
+    }
+
+    /**
+     * Get a percentile of the latency of a segment since the last reset. Must not be called while the loop is running.
+     *
+     * @param segment    the segment
+     * @param percentile the percentile, between 0 and 1
+     * @return the latency in milliseconds, or NaN if no loop was traced
+     */
+    public double getPercentile(Segment segment, double percentile) {
+        var total = this.traces[segment.ordinal()].total;
+        return total.getCount() == 0 ? Double.NaN : total.getPercentile(percentile) / 1e3;
+    }
+
+    /**
+     * Get the number of loops traced since the last reset. Must not be called while the loop is running.
+     *
+     * @return the number of traced loops
+     */
+    public long getTracedLoops() {
+        return this.traces[Segment.TOTAL.ordinal()].total.getCount();
+    }
+
+    /**
+     * Get the number of driver station packets picked up by a later loop than the first one to start after they
+     * arrived, since the last reset. Must not be called while the loop is running.
+     *
+     * @return the number of late packets
+     */
+    public long getLatePackets() {
+        return this.latePackets;
+    }
+
+    @Override
+    public void close() {
+        this.running = false;
+        DriverStationJNI.removeNewDataEventHandle(this.packetEvent);
+        WPIUtilJNI.destroyEvent(this.packetEvent);
+        this.packetThread.interrupt();
+    }
+
+    /**
+     * A part of the path from a driver station packet to the motor outputs.
+     */
+    public enum Segment {
+        PACKET_TO_LOOP("DS Packet to Loop"),
+        LOOP_TO_INPUT("Loop to Input"),
+        INPUT_TO_OUTPUT("Input to Output"),
+        TOTAL("Total");
+
+        // The name of the segment on the dashboard.
+        private final String displayName;
+
+        Segment(String displayName) {
+            this.displayName = displayName;
+        }
+
+        /**
+         * Get the name of the segment on the dashboard.
+         *
+         * @return the name of the segment
+         */
+        public String getDisplayName() {
+            return this.displayName;
+        }
+    }
+
+    /**
+     * The latencies of a segment.
+     */
+    private static class Trace {
+        // The latencies since the last publish and since the last reset, in microseconds.
+        private final Histogram window = new Histogram(BUCKETS, BUCKET_WIDTH);
+        private final Histogram total = new Histogram(BUCKETS, BUCKET_WIDTH);
+        private final DoublePublisher p50;
+        private final DoublePublisher p99;
+        private final DoublePublisher max;
+        // The latency in the last loop in milliseconds, or NaN if it was not traced.
+        private double last = Double.NaN;
+
+        private Trace(NetworkTable table) {
+            this.p50 = table.getDoubleTopic("p50 (ms)").publish();
+            this.p99 = table.getDoubleTopic("p99 (ms)").publish();
+            this.max = table.getDoubleTopic("max (ms)").publish();
+        }
+
+        private void record(long micros) {
+            this.window.record(micros);
+            this.total.record(micros);
+            this.last = micros / 1e3;
+        }
+
+        private void publish() {
+            this.p50.set(this.window.getPercentile(0.5) / 1e3);
+            this.p99.set(this.window.getPercentile(0.99) / 1e3);
+            this.max.set(this.window.getMax() / 1e3);
+            this.window.reset();
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package frc.robot.util;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.util.sendable.Sendable;
+import edu.wpi.first.util.sendable.SendableBuilder;
+
+import java.util.ArrayList;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Shapes a driver input through a chain of stages on primitive doubles. The input is evaluated lazily, at most once
+ * per loop: the first read of a loop runs the stages, and the other reads of the same loop return the same value. The
+ * parameters of the stages can be tuned on the dashboard.
+ */
+public class InputPipeline implements DoubleSupplier, Sendable {
+    // The raw input.
+    private final DoubleSupplier source;
+    // The clock that tells the loops apart, in seconds.
+    private final DoubleSupplier clock;
+    // The stages, in the order they are applied.
+    private final ArrayList<Stage> stages = new ArrayList<>();
+    // The time of the last evaluation in seconds, and its value.
+    private double lastTime = Double.NaN;
+    private double value = 0;
+
+    /**
+     * Construct a new InputPipeline.
+     *
+     * @param source the raw input
+     * @param clock  the clock that tells the loops apart, such as the time of the sensor snapshot, in seconds
+     */
+    public InputPipeline(DoubleSupplier source, DoubleSupplier clock) {
+        this.source = source;
+        this.clock = clock;
+    }
+
+    /**
+     * Add a deadband. The inputs within it are zeroed, and the others are rescaled to start from zero.
+     *
+     * @param deadband the deadband
+     * @return this pipeline
+     */
+    public InputPipeline deadband(double deadband) {
+        this.stages.add(new Deadband(deadband));
+        return this;
+    }
+
+    /**
+     * Add a response curve that raises the magnitude of the input to a power, keeping its sign.
+     *
+     * @param exponent the exponent, 1 for a linear response
+     * @return this pipeline
+     */
+    public InputPipeline curve(double exponent) {
+        this.stages.add(new Curve(exponent));
+        return this;
+    }
+
+    /**
+     * Add a slew rate limit.
+     *
+     * @param rate the largest change of the input in units per second, infinite for no limit
+     * @return this pipeline
+     */
+    public InputPipeline slewRate(double rate) {
+        this.stages.add(new SlewRate(rate));
+        return this;
+    }
+
+    /**
+     * Get the shaped input of this loop, running the stages if it is the first read of the loop.
+     *
+     * @return the shaped input
+     */
+    @Override
+    public double getAsDouble() {
+        double time = this.clock.getAsDouble();
+        if (time != this.lastTime) {
+            this.evaluate(time);
+        }
+        return this.value;
+    }
+
+    /**
+     * Run the stages on the raw input, even if they already ran in this loop.
+     *
+     * @return the shaped input
+     */
+    public double evaluate() {
+        return this.evaluate(this.clock.getAsDouble());
+    }
+
+    private double evaluate(double time) {
+        double dt = Double.isNaN(this.lastTime) ? 0 : time - this.lastTime;
+        double value = this.source.getAsDouble();
+        for (int i = 0; i < this.stages.size(); i++) {
+            value = this.stages.get(i).apply(value, dt);
+        }
+        this.lastTime = time;
+        this.value = value;
+        return value;
+    }
+
+    /**
+     * Get the shaped input of the last evaluation, without running the stages.
+     *
+     * @return the last shaped input
+     */
+    public double getLast() {
+        return this.value;
+    }
+
+    @Override
+    public void initSendable(SendableBuilder builder) {
+        if (this.source instanceof Tunable source) {
+            source.initSendable(builder, "Source ");
+        }
+        for (int i = 0; i < this.stages.size(); i++) {
+            this.stages.get(i).initSendable(builder, (i + 1) + " ");
+        }
+        builder.addDoubleProperty("Value", this::getLast, null);
+    }
+
+    /**
+     * A part of a pipeline with parameters that can be tuned on the dashboard.
+     */
+    private interface Tunable {
+        /**
+         * Publish the tunable parameters.
+         *
+         * @param builder the builder of the pipeline
+         * @param prefix  the prefix of the property names
+         */
+        void initSendable(SendableBuilder builder, String prefix);
+    }
+
+    /**
+     * A stage of a pipeline.
+     */
+    private abstract static class Stage implements Tunable {
+        /**
+         * Shape the input.
+         *
+         * @param input the output of the previous stage
+         * @param dt    the time since the last evaluation in seconds, 0 for the first one
+         * @return the shaped input
+         */
+        abstract double apply(double input, double dt);
+    }
+
+    /**
+     * A deadband, rescaling the inputs outside it.
+     */
+    private static class Deadband extends Stage {
+        // The deadband.
+        private double deadband;
+
+        private Deadband(double deadband) {
+            this.deadband = deadband;
+        }
+
+        @Override
+        double apply(double input, double dt) {
+            return MathUtil.applyDeadband(input, this.deadband);
+        }
+
+        @Override
+        public void initSendable(SendableBuilder builder, String prefix) {
+            builder.addDoubleProperty(prefix + "Deadband", () -> this.deadband, value -> this.deadband = value);
+        }
+    }
+
+    /**
+     * A power response curve.
+     */
+    private static class Curve extends Stage {
+        // The exponent of the curve.
+        private double exponent;
+
+        private Curve(double exponent) {
+            this.exponent = exponent;
+        }
+
+        @Override
+        double apply(double input, double dt) {
+            if (this.exponent == 1) {
+                return input;
+            }
+            return Math.copySign(Math.pow(Math.abs(input), this.exponent), input);
+        }
+
+        @Override
+        public void initSendable(SendableBuilder builder, String prefix) {
+            builder.addDoubleProperty(prefix + "Exponent", () -> this.exponent, value -> this.exponent = value);
+        }
+    }
+
+    /**
+     * A slew rate limit.
+     */
+    private static class SlewRate extends Stage {
+        // The largest change in units per second.
+        private double rate;
+        // The last output, and whether there is one.
+        private double last = 0;
+        private boolean started = false;
+
+        private SlewRate(double rate) {
+            this.rate = rate;
+        }
+
+        @Override
+        double apply(double input, double dt) {
+            if (this.started && this.rate < Double.POSITIVE_INFINITY) {
+                double step = this.rate * Math.max(dt, 0);
+                input = MathUtil.clamp(input, this.last - step, this.last + step);
+            }
+            this.last = input;
+            this.started = true;
+            return input;
+        }
+
+        @Override
+        public void initSendable(SendableBuilder builder, String prefix) {
+            builder.addDoubleProperty(prefix + "Slew Rate", () -> this.rate, value -> this.rate = value);
+        }
+    }
+
+    /**
+     * A velocity input combined from a forward and a reverse trigger. When both triggers are pressed, the difference is
+     * only used if it is large enough, so resting a finger on the other trigger does not creep the robot.
+     */
+    public static class TriggerAxis implements DoubleSupplier, Tunable {
+        // The raw triggers.
+        private final DoubleSupplier forward;
+        private final DoubleSupplier reverse;
+        // The deadband of each trigger.
+        private double deadband;
+        // The difference below which two pressed triggers cancel out.
+        private double conflictThreshold;
+
+        /**
+         * Construct a new TriggerAxis.
+         *
+         * @param forward           the forward trigger
+         * @param reverse           the reverse trigger
+         * @param deadband          the deadband of each trigger
+         * @param conflictThreshold the difference below which two pressed triggers cancel out
+         */
+        public TriggerAxis(DoubleSupplier forward, DoubleSupplier reverse, double deadband, double conflictThreshold) {
+            this.forward = forward;
+            this.reverse = reverse;
+            this.deadband = deadband;
+            this.conflictThreshold = conflictThreshold;
+        }
+
+        @Override
+        public double getAsDouble() {
+            double forward = MathUtil.applyDeadband(this.forward.getAsDouble(), this.deadband);
+            double reverse = MathUtil.applyDeadband(this.reverse.getAsDouble(), this.deadband);
+            double velocity = forward - reverse;
+            if (forward != 0 && reverse != 0 && Math.abs(velocity) <= this.conflictThreshold) {
+                return 0;
+            }
+            return velocity;
+        }
+
+        @Override
+        public void initSendable(SendableBuilder builder, String prefix) {
+            builder.addDoubleProperty(prefix + "Deadband", () -> this.deadband, value -> this.deadband = value);
+            builder.addDoubleProperty(prefix + "Conflict Threshold", () -> this.conflictThreshold,
+                    value -> this.conflictThreshold = value);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package frc.robot.util;
+
+import edu.wpi.first.util.sendable.Sendable;
+import edu.wpi.first.util.sendable.SendableBuilder;
+
+import java.util.ArrayList;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Cross-subsystem rules that are declared once and act only when their condition changes.
+ */
+public class Interlocks implements Sendable {
+    // The declared rules.
+    private final ArrayList<Rule> rules = new ArrayList<>();
+
+    /**
+     * Declare a rule.
+     *
+     * @param name      the name of the rule, shown on the dashboard
+     * @param condition the condition of the rule, evaluated once per loop
+     * @param onEngage  the action to run when the condition becomes true
+     * @param onRelease the action to run when the condition becomes false, or null
+     */
+    public void add(String name, BooleanSupplier condition, Runnable onEngage, Runnable onRelease) {
+        this.rules.add(new Rule(name, condition, onEngage, onRelease));
+    }
+
+    /**
+     * Evaluate the rules and run the actions of the rules that changed. Call this once per loop.
+     */
+    public void update() {
+        for (int i = 0; i < this.rules.size(); i++) {
+            var rule = this.rules.get(i);
+            boolean engaged = rule.condition.getAsBoolean();
+            if (engaged == rule.engaged) {
+                continue;
+            }
+            rule.engaged = engaged;
+            if (engaged) {
+                rule.onEngage.run();
+            } else if (rule.onRelease != null) {
+                rule.onRelease.run();
+            }
+        }
+    }
+
+    @Override
+    public void initSendable(SendableBuilder builder) {
+        for (var rule : this.rules) {
+            builder.addBooleanProperty(rule.name, () -> rule.engaged, null);
+        }
+    }
+
+    /**
+     * A declared rule.
+     */
+    private static class Rule {
+        // The name of the rule.
+        private final String name;
+        // The condition of the rule.
+        private final BooleanSupplier condition;
+        // The action to run when the condition becomes true.
+        private final Runnable onEngage;
+        // The action to run when the condition becomes false.
+        private final Runnable onRelease;
+        // Whether the condition was true in the last loop.
+        private boolean engaged = false;
+
+        private Rule(String name, BooleanSupplier condition, Runnable onEngage, Runnable onRelease) {
+            this.name = name;
+            this.condition = condition;
+            this.onEngage = onEngage;
+            this.onRelease = onRelease;
+        }
+    }
+}
@@ -0,0 +1,387 @@
+package frc.robot.util;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.DriverStation;
+import frc.libzodiac.ui.Elastic;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedMethod;
+import jdk.jfr.consumer.RecordedObject;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * Warms up the code of the enabled modes while the robot is disabled, so the first loops after a mode change do not
+ * run in the interpreter. The classes of the hot paths are loaded in the background, and the registered tasks, which
+ * run the robot logic against IOs that drive no motor, are run a slice per loop until the JIT has compiled their
+ * methods. The compilations can be observed through JFR, in simulation or for debugging; the methods that are still
+ * interpreted and the loop overruns in the first second after each mode change are published. Without JFR, each task is
+ * run a fixed number of times.
+ */
+public class JitWarmup {
+    // The number of runs after which a task is done, even if its methods were not seen compiled.
+    private static final int MAX_RUNS = 200_000;
+    // The number of runs between two checks of the compilations of a task.
+    private static final int CHECK_PERIOD = 100;
+    // The time a disabled loop may spend on the tasks in nanoseconds.
+    private static final long BUDGET = 4_000_000;
+    // The compilation level of the optimizing compiler.
+    private static final int TOP_TIER = 4;
+    // The number of loops between two publishes of the progress.
+    private static final int PUBLISH_PERIOD = 50;
+    // The time after a mode change during which the overruns are counted, in nanoseconds.
+    private static final long MODE_CHANGE_WINDOW = 1_000_000_000;
+
+    private final NetworkTable table = NetworkTableInstance.getDefault().getTable("JIT Warmup");
+    // The registered tasks.
+    private final ArrayList<Task> tasks = new ArrayList<>();
+    // The observed compilations, or null if they are not observed.
+    private final CompilationMonitor monitor;
+    // The alert sent when the warmup is done with methods still interpreted.
+    private final Alerts.Alert interpretedAlert = Alerts.getInstance().add("JIT Warmup Incomplete",
+            new Elastic.Notification().withTitle("JIT WARMUP INCOMPLETE")
+                    .withDescription("Some methods are still interpreted, see JIT Warmup/Still Interpreted")
+                    .withLevel(Elastic.Notification.NotificationLevel.WARNING).withDisplaySeconds(5));
+    // The overrun threshold in nanoseconds.
+    private final long loopPeriod;
+    // The task to run next and the number of tasks that are done.
+    private int taskIndex = 0;
+    private int doneTasks = 0;
+    // The number of updates since the last publish.
+    private int updatesSincePublish = 0;
+
+    // The time of the last mode change, whether its loops are being timed and whether its first loop is to come.
+    private long modeChangeTime = 0;
+    private boolean timingModeChange = false;
+    private boolean firstLoopPending = false;
+    // The overruns after the mode changes and the longest loop after the last mode change in nanoseconds.
+    private int modeChangeOverruns = 0;
+    private long modeChangeMaxLoop = 0;
+
+    /**
+     * Construct a new JitWarmup.
+     *
+     * @param loopPeriod          the period of the main loop in seconds, above which a loop is an overrun
+     * @param monitorCompilations whether to observe the compilations through JFR, which records every compilation and
+     *                            inlining decision on a background thread
+     */
+    public JitWarmup(double loopPeriod, boolean monitorCompilations) {
+        this.loopPeriod = (long) (loopPeriod * 1e9);
+        CompilationMonitor monitor = null;
+        if (monitorCompilations) {
+            try {
+                monitor = new CompilationMonitor();
+            } catch (Exception | LinkageError e) {
+                DriverStation.reportWarning("JFR is not available, the compiled methods are not reported: "
+                        + e.getMessage(), false);
+            }
+        }
+        this.monitor = monitor;
+        this.table.getEntry("Compilation Monitor").setBoolean(monitor != null);
+    }
+
+    /**
+     * Load, without initializing, every class of the robot code in the given packages. Loading a class reads and
+     * parses it, which would otherwise happen the first time it is used on an enabled loop. Runs for a few seconds at
+     * the lowest priority, so call this in the background. Stops when the robot is enabled, so it does not compete with
+     * the enabled loops, which load the classes they use themselves.
+     *
+     * @param packages the packages to load, as path prefixes such as "frc/robot/"
+     */
+    public void preloadClasses(String... packages) {
+        var names = new ArrayList<String>();
+        try {
+            var location = Path.of(JitWarmup.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            if (Files.isDirectory(location)) {
+                try (Stream<Path> files = Files.walk(location)) {
+                    files.map(file -> location.relativize(file).toString().replace('\\', '/'))
+                            .forEach(entry -> addClass(names, entry, packages));
+                }
+            } else {
+                try (var jar = new JarFile(location.toFile())) {
+                    jar.stream().forEach(entry -> addClass(names, entry.getName(), packages));
+                }
+            }
+        } catch (IOException | URISyntaxException | SecurityException e) {
+            DriverStation.reportWarning("Failed to list the classes to preload: " + e.getMessage(), false);
+            return;
+        }
+
+        var loader = JitWarmup.class.getClassLoader();
+        var thread = Thread.currentThread();
+        int priority = thread.getPriority();
+        thread.setPriority(Thread.MIN_PRIORITY);
+        int loaded = 0;
+        int failed = 0;
+        try {
+            for (var name : names) {
+                if (DriverStation.isEnabled()) {
+                    break;
+                }
+                try {
+                    Class.forName(name, false, loader);
+                    loaded++;
+                } catch (ClassNotFoundException | LinkageError e) {
+                    // The class refers to an optional dependency that is not deployed.
+                    failed++;
+                }
+            }
+        } finally {
+            thread.setPriority(priority);
+        }
+        this.table.getEntry("Preloaded Classes").setDouble(loaded);
+        this.table.getEntry("Failed Classes").setDouble(failed);
+        this.table.getEntry("Preload Stopped at Enable").setBoolean(loaded + failed < names.size());
+    }
+
+    /**
+     * Add the class of a file of the code source if it is in one of the packages.
+     */
+    private static void addClass(ArrayList<String> names, String entry, String[] packages) {
+        if (!entry.endsWith(".class") || entry.endsWith("module-info.class")) {
+            return;
+        }
+        for (var prefix : packages) {
+            if (entry.startsWith(prefix)) {
+                names.add(entry.substring(0, entry.length() - ".class".length()).replace('/', '.'));
+                return;
+            }
+        }
+    }
+
+    /**
+     * Register a task. The task must not drive any motor or schedule any command.
+     *
+     * @param name    the name of the task
+     * @param task    one run of the task
+     * @param methods the methods the task warms up, as the binary name of the class followed by the method name,
+     *                such as "frc.robot.subsystem.Elevator.periodic"
+     */
+    public void add(String name, Runnable task, String... methods) {
+        this.tasks.add(new Task(name, task, methods));
+    }
+
+    /**
+     * Run the tasks that are not done for a slice of the loop. Call this once per loop while disabled.
+     */
+    public void update() {
+        if (this.doneTasks == this.tasks.size()) {
+            return;
+        }
+        long deadline = System.nanoTime() + BUDGET;
+        while (this.doneTasks < this.tasks.size() && System.nanoTime() < deadline) {
+            var task = this.tasks.get(this.taskIndex);
+            this.taskIndex = (this.taskIndex + 1) % this.tasks.size();
+            if (task.done) {
+                continue;
+            }
+            // Run the task in bursts between the checks of its compilations.
+            for (int i = 0; i < CHECK_PERIOD; i++) {
+                task.body.run();
+            }
+            task.runs += CHECK_PERIOD;
+            if (task.runs >= MAX_RUNS || this.monitor != null && this.monitor.getPendingMethods(task).isEmpty()) {
+                task.done = true;
+                this.doneTasks++;
+                this.publish();
+            }
+        }
+        if (++this.updatesSincePublish >= PUBLISH_PERIOD) {
+            this.updatesSincePublish = 0;
+            this.publish();
+        }
+        if (this.doneTasks == this.tasks.size() && this.monitor != null) {
+            this.monitor.close();
+        }
+    }
+
+    /**
+     * Publish the progress of the tasks and the methods that are not compiled yet.
+     */
+    private void publish() {
+        this.table.getEntry("Done Tasks").setDouble(this.doneTasks);
+        this.table.getEntry("Tasks").setDouble(this.tasks.size());
+        if (this.monitor == null) {
+            return;
+        }
+        for (var task : this.tasks) {
+            this.table.getEntry(task.name + " Runs").setDouble(task.runs);
+        }
+        var interpreted = new ArrayList<String>();
+        var notTopTier = new ArrayList<String>();
+        for (var task : this.tasks) {
+            for (var method : task.methods) {
+                int level = this.monitor.getLevel(method);
+                if (level == 0) {
+                    interpreted.add(method);
+                } else if (level < TOP_TIER) {
+                    notTopTier.add(method);
+                }
+            }
+        }
+        this.table.getEntry("Still Interpreted").setStringArray(interpreted.toArray(new String[0]));
+        this.table.getEntry("Not Fully Optimized").setStringArray(notTopTier.toArray(new String[0]));
+        if (this.doneTasks == this.tasks.size() && !interpreted.isEmpty()) {
+            this.interpretedAlert.fire();
+        }
+    }
+
+    /**
+     * Get whether every task is done.
+     *
+     * @return whether the warmup is done
+     */
+    public boolean isWarm() {
+        return this.doneTasks == this.tasks.size();
+    }
+
+    /**
+     * Start counting the overruns after a mode change. Call this at the start of each mode init.
+     */
+    public void onModeChange() {
+        this.modeChangeTime = System.nanoTime();
+        this.timingModeChange = true;
+        this.firstLoopPending = true;
+        this.modeChangeMaxLoop = 0;
+        this.table.getEntry("Warm at Mode Change").setBoolean(this.isWarm());
+    }
+
+    /**
+     * Record a loop, counting it if it overran in the first second after a mode change. The first loop after a mode
+     * change is timed from the start of the mode init.
+     *
+     * @param loopStart the time the loop started in nanoseconds
+     */
+    public void recordLoop(long loopStart) {
+        if (!this.timingModeChange) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (now - this.modeChangeTime > MODE_CHANGE_WINDOW) {
+            this.timingModeChange = false;
+            return;
+        }
+        if (this.firstLoopPending) {
+            loopStart = this.modeChangeTime;
+            this.firstLoopPending = false;
+        }
+        long loopTime = now - loopStart;
+        if (loopTime > this.loopPeriod) {
+            this.modeChangeOverruns++;
+            this.table.getEntry("Overruns After Mode Change").setDouble(this.modeChangeOverruns);
+        }
+        if (loopTime > this.modeChangeMaxLoop) {
+            this.modeChangeMaxLoop = loopTime;
+            this.table.getEntry("Max Loop After Mode Change (ms)").setDouble(loopTime / 1e6);
+        }
+    }
+
+    /**
+     * A registered task.
+     */
+    private static class Task {
+        // The name of the task.
+        private final String name;
+        // One run of the task.
+        private final Runnable body;
+        // The methods the task warms up.
+        private final String[] methods;
+        // The number of runs.
+        private int runs = 0;
+        // Whether the task is done.
+        private boolean done = false;
+
+        private Task(String name, Runnable body, String[] methods) {
+            this.name = name;
+            this.body = body;
+            this.methods = methods;
+        }
+    }
+
+    /**
+     * The highest level each method has been compiled at, read from the compilation and inlining events of JFR. A
+     * method inlined into a compiled method counts as compiled at the level of that method. Kept in its own class, so
+     * a JVM without JFR only fails to load this class.
+     */
+    private static class CompilationMonitor implements AutoCloseable {
+        // The compilation event stream, read on its own thread.
+        private final RecordingStream stream = new RecordingStream();
+        // The highest level of each compiled method, by the binary name of its class followed by its name.
+        private final ConcurrentHashMap<String, Integer> levels = new ConcurrentHashMap<>();
+        // The methods inlined by each compilation in progress, by compile ID. Only used on the stream thread.
+        private final HashMap<Long, ArrayList<String>> inlined = new HashMap<>();
+
+        private CompilationMonitor() {
+            this.stream.enable("jdk.Compilation").withThreshold(Duration.ZERO);
+            this.stream.enable("jdk.CompilerInlining");
+            this.stream.onEvent("jdk.CompilerInlining", this::onInlining);
+            this.stream.onEvent("jdk.Compilation", this::onCompilation);
+            this.stream.startAsync();
+        }
+
+        private void onInlining(RecordedEvent event) {
+            RecordedObject callee = event.getValue("callee");
+            if (!event.getBoolean("succeeded") || callee == null) {
+                return;
+            }
+            this.inlined.computeIfAbsent(event.getLong("compileId"), id -> new ArrayList<>())
+                    .add(callee.getString("type").replace('/', '.') + "." + callee.getString("name"));
+        }
+
+        private void onCompilation(RecordedEvent event) {
+            var inlined = this.inlined.remove(event.getLong("compileId"));
+            RecordedMethod method = event.getValue("method");
+            if (!event.getBoolean("succeded") || method == null) {
+                return;
+            }
+            int level = event.getShort("compileLevel");
+            this.levels.merge(method.getType().getName() + "." + method.getName(), level, Math::max);
+            if (inlined != null) {
+                for (var callee : inlined) {
+                    this.levels.merge(callee, level, Math::max);
+                }
+            }
+        }
+
+        /**
+         * Get the highest level a method has been compiled at.
+         *
+         * @param method the binary name of the class followed by the method name
+         * @return the compilation level, 0 if the method has not been compiled
+         */
+        private int getLevel(String method) {
+            return this.levels.getOrDefault(method, 0);
+        }
+
+        /**
+         * Get the methods of a task that are not compiled by the optimizing compiler yet.
+         *
+         * @param task the task
+         * @return the methods that are not fully optimized
+         */
+        private ArrayList<String> getPendingMethods(Task task) {
+            var pending = new ArrayList<String>();
+            for (var method : task.methods) {
+                if (this.getLevel(method) < TOP_TIER) {
+                    pending.add(method);
+                }
+            }
+            return pending;
+        }
+
+        @Override
+        public void close() {
+            this.stream.close();
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package frc.robot.util;
+
+import edu.wpi.first.util.datalog.DataLogReader;
+import edu.wpi.first.util.datalog.DataLogRecord;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Replays a {@code .wpilog} file recorded by {@link DataLogger} loop by loop. Each step applies every record up to the
+ * end of the next recorded loop, and the values of the entries can then be read by name. Only advance the replay while
+ * the robot code is paused.
+ */
+public class LogReplay {
+    // The log file.
+    private final Path path;
+    // The reader of the log, which holds the data of the records.
+    private final DataLogReader reader;
+    // The value records, sorted by timestamp.
+    private final ArrayList<Value> records = new ArrayList<>();
+    // The names of the entries in the log.
+    private final Set<String> names = new LinkedHashSet<>();
+    // The timestamps of the recorded loops in microseconds.
+    private final long[] loopTimestamps;
+    // The current value of each entry.
+    private final HashMap<String, Object> values = new HashMap<>();
+    // The index of the current loop and of the next record to apply.
+    private int loop = -1;
+    private int nextRecord = 0;
+
+    /**
+     * Construct a new LogReplay and read the log.
+     *
+     * @param path the log file
+     * @throws IOException if the log cannot be read
+     */
+    public LogReplay(Path path) throws IOException {
+        this.path = path;
+        this.reader = new DataLogReader(path.toString());
+        if (!this.reader.isValid()) {
+            throw new IOException("Not a valid data log: " + path);
+        }
+
+        var entries = new HashMap<Integer, DataLogRecord.StartRecordData>();
+        var loops = new ArrayList<Long>();
+        for (var record : this.reader) {
+            if (record.isStart()) {
+                var start = record.getStartData();
+                entries.put(start.entry, start);
+                this.names.add(start.name);
+            } else if (record.isFinish()) {
+                entries.remove(record.getFinishEntry());
+            } else if (!record.isControl()) {
+                var start = entries.get(record.getEntry());
+                if (start == null) {
+                    continue;
+                }
+                if (start.name.equals(DataLogger.LOOP_ENTRY)) {
+                    loops.add(record.getTimestamp());
+                }
+                this.records.add(new Value(record.getTimestamp(), start.name, start.type, record));
+            }
+        }
+        this.records.sort(Comparator.comparingLong(Value::timestamp));
+        this.loopTimestamps = loops.stream().mapToLong(Long::longValue).sorted().toArray();
+    }
+
+    /**
+     * Advance to the next recorded loop.
+     *
+     * @return whether there was another loop
+     */
+    public boolean next() {
+        if (this.loop + 1 >= this.loopTimestamps.length) {
+            return false;
+        }
+        long timestamp = this.loopTimestamps[++this.loop];
+        while (this.nextRecord < this.records.size() && this.records.get(this.nextRecord).timestamp() <= timestamp) {
+            this.apply(this.records.get(this.nextRecord++));
+        }
+        return true;
+    }
+
+    private void apply(Value value) {
+        var record = value.record();
+        switch (value.type()) {
+            case "double" -> this.values.put(value.name(), record.getDouble());
+            case "float" -> this.values.put(value.name(), (double) record.getFloat());
+            case "int64" -> this.values.put(value.name(), record.getInteger());
+            case "boolean" -> this.values.put(value.name(), record.getBoolean());
+            case "boolean[]" -> this.values.put(value.name(), record.getBooleanArray());
+            case "float[]" -> this.values.put(value.name(), record.getFloatArray());
+            case "int64[]" -> this.values.put(value.name(), record.getIntegerArray());
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Get the value of a double entry in the current loop.
+     *
+     * @param name         the name of the entry
+     * @param defaultValue the value if the entry has not been recorded yet
+     * @return the value of the entry
+     */
+    public double getDouble(String name, double defaultValue) {
+        return this.values.get(name) instanceof Double value ? value : defaultValue;
+    }
+
+    /**
+     * Get the value of a boolean entry in the current loop.
+     *
+     * @param name         the name of the entry
+     * @param defaultValue the value if the entry has not been recorded yet
+     * @return the value of the entry
+     */
+    public boolean getBoolean(String name, boolean defaultValue) {
+        return this.values.get(name) instanceof Boolean value ? value : defaultValue;
+    }
+
+    /**
+     * Get the value of a boolean array entry in the current loop.
+     *
+     * @param name the name of the entry
+     * @return the value of the entry, or null if it has not been recorded yet
+     */
+    public boolean[] getBooleanArray(String name) {
+        return this.values.get(name) instanceof boolean[] value ? value : null;
+    }
+
+    /**
+     * Get the value of a float array entry in the current loop.
+     *
+     * @param name the name of the entry
+     * @return the value of the entry, or null if it has not been recorded yet
+     */
+    public float[] getFloatArray(String name) {
+        return this.values.get(name) instanceof float[] value ? value : null;
+    }
+
+    /**
+     * Get the value of an integer array entry in the current loop.
+     *
+     * @param name the name of the entry
+     * @return the value of the entry, or null if it has not been recorded yet
+     */
+    public long[] getIntegerArray(String name) {
+        return this.values.get(name) instanceof long[] value ? value : null;
+    }
+
+    /**
+     * Get whether an entry has been recorded up to the current loop.
+     *
+     * @param name the name of the entry
+     * @return whether the entry has a value
+     */
+    public boolean hasValue(String name) {
+        return this.values.containsKey(name);
+    }
+
+    /**
+     * Get the names of the entries in the log.
+     *
+     * @return the names of the entries
+     */
+    public Set<String> getNames() {
+        return this.names;
+    }
+
+    /**
+     * Get the timestamp of the current loop.
+     *
+     * @return the timestamp in seconds
+     */
+    public double getTimestamp() {
+        return this.loop < 0 ? 0 : this.loopTimestamps[this.loop] / 1e6;
+    }
+
+    /**
+     * Get the number of recorded loops.
+     *
+     * @return the number of loops
+     */
+    public int getLoops() {
+        return this.loopTimestamps.length;
+    }
+
+    /**
+     * Get the log file.
+     *
+     * @return the log file
+     */
+    public Path getPath() {
+        return this.path;
+    }
+
+    /**
+     * A value record of an entry.
+     *
+     * @param timestamp the timestamp in microseconds
+     * @param name      the name of the entry
+     * @param type      the type of the entry
+     * @param record    the record
+     */
+    private record Value(long timestamp, String name, String type, DataLogRecord record) {
+    }
+}
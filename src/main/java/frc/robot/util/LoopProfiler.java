@@ -0,0 +1,356 @@
+package frc.robot.util;
+
+import com.sun.management.ThreadMXBean;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Times each stage of the main loop into histograms, publishes p50/p99/max of every stage to NetworkTables and reports
+ * the worst stage when the loop overruns. The bytes allocated by each stage on the loop thread are counted as well, and
+ * published per loop. The stages timed by their owners inside the scheduler, such as a subsystem periodic, are not
+ * counted again in the stage of the scheduler they run in.
+ */
+public class LoopProfiler {
+    // The width of each histogram bucket in nanoseconds.
+    private static final long BUCKET_WIDTH = 10_000;
+    // The number of histogram buckets, covering 40 ms.
+    private static final int BUCKETS = 4000;
+    // The number of loops between two publishes.
+    private static final int PUBLISH_PERIOD = 50;
+    // The number of commands that get their own stage.
+    private static final int MAX_COMMAND_STAGES = 16;
+
+    // The allocation counters of the threads, or null if the JVM does not count the allocations.
+    private static final ThreadMXBean THREADS = getAllocationCounters();
+
+    private static LoopProfiler INSTANCE;
+
+    private final NetworkTable table = NetworkTableInstance.getDefault().getTable("LoopProfiler");
+    // All stages, in the order they were created.
+    private final ArrayList<Stage> stages = new ArrayList<>();
+    // The stages of the commands that have been executed.
+    private final IdentityHashMap<Command, Stage> commandStages = new IdentityHashMap<>();
+
+    private final Stage loop = this.stage("Loop", true);
+    private final Stage scheduler = this.stage("CommandScheduler.run()", true);
+    private final Stage subsystems = this.stage("Subsystems", false);
+    private final Stage buttons = this.stage("Buttons", false);
+    private final Stage otherCommands = this.stage("Other Commands", false);
+
+    // The overrun threshold in nanoseconds.
+    private long loopPeriod = (long) (TimedRobot.kDefaultPeriod * 1e9);
+    // The time of the last mark inside the scheduler and the bytes allocated by the loop thread at that time.
+    private long lastMark = 0;
+    private long lastMarkBytes = 0;
+    // The time and the bytes of the stages timed by their owners since the last mark.
+    private long nestedTime = 0;
+    private long nestedBytes = 0;
+    // The number of loops since the last publish.
+    private int loopsSincePublish = 0;
+    // The number of loops whose allocations are counted, and whether the counts are to be reset at the next loop.
+    private long allocationLoops = 0;
+    private volatile boolean allocationResetRequested = false;
+
+    private LoopProfiler() {
+    }
+
+    /**
+     * Get the instance of the profiler.
+     *
+     * @return the instance of the profiler
+     */
+    public static LoopProfiler getInstance() {
+        if (INSTANCE == null) {
+            INSTANCE = new LoopProfiler();
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Get the allocation counters of the threads, enabling them if needed.
+     *
+     * @return the allocation counters, or null if the JVM does not count the allocations
+     */
+    private static ThreadMXBean getAllocationCounters() {
+        if (ManagementFactory.getThreadMXBean() instanceof ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported()) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+            return threads;
+        }
+        return null;
+    }
+
+    /**
+     * Get the bytes allocated by the current thread since it started.
+     *
+     * @return the allocated bytes, or 0 if the JVM does not count the allocations
+     */
+    private static long getAllocatedBytes() {
+        return THREADS == null ? 0 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Get or create a stage that is timed by its owner.
+     *
+     * @param name the name of the stage
+     * @return the stage
+     */
+    public Stage stage(String name) {
+        return this.stage(name, false);
+    }
+
+    private Stage stage(String name, boolean aggregate) {
+        for (int i = 0; i < this.stages.size(); i++) {
+            if (this.stages.get(i).name.equals(name)) {
+                return this.stages.get(i);
+            }
+        }
+        var stage = new Stage(this, name, aggregate, this.table.getSubTable(name));
+        this.stages.add(stage);
+        return stage;
+    }
+
+    /**
+     * Set the period of the main loop, above which a loop is reported as an overrun.
+     *
+     * @param seconds the period in seconds
+     */
+    public void setLoopPeriod(double seconds) {
+        this.loopPeriod = (long) (seconds * 1e9);
+    }
+
+    /**
+     * Start attributing the scheduler's button loop. Call this before any button binding is configured.
+     */
+    public void beginBindings() {
+        CommandScheduler.getInstance().getActiveButtonLoop().bind(() -> this.mark(this.subsystems));
+        CommandScheduler.getInstance().onCommandExecute(this::onCommandExecute);
+    }
+
+    /**
+     * Stop attributing the scheduler's button loop. Call this after all button bindings are configured.
+     */
+    public void endBindings() {
+        CommandScheduler.getInstance().getActiveButtonLoop().bind(() -> this.mark(this.buttons));
+    }
+
+    /**
+     * Attribute the time and the allocations since the last mark to a stage, without the stages timed by their owners
+     * in between.
+     */
+    private void mark(Stage stage) {
+        long now = System.nanoTime();
+        long bytes = getAllocatedBytes();
+        stage.record(now - this.lastMark - this.nestedTime, bytes - this.lastMarkBytes - this.nestedBytes);
+        this.lastMark = now;
+        this.lastMarkBytes = bytes;
+        this.nestedTime = 0;
+        this.nestedBytes = 0;
+    }
+
+    /**
+     * Mark the start of a loop.
+     */
+    public void beginLoop() {
+        if (this.allocationResetRequested) {
+            this.allocationResetRequested = false;
+            this.allocationLoops = 0;
+            for (int i = 0; i < this.stages.size(); i++) {
+                this.stages.get(i).totalBytes = 0;
+            }
+        }
+        for (int i = 0; i < this.stages.size(); i++) {
+            this.stages.get(i).last = 0;
+            this.stages.get(i).lastBytes = 0;
+        }
+        this.loop.start();
+    }
+
+    /**
+     * Run the command scheduler, attributing its time to the subsystems, the buttons and each command.
+     */
+    public void runScheduler() {
+        this.scheduler.start();
+        this.lastMark = this.scheduler.startTime;
+        this.lastMarkBytes = this.scheduler.startBytes;
+        this.nestedTime = 0;
+        this.nestedBytes = 0;
+        CommandScheduler.getInstance().run();
+        this.scheduler.stop();
+    }
+
+    /**
+     * Mark the end of a loop, publish the stages periodically and report the worst stage of an overrun.
+     */
+    public void endLoop() {
+        this.loop.stop();
+
+        this.allocationLoops++;
+        for (int i = 0; i < this.stages.size(); i++) {
+            var stage = this.stages.get(i);
+            stage.totalBytes += stage.lastBytes;
+            stage.windowBytes += stage.lastBytes;
+            stage.windowMaxBytes = Math.max(stage.windowMaxBytes, stage.lastBytes);
+        }
+
+        if (this.loop.last > this.loopPeriod) {
+            this.reportOverrun();
+        }
+
+        if (++this.loopsSincePublish >= PUBLISH_PERIOD) {
+            this.loopsSincePublish = 0;
+            for (int i = 0; i < this.stages.size(); i++) {
+                this.stages.get(i).publish(PUBLISH_PERIOD);
+            }
+        }
+    }
+
+    private void onCommandExecute(Command command) {
+        var stage = this.commandStages.get(command);
+        if (stage == null) {
+            if (this.commandStages.size() < MAX_COMMAND_STAGES) {
+                stage = this.stage(command.getName() + ".execute()", false);
+                this.commandStages.put(command, stage);
+            } else {
+                stage = this.otherCommands;
+            }
+        }
+        this.mark(stage);
+    }
+
+    /**
+     * Restart counting the allocations of the stages at the next loop, for example once the code is warmed up. Can be
+     * called from any thread.
+     */
+    public void resetAllocations() {
+        this.allocationResetRequested = true;
+    }
+
+    /**
+     * Get the average bytes allocated per loop by each stage since the allocations were reset. Must not be called while
+     * the loop is running.
+     *
+     * @param aggregates whether to include the stages that contain other stages
+     * @return the average allocated bytes per loop by stage name, in the order the stages were created, or an empty
+     * map if the JVM does not count the allocations
+     */
+    public Map<String, Double> getAllocatedBytesPerLoop(boolean aggregates) {
+        var allocations = new LinkedHashMap<String, Double>();
+        if (THREADS == null || this.allocationLoops == 0) {
+            return allocations;
+        }
+        for (var stage : this.stages) {
+            if (aggregates || !stage.aggregate) {
+                allocations.put(stage.name, (double) stage.totalBytes / this.allocationLoops);
+            }
+        }
+        return allocations;
+    }
+
+    private void reportOverrun() {
+        Stage worst = null;
+        for (int i = 0; i < this.stages.size(); i++) {
+            var stage = this.stages.get(i);
+            if (!stage.aggregate && (worst == null || stage.last > worst.last)) {
+                worst = stage;
+            }
+        }
+        if (worst != null) {
+            DriverStation.reportWarning(
+                    "Loop overrun of " + this.loop.last / 1e6 + " ms, worst stage: " + worst.name + " (" + worst.last / 1e6 + " ms)",
+                    false);
+        }
+    }
+
+    /**
+     * A timed stage of the main loop.
+     */
+    public static class Stage {
+        // The profiler of the stage.
+        private final LoopProfiler profiler;
+        // The name of the stage.
+        private final String name;
+        // Whether the stage contains other stages.
+        private final boolean aggregate;
+        // The durations of the stage in nanoseconds.
+        private final Histogram histogram = new Histogram(BUCKETS, BUCKET_WIDTH);
+        private final DoublePublisher p50;
+        private final DoublePublisher p99;
+        private final DoublePublisher max;
+        private final DoublePublisher allocated;
+        private final DoublePublisher maxAllocated;
+        // The time the stage was started and the bytes allocated by the loop thread at that time.
+        private long startTime = 0;
+        private long startBytes = 0;
+        // The time spent in the stage during the current loop.
+        private long last = 0;
+        // The bytes allocated by the stage during the current loop, since the last publish, the most in one loop since
+        // the last publish, and since the allocations were reset.
+        private long lastBytes = 0;
+        private long windowBytes = 0;
+        private long windowMaxBytes = 0;
+        private long totalBytes = 0;
+
+        private Stage(LoopProfiler profiler, String name, boolean aggregate, NetworkTable table) {
+            this.profiler = profiler;
+            this.name = name;
+            this.aggregate = aggregate;
+            this.p50 = table.getDoubleTopic("p50 (ms)").publish();
+            this.p99 = table.getDoubleTopic("p99 (ms)").publish();
+            this.max = table.getDoubleTopic("max (ms)").publish();
+            this.allocated = table.getDoubleTopic("allocated (B per loop)").publish();
+            this.maxAllocated = table.getDoubleTopic("max allocated (B per loop)").publish();
+        }
+
+        /**
+         * Start timing the stage.
+         */
+        public void start() {
+            this.startTime = System.nanoTime();
+            this.startBytes = getAllocatedBytes();
+        }
+
+        /**
+         * Stop timing the stage and record the duration.
+         */
+        public void stop() {
+            long nanos = System.nanoTime() - this.startTime;
+            long bytes = getAllocatedBytes() - this.startBytes;
+            this.record(nanos, bytes);
+            if (!this.aggregate) {
+                this.profiler.nestedTime += nanos;
+                this.profiler.nestedBytes += bytes;
+            }
+        }
+
+        private void record(long nanos, long bytes) {
+            this.histogram.record(nanos);
+            this.last += nanos;
+            this.lastBytes += bytes;
+        }
+
+        private void publish(int loops) {
+            this.p50.set(this.histogram.getPercentile(0.5) / 1e6);
+            this.p99.set(this.histogram.getPercentile(0.99) / 1e6);
+            this.max.set(this.histogram.getMax() / 1e6);
+            this.histogram.reset();
+            if (THREADS != null) {
+                this.allocated.set((double) this.windowBytes / loops);
+                this.maxAllocated.set(this.windowMaxBytes);
+            }
+            this.windowBytes = 0;
+            this.windowMaxBytes = 0;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package frc.robot.util;
+
+import com.ctre.phoenix.ErrorCode;
+import com.ctre.phoenix.motorcontrol.can.TalonSRX;
+import com.ctre.phoenix6.configs.CustomParamsConfigs;
+import com.ctre.phoenix6.hardware.TalonFX;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+import edu.wpi.first.wpilibj.RobotBase;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * Fingerprints of the configurations the motor controllers were last configured with. The fingerprint of each motor is
+ * stored in the custom parameters of its controller and on the roboRIO, so a motor whose desired configuration is
+ * unchanged is not reconfigured at startup. Only the settings a controller keeps in its flash are covered; the others
+ * must be sent every boot. In simulation, every motor is configured.
+ */
+public class MotorConfigs {
+    // The timeout of reading and writing a custom parameter in milliseconds.
+    private static final int TIMEOUT_MS = 50;
+    // The file the fingerprints are stored in on the roboRIO.
+    private static final String FILE = "motor-configs.properties";
+
+    private static MotorConfigs INSTANCE;
+
+    // The fingerprints stored on the roboRIO, by motor name.
+    private final Properties fingerprints = new Properties();
+    private final Path path = Filesystem.getOperatingDirectory().toPath().resolve(FILE);
+
+    private MotorConfigs() {
+        if (!RobotBase.isReal() || !Files.exists(this.path)) {
+            return;
+        }
+        try (InputStream input = Files.newInputStream(this.path)) {
+            this.fingerprints.load(input);
+        } catch (IOException e) {
+            DriverStation.reportWarning("Failed to read the motor configuration fingerprints: " + e.getMessage(),
+                    false);
+        }
+    }
+
+    /**
+     * Get the instance of the fingerprints.
+     *
+     * @return the instance of the fingerprints
+     */
+    public static synchronized MotorConfigs getInstance() {
+        if (INSTANCE == null) {
+            INSTANCE = new MotorConfigs();
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Get the fingerprint of a configuration.
+     *
+     * @param values the values of the configuration, with booleans as 0 or 1
+     * @return the fingerprint
+     */
+    public static int fingerprint(double... values) {
+        return Arrays.hashCode(values);
+    }
+
+    /**
+     * Get whether a Talon SRX is configured with a configuration.
+     *
+     * @param talon       the controller
+     * @param name        the unique name of the motor
+     * @param fingerprint the fingerprint of the configuration
+     * @return whether the controller and the roboRIO both hold the fingerprint
+     */
+    public boolean isConfigured(TalonSRX talon, String name, int fingerprint) {
+        if (!this.isRecorded(name, fingerprint)) {
+            return false;
+        }
+        int stored = talon.configGetCustomParam(0, TIMEOUT_MS);
+        return talon.getLastError() == ErrorCode.OK && stored == fingerprint;
+    }
+
+    /**
+     * Get whether a Talon FX is configured with a configuration.
+     *
+     * @param talon       the controller
+     * @param name        the unique name of the motor
+     * @param fingerprint the fingerprint of the configuration
+     * @return whether the controller and the roboRIO both hold the fingerprint
+     */
+    public boolean isConfigured(TalonFX talon, String name, int fingerprint) {
+        if (!this.isRecorded(name, fingerprint)) {
+            return false;
+        }
+        var params = new CustomParamsConfigs();
+        if (!talon.getConfigurator().refresh(params, TIMEOUT_MS / 1000.0).isOK()) {
+            return false;
+        }
+        // The custom parameters of a Talon FX hold 16 bits each.
+        return (params.CustomParam1 << 16 | params.CustomParam0 & 0xFFFF) == fingerprint;
+    }
+
+    /**
+     * Record that a Talon SRX has been configured with a configuration.
+     *
+     * @param talon       the controller
+     * @param name        the unique name of the motor
+     * @param fingerprint the fingerprint of the configuration
+     */
+    public void setConfigured(TalonSRX talon, String name, int fingerprint) {
+        if (talon.configSetCustomParam(fingerprint, 0, TIMEOUT_MS) == ErrorCode.OK) {
+            this.record(name, fingerprint);
+        }
+    }
+
+    /**
+     * Record that a Talon FX has been configured with a configuration.
+     *
+     * @param talon       the controller
+     * @param name        the unique name of the motor
+     * @param fingerprint the fingerprint of the configuration
+     */
+    public void setConfigured(TalonFX talon, String name, int fingerprint) {
+        var params = new CustomParamsConfigs().withCustomParam0((short) fingerprint).withCustomParam1(fingerprint >> 16);
+        if (talon.getConfigurator().apply(params, TIMEOUT_MS / 1000.0).isOK()) {
+            this.record(name, fingerprint);
+        }
+    }
+
+    private synchronized boolean isRecorded(String name, int fingerprint) {
+        return RobotBase.isReal() && Integer.toString(fingerprint).equals(this.fingerprints.getProperty(name));
+    }
+
+    private synchronized void record(String name, int fingerprint) {
+        if (!RobotBase.isReal()) {
+            return;
+        }
+        this.fingerprints.setProperty(name, Integer.toString(fingerprint));
+        try (OutputStream output = Files.newOutputStream(this.path)) {
+            this.fingerprints.store(output, "Motor configuration fingerprints, see MotorConfigs");
+        } catch (IOException e) {
+            DriverStation.reportWarning("Failed to write the motor configuration fingerprints: " + e.getMessage(),
+                    false);
+        }
+    }
+}
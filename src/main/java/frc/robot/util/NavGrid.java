@@ -0,0 +1,260 @@
+package frc.robot.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The PathPlanner navigation grid as a bitset, one bit per cell with the obstacles set. The grid is compiled from
+ * {@code navgrid.json} at build time and read from its binary form on the robot.
+ */
+public class NavGrid {
+    // The magic number and version of the binary form.
+    private static final int MAGIC = 0x4E475244;
+    private static final int VERSION = 1;
+
+    // The number of columns along x and rows along y.
+    private final int columns;
+    private final int rows;
+    // The size of a cell in meters.
+    private final double nodeSize;
+    // The obstacles, bit (row * columns + column).
+    private final long[] obstacles;
+
+    private NavGrid(int columns, int rows, double nodeSize, long[] obstacles) {
+        this.columns = columns;
+        this.rows = rows;
+        this.nodeSize = nodeSize;
+        this.obstacles = obstacles;
+    }
+
+    /**
+     * Read a grid from PathPlanner's {@code navgrid.json}.
+     *
+     * @param path the JSON file
+     * @return the grid
+     * @throws IOException if the file cannot be read
+     */
+    public static NavGrid fromJson(Path path) throws IOException {
+        JsonNode json = new ObjectMapper().readTree(path.toFile());
+        JsonNode grid = json.get("grid");
+        int rows = grid.size();
+        int columns = grid.get(0).size();
+        long[] obstacles = new long[(rows * columns + 63) / 64];
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                if (grid.get(row).get(column).asBoolean()) {
+                    int cell = row * columns + column;
+                    obstacles[cell >>> 6] |= 1L << cell;
+                }
+            }
+        }
+        return new NavGrid(columns, rows, json.get("nodeSizeMeters").asDouble(), obstacles);
+    }
+
+    /**
+     * Read a grid from its binary form.
+     *
+     * @param path the binary file
+     * @return the grid
+     * @throws IOException if the file cannot be read or is not a grid
+     */
+    public static NavGrid load(Path path) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Not a compiled navigation grid: " + path);
+            }
+            int columns = buffer.getInt();
+            int rows = buffer.getInt();
+            double nodeSize = buffer.getDouble();
+            long[] obstacles = new long[(rows * columns + 63) / 64];
+            buffer.asLongBuffer().get(obstacles);
+            return new NavGrid(columns, rows, nodeSize, obstacles);
+        }
+    }
+
+    /**
+     * Write the grid in its binary form.
+     *
+     * @param path the binary file
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(24 + this.obstacles.length * 8);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(this.columns).putInt(this.rows).putDouble(this.nodeSize);
+        buffer.asLongBuffer().put(this.obstacles);
+        Files.write(path, buffer.array());
+    }
+
+    /**
+     * Get the number of columns along x.
+     *
+     * @return the number of columns
+     */
+    public int getColumns() {
+        return this.columns;
+    }
+
+    /**
+     * Get the number of rows along y.
+     *
+     * @return the number of rows
+     */
+    public int getRows() {
+        return this.rows;
+    }
+
+    /**
+     * Get the number of cells.
+     *
+     * @return the number of cells
+     */
+    public int getCells() {
+        return this.columns * this.rows;
+    }
+
+    /**
+     * Get the size of a cell.
+     *
+     * @return the size of a cell in meters
+     */
+    public double getNodeSize() {
+        return this.nodeSize;
+    }
+
+    /**
+     * Get the obstacles as a bitset, bit (row * columns + column). The array is shared, not copied.
+     *
+     * @return the obstacles
+     */
+    public long[] getObstacles() {
+        return this.obstacles;
+    }
+
+    /**
+     * Get whether a cell is an obstacle. Cells outside the grid are obstacles.
+     *
+     * @param column the column of the cell
+     * @param row    the row of the cell
+     * @return whether the cell is an obstacle
+     */
+    public boolean isBlocked(int column, int row) {
+        if (column < 0 || row < 0 || column >= this.columns || row >= this.rows) {
+            return true;
+        }
+        int cell = row * this.columns + column;
+        return (this.obstacles[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    /**
+     * Get whether a cell is an obstacle.
+     *
+     * @param cell the index of the cell, row * columns + column
+     * @return whether the cell is an obstacle
+     */
+    public boolean isBlocked(int cell) {
+        return (this.obstacles[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    /**
+     * Get the cell containing a point.
+     *
+     * @param x the x coordinate in meters
+     * @param y the y coordinate in meters
+     * @return the index of the cell, or -1 if the point is outside the grid
+     */
+    public int getCell(double x, double y) {
+        int column = (int) Math.floor(x / this.nodeSize);
+        int row = (int) Math.floor(y / this.nodeSize);
+        if (column < 0 || row < 0 || column >= this.columns || row >= this.rows) {
+            return -1;
+        }
+        return row * this.columns + column;
+    }
+
+    /**
+     * Get the x coordinate of the center of a cell.
+     *
+     * @param cell the index of the cell
+     * @return the x coordinate in meters
+     */
+    public double getCenterX(int cell) {
+        return (cell % this.columns + 0.5) * this.nodeSize;
+    }
+
+    /**
+     * Get the y coordinate of the center of a cell.
+     *
+     * @param cell the index of the cell
+     * @return the y coordinate in meters
+     */
+    public double getCenterY(int cell) {
+        return (cell / this.columns + 0.5) * this.nodeSize;
+    }
+
+    /**
+     * Get the free cell nearest to a point, searching outwards ring by ring.
+     *
+     * @param x the x coordinate in meters
+     * @param y the y coordinate in meters
+     * @return the index of the nearest free cell, or -1 if there is none
+     */
+    public int getNearestFreeCell(double x, double y) {
+        int column = Math.min(Math.max((int) Math.floor(x / this.nodeSize), 0), this.columns - 1);
+        int row = Math.min(Math.max((int) Math.floor(y / this.nodeSize), 0), this.rows - 1);
+        int maxRadius = Math.max(this.columns, this.rows);
+        for (int radius = 0; radius < maxRadius; radius++) {
+            int best = -1;
+            double bestDistance = Double.POSITIVE_INFINITY;
+            for (int dy = -radius; dy <= radius; dy++) {
+                for (int dx = -radius; dx <= radius; dx++) {
+                    if (Math.max(Math.abs(dx), Math.abs(dy)) != radius || this.isBlocked(column + dx, row + dy)) {
+                        continue;
+                    }
+                    int cell = (row + dy) * this.columns + column + dx;
+                    double distance = Math.hypot(this.getCenterX(cell) - x, this.getCenterY(cell) - y);
+                    if (distance < bestDistance) {
+                        best = cell;
+                        bestDistance = distance;
+                    }
+                }
+            }
+            if (best >= 0) {
+                return best;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Get whether the straight line between two points crosses no obstacle, by walking the cells along the line.
+     *
+     * @param x0 the x coordinate of the first point in meters
+     * @param y0 the y coordinate of the first point in meters
+     * @param x1 the x coordinate of the second point in meters
+     * @param y1 the y coordinate of the second point in meters
+     * @return whether the line is free
+     */
+    public boolean hasLineOfSight(double x0, double y0, double x1, double y1) {
+        double length = Math.hypot(x1 - x0, y1 - y0);
+        // Sample at a quarter of a cell. The obstacles are inflated by the size of the robot, so clipping the corner
+        // of an obstacle cell between two samples is harmless.
+        int steps = Math.max(1, (int) Math.ceil(length / (this.nodeSize / 4)));
+        for (int i = 0; i <= steps; i++) {
+            double t = (double) i / steps;
+            double x = x0 + (x1 - x0) * t;
+            double y = y0 + (y1 - y0) * t;
+            if (this.isBlocked((int) Math.floor(x / this.nodeSize), (int) Math.floor(y / this.nodeSize))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
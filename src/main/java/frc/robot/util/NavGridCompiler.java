@@ -0,0 +1,56 @@
+package frc.robot.util;
+
+import edu.wpi.first.apriltag.AprilTagFieldLayout;
+import edu.wpi.first.apriltag.AprilTagFields;
+import edu.wpi.first.math.geometry.Pose2d;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Compiles the PathPlanner navigation grid into its bitset form and the {@link PathTable} of the {@link FieldTarget}s.
+ * Runs at build time, so the robot only maps the results at startup.
+ */
+public final class NavGridCompiler {
+    // The navigation grid in the PathPlanner directory of the deploy directory.
+    public static final String NAVGRID_JSON = "navgrid.json";
+    // The compiled files, deployed to the PathPlanner directory of the deploy directory.
+    public static final String NAVGRID = "navgrid.bin";
+    public static final String PATH_TABLE = "paths.bin";
+    // The directory the compiled files are written to and deployed from, where the simulation reads them.
+    public static final Path BUILD_DIRECTORY = Path.of("build", "navgrid");
+
+    private NavGridCompiler() {
+    }
+
+    /**
+     * Compile the navigation grid.
+     *
+     * @param args the PathPlanner directory of the deploy directory, and the directory to write the compiled files to
+     * @throws IOException if a file cannot be read or written
+     */
+    public static void main(String... args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Expected the PathPlanner deploy directory and the output directory");
+        }
+        Path directory = Path.of(args[0]);
+        Path output = Path.of(args[1]);
+        long start = System.nanoTime();
+        Files.createDirectories(output);
+
+        var grid = NavGrid.fromJson(directory.resolve(NAVGRID_JSON));
+        grid.write(output.resolve(NAVGRID));
+
+        var layout = AprilTagFieldLayout.loadField(AprilTagFields.k2025ReefscapeWelded);
+        var targets = FieldTarget.values();
+        var poses = new Pose2d[targets.length];
+        for (int i = 0; i < targets.length; i++) {
+            poses[i] = targets[i].getPose(layout);
+        }
+        PathTable.write(grid, poses, output.resolve(PATH_TABLE));
+
+        System.out.println("Compiled a " + grid.getColumns() + "x" + grid.getRows() + " navigation grid and the paths to "
+                + targets.length + " targets in " + (System.nanoTime() - start) / 1e6 + " ms");
+    }
+}
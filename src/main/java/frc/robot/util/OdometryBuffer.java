@@ -0,0 +1,84 @@
+package frc.robot.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded lock-free ring buffer of odometry samples for exactly one producer thread and one consumer thread. The
+ * samples are stored in primitive arrays, so neither side allocates.
+ */
+public class OdometryBuffer {
+    // The samples, indexed by sequence number modulo the capacity.
+    private final double[] timestamps;
+    private final double[] leftDistances;
+    private final double[] rightDistances;
+    private final double[] yaws;
+    // The mask of the capacity, which is a power of two.
+    private final int mask;
+    // The sequence number of the next sample to drain, written by the consumer.
+    private final AtomicLong head = new AtomicLong();
+    // The sequence number of the next sample to add, written by the producer.
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Construct a new OdometryBuffer.
+     *
+     * @param capacity the minimum capacity, rounded up to a power of two
+     */
+    public OdometryBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.timestamps = new double[size];
+        this.leftDistances = new double[size];
+        this.rightDistances = new double[size];
+        this.yaws = new double[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Add a sample. Only call this from the producer thread.
+     *
+     * @param timestamp     the time of the sample in seconds
+     * @param leftDistance  the distance of the left wheels in meters
+     * @param rightDistance the distance of the right wheels in meters
+     * @param yaw           the yaw of the gyro in radians
+     * @return whether the sample was added, false if the buffer is full
+     */
+    public boolean offer(double timestamp, double leftDistance, double rightDistance, double yaw) {
+        long tail = this.tail.get();
+        if (tail - this.head.get() >= this.timestamps.length) {
+            return false;
+        }
+        int index = (int) tail & this.mask;
+        this.timestamps[index] = timestamp;
+        this.leftDistances[index] = leftDistance;
+        this.rightDistances[index] = rightDistance;
+        this.yaws[index] = yaw;
+        this.tail.lazySet(tail + 1);
+        return true;
+    }
+
+    /**
+     * Pass every buffered sample to the consumer, oldest first. Only call this from the consumer thread.
+     *
+     * @param consumer the consumer of the samples
+     * @return the number of samples drained
+     */
+    public int drain(SampleConsumer consumer) {
+        long head = this.head.get();
+        long tail = this.tail.get();
+        for (long i = head; i < tail; i++) {
+            int index = (int) i & this.mask;
+            consumer.accept(this.timestamps[index], this.leftDistances[index], this.rightDistances[index],
+                    this.yaws[index]);
+        }
+        this.head.lazySet(tail);
+        return (int) (tail - head);
+    }
+
+    /**
+     * A consumer of odometry samples.
+     */
+    @FunctionalInterface
+    public interface SampleConsumer {
+        void accept(double timestamp, double leftDistance, double rightDistance, double yaw);
+    }
+}
@@ -0,0 +1,179 @@
+package frc.robot.util;
+
+import edu.wpi.first.math.estimator.DifferentialDrivePoseEstimator;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.DifferentialDriveKinematics;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Timer;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * Samples the drive encoders and the gyro on a dedicated thread at a higher rate than the main loop. The samples are
+ * timestamped and buffered, and the main loop drains them into the pose estimator of the robot, which nothing else
+ * updates.
+ */
+public class OdometryThread implements AutoCloseable {
+    // The number of samples that can wait to be drained, about a quarter of a second at 250 Hz.
+    private static final int BUFFER_CAPACITY = 64;
+    // The number of estimated poses kept for latency compensation, about a second at 250 Hz.
+    private static final int HISTORY_CAPACITY = 256;
+
+    // The readers of the sensors, called on the odometry thread.
+    private final DoubleSupplier leftDistance;
+    private final DoubleSupplier rightDistance;
+    private final DoubleSupplier yaw;
+    // The samples waiting to be drained.
+    private final OdometryBuffer buffer = new OdometryBuffer(BUFFER_CAPACITY);
+    // The pose estimator of the robot, fed by the samples.
+    private final DifferentialDrivePoseEstimator estimator;
+    // The estimated poses at the time of each sample.
+    private final PoseHistory history = new PoseHistory(HISTORY_CAPACITY);
+    // The thread that samples the sensors.
+    private final Notifier notifier;
+    // The consumer that feeds the samples into the estimator.
+    private final OdometryBuffer.SampleConsumer updateEstimator;
+    // The number of samples dropped because the buffer was full.
+    private volatile long droppedSamples = 0;
+    // The last sample fed into the estimator.
+    private double lastLeftDistance;
+    private double lastRightDistance;
+    private double lastYaw;
+
+    /**
+     * Construct a new OdometryThread, with the robot at the origin until its pose is reset.
+     *
+     * @param kinematics    the kinematics of the drivetrain
+     * @param leftDistance  the reader of the distance of the left wheels in meters
+     * @param rightDistance the reader of the distance of the right wheels in meters
+     * @param yaw           the reader of the yaw of the gyro in radians
+     */
+    public OdometryThread(DifferentialDriveKinematics kinematics, DoubleSupplier leftDistance,
+                          DoubleSupplier rightDistance, DoubleSupplier yaw) {
+        this.leftDistance = leftDistance;
+        this.rightDistance = rightDistance;
+        this.yaw = yaw;
+        this.lastLeftDistance = leftDistance.getAsDouble();
+        this.lastRightDistance = rightDistance.getAsDouble();
+        this.lastYaw = yaw.getAsDouble();
+        this.estimator = new DifferentialDrivePoseEstimator(kinematics, Rotation2d.fromRadians(this.lastYaw),
+                this.lastLeftDistance, this.lastRightDistance, Pose2d.kZero);
+        this.updateEstimator = (timestamp, left, right, yawRadians) -> {
+            this.lastLeftDistance = left;
+            this.lastRightDistance = right;
+            this.lastYaw = yawRadians;
+            this.history.record(timestamp,
+                    this.estimator.updateWithTime(timestamp, Rotation2d.fromRadians(yawRadians), left, right));
+        };
+        this.notifier = new Notifier(this::sample);
+        this.notifier.setName("Odometry");
+    }
+
+    /**
+     * Start sampling.
+     *
+     * @param frequency the sampling frequency in Hz
+     */
+    public void start(double frequency) {
+        this.notifier.startPeriodic(1 / frequency);
+    }
+
+    private void sample() {
+        double timestamp = Timer.getFPGATimestamp();
+        if (!this.buffer.offer(timestamp, this.leftDistance.getAsDouble(), this.rightDistance.getAsDouble(),
+                this.yaw.getAsDouble())) {
+            this.droppedSamples++;
+        }
+    }
+
+    /**
+     * Feed the buffered samples into the pose estimator. Call this once per loop from the main thread.
+     *
+     * @return the number of samples fed
+     */
+    public int update() {
+        return this.buffer.drain(this.updateEstimator);
+    }
+
+    /**
+     * Reset the estimated pose of the robot. The buffered samples are fed first, so the samples taken after the reset
+     * continue from it. Call this from the main thread.
+     *
+     * @param pose the pose of the robot
+     */
+    public void resetPose(Pose2d pose) {
+        this.update();
+        this.estimator.resetPosition(Rotation2d.fromRadians(this.lastYaw), this.lastLeftDistance,
+                this.lastRightDistance, pose);
+        this.history.clear();
+    }
+
+    /**
+     * Get the estimated pose of the robot.
+     *
+     * @return the estimated pose
+     */
+    public Pose2d getPose() {
+        return this.estimator.getEstimatedPosition();
+    }
+
+    /**
+     * Get the pose estimator of the robot fed by the samples.
+     *
+     * @return the pose estimator
+     */
+    public DifferentialDrivePoseEstimator getEstimator() {
+        return this.estimator;
+    }
+
+    /**
+     * Get the history of the estimated poses at the time of each sample.
+     *
+     * @return the history of the estimated poses
+     */
+    public PoseHistory getHistory() {
+        return this.history;
+    }
+
+    /**
+     * Get the distance of the left wheels in the last sample fed into the estimator.
+     *
+     * @return the distance in meters
+     */
+    public double getLastLeftDistance() {
+        return this.lastLeftDistance;
+    }
+
+    /**
+     * Get the distance of the right wheels in the last sample fed into the estimator.
+     *
+     * @return the distance in meters
+     */
+    public double getLastRightDistance() {
+        return this.lastRightDistance;
+    }
+
+    /**
+     * Get the yaw of the gyro in the last sample fed into the estimator.
+     *
+     * @return the yaw in radians
+     */
+    public double getLastYaw() {
+        return this.lastYaw;
+    }
+
+    /**
+     * Get the number of samples dropped because the main loop did not drain them in time.
+     *
+     * @return the number of dropped samples
+     */
+    public long getDroppedSamples() {
+        return this.droppedSamples;
+    }
+
+    @Override
+    public void close() {
+        this.notifier.close();
+    }
+}
@@ -0,0 +1,217 @@
+package frc.robot.util;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Optimal paths from every cell of the navigation grid to each {@link FieldTarget}, computed at build time. For each
+ * target, the table holds the direction of the next step from every cell, so a path is found by following the
+ * directions from the start cell. The table is memory-mapped on the robot.
+ */
+public class PathTable {
+    // The magic number and version of the binary form.
+    private static final int MAGIC = 0x5054424C;
+    private static final int VERSION = 1;
+    // The size of the header and of the pose and goal cell of each target, in bytes.
+    private static final int HEADER_SIZE = 20;
+    private static final int TARGET_SIZE = 28;
+    // The steps to the eight neighbours of a cell.
+    private static final int[] DX = {1, 1, 0, -1, -1, -1, 0, 1};
+    private static final int[] DY = {0, 1, 1, 1, 0, -1, -1, -1};
+    // The direction of the goal cell itself and of the cells that cannot reach the goal.
+    private static final byte AT_GOAL = 8;
+    private static final byte UNREACHABLE = -1;
+
+    // The grid the paths are computed on.
+    private final NavGrid grid;
+    // The table, mapped from the file on the robot.
+    private final ByteBuffer table;
+    // The poses of the robot at the targets.
+    private final Pose2d[] poses;
+
+    private PathTable(NavGrid grid, ByteBuffer table) throws IOException {
+        this.grid = grid;
+        this.table = table;
+        int targets = FieldTarget.values().length;
+        if (table.getInt(0) != MAGIC || table.getInt(4) != VERSION || table.getInt(8) != grid.getColumns()
+                || table.getInt(12) != grid.getRows() || table.getInt(16) != targets) {
+            throw new IOException("The path table does not match the grid or the targets; rebuild it");
+        }
+        this.poses = new Pose2d[targets];
+        for (int i = 0; i < targets; i++) {
+            int offset = HEADER_SIZE + i * TARGET_SIZE;
+            this.poses[i] = new Pose2d(table.getDouble(offset), table.getDouble(offset + 8),
+                    Rotation2d.fromRadians(table.getDouble(offset + 16)));
+        }
+    }
+
+    /**
+     * Map a table from its file.
+     *
+     * @param grid the grid the table was computed on
+     * @param path the file of the table
+     * @return the table
+     * @throws IOException if the file cannot be read or does not match
+     */
+    public static PathTable load(NavGrid grid, Path path) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer table = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new PathTable(grid, table);
+        }
+    }
+
+    /**
+     * Compute the table and write it to a file.
+     *
+     * @param grid  the grid to compute the paths on
+     * @param poses the poses of the robot at the targets, in the order of {@link FieldTarget}
+     * @param path  the file of the table
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(NavGrid grid, Pose2d[] poses, Path path) throws IOException {
+        int cells = grid.getCells();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + poses.length * (TARGET_SIZE + cells));
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(grid.getColumns()).putInt(grid.getRows()).putInt(poses.length);
+        int[] goals = new int[poses.length];
+        for (int i = 0; i < poses.length; i++) {
+            var pose = poses[i];
+            goals[i] = grid.getNearestFreeCell(pose.getX(), pose.getY());
+            buffer.putDouble(pose.getX()).putDouble(pose.getY()).putDouble(pose.getRotation().getRadians())
+                    .putInt(goals[i]);
+        }
+        for (int goal : goals) {
+            buffer.put(computeDirections(grid, goal));
+        }
+        Files.write(path, buffer.array());
+    }
+
+    /**
+     * Compute the direction of the next step towards a goal from every cell, with Dijkstra's algorithm from the goal.
+     * Diagonal steps may not cut the corner of an obstacle.
+     *
+     * @param grid the grid
+     * @param goal the goal cell
+     * @return the direction of every cell
+     */
+    private static byte[] computeDirections(NavGrid grid, int goal) {
+        int cells = grid.getCells();
+        int columns = grid.getColumns();
+        byte[] directions = new byte[cells];
+        Arrays.fill(directions, UNREACHABLE);
+        double[] costs = new double[cells];
+        Arrays.fill(costs, Double.POSITIVE_INFINITY);
+        if (goal < 0) {
+            return directions;
+        }
+
+        var queue = new PriorityQueue<double[]>((a, b) -> Double.compare(a[0], b[0]));
+        costs[goal] = 0;
+        directions[goal] = AT_GOAL;
+        queue.add(new double[]{0, goal});
+        while (!queue.isEmpty()) {
+            double[] entry = queue.poll();
+            int cell = (int) entry[1];
+            if (entry[0] > costs[cell]) {
+                continue;
+            }
+            int column = cell % columns;
+            int row = cell / columns;
+            for (int i = 0; i < 8; i++) {
+                int neighbourColumn = column + DX[i];
+                int neighbourRow = row + DY[i];
+                if (grid.isBlocked(neighbourColumn, neighbourRow) || DX[i] != 0 && DY[i] != 0
+                        && (grid.isBlocked(column + DX[i], row) || grid.isBlocked(column, row + DY[i]))) {
+                    continue;
+                }
+                int neighbour = neighbourRow * columns + neighbourColumn;
+                double cost = costs[cell] + (DX[i] != 0 && DY[i] != 0 ? Math.sqrt(2) : 1);
+                if (cost < costs[neighbour]) {
+                    costs[neighbour] = cost;
+                    // The neighbour steps back to this cell, in the opposite direction.
+                    directions[neighbour] = (byte) ((i + 4) % 8);
+                    queue.add(new double[]{cost, neighbour});
+                }
+            }
+        }
+        return directions;
+    }
+
+    /**
+     * Get the pose of the robot at a target.
+     *
+     * @param target the target
+     * @return the pose of the robot
+     */
+    public Pose2d getPose(FieldTarget target) {
+        return this.poses[target.ordinal()];
+    }
+
+    /**
+     * Get the waypoints of the optimal path from a point to a target, shortened to the fewest straight segments that
+     * keep clear of the obstacles. The path starts at the start point and ends at the pose of the target.
+     *
+     * @param start  the start point
+     * @param target the target
+     * @return the waypoints, or null if the target cannot be reached from the start
+     */
+    public List<Translation2d> getWaypoints(Translation2d start, FieldTarget target) {
+        int cells = this.grid.getCells();
+        int columns = this.grid.getColumns();
+        int directionsOffset = HEADER_SIZE + this.poses.length * TARGET_SIZE + target.ordinal() * cells;
+
+        int cell = this.grid.getCell(start.getX(), start.getY());
+        if (cell < 0 || this.grid.isBlocked(cell)) {
+            cell = this.grid.getNearestFreeCell(start.getX(), start.getY());
+        }
+        if (cell < 0) {
+            return null;
+        }
+
+        // Follow the directions to the goal.
+        var cellPath = new ArrayList<Translation2d>();
+        for (int steps = 0; steps <= cells; steps++) {
+            cellPath.add(new Translation2d(this.grid.getCenterX(cell), this.grid.getCenterY(cell)));
+            byte direction = this.table.get(directionsOffset + cell);
+            if (direction == AT_GOAL) {
+                break;
+            }
+            if (direction == UNREACHABLE) {
+                return null;
+            }
+            cell += DY[direction] * columns + DX[direction];
+        }
+
+        // Keep only the cells where the line of sight from the last kept cell ends.
+        var waypoints = new ArrayList<Translation2d>();
+        waypoints.add(start);
+        int anchor = 0;
+        while (anchor < cellPath.size() - 1) {
+            int next = anchor + 1;
+            var from = cellPath.get(anchor);
+            for (int i = cellPath.size() - 1; i > next; i--) {
+                var to = cellPath.get(i);
+                if (this.grid.hasLineOfSight(from.getX(), from.getY(), to.getX(), to.getY())) {
+                    next = i;
+                    break;
+                }
+            }
+            waypoints.add(cellPath.get(next));
+            anchor = next;
+        }
+        waypoints.add(this.getPose(target).getTranslation());
+        return waypoints;
+    }
+}
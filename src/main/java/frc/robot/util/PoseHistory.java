@@ -0,0 +1,97 @@
+package frc.robot.util;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+
+/**
+ * A fixed-size history of timestamped poses, stored in primitive arrays, that can be sampled at any time inside the
+ * history by interpolation. Neither recording nor sampling allocates.
+ */
+public class PoseHistory {
+    // The poses, indexed by sequence number modulo the capacity.
+    private final double[] timestamps;
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] headings;
+    // The mask of the capacity, which is a power of two.
+    private final int mask;
+    // The sequence number of the next pose to record.
+    private long next = 0;
+
+    /**
+     * Construct a new PoseHistory.
+     *
+     * @param capacity the minimum number of poses kept, rounded up to a power of two
+     */
+    public PoseHistory(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.timestamps = new double[size];
+        this.xs = new double[size];
+        this.ys = new double[size];
+        this.headings = new double[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Record a pose. The timestamps must increase.
+     *
+     * @param timestamp the time of the pose in seconds
+     * @param pose      the pose
+     */
+    public void record(double timestamp, Pose2d pose) {
+        int index = (int) this.next & this.mask;
+        this.timestamps[index] = timestamp;
+        this.xs[index] = pose.getX();
+        this.ys[index] = pose.getY();
+        this.headings[index] = pose.getRotation().getRadians();
+        this.next++;
+    }
+
+    /**
+     * Sample the pose at a time inside the history.
+     *
+     * @param timestamp the time in seconds
+     * @param out       the array to write x, y and heading in radians to
+     * @return whether the time is inside the history
+     */
+    public boolean sample(double timestamp, double[] out) {
+        long oldest = Math.max(0, this.next - this.timestamps.length);
+        long newest = this.next - 1;
+        if (newest < oldest || timestamp < this.timestamps[(int) oldest & this.mask] || timestamp > this.timestamps[(int) newest & this.mask]) {
+            return false;
+        }
+
+        // Find the last pose at or before the time.
+        long low = oldest;
+        long high = newest;
+        while (low < high) {
+            long middle = (low + high + 1) >>> 1;
+            if (this.timestamps[(int) middle & this.mask] <= timestamp) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+
+        int before = (int) low & this.mask;
+        if (low == newest) {
+            out[0] = this.xs[before];
+            out[1] = this.ys[before];
+            out[2] = this.headings[before];
+            return true;
+        }
+        int after = (int) (low + 1) & this.mask;
+        double t = (timestamp - this.timestamps[before]) / (this.timestamps[after] - this.timestamps[before]);
+        out[0] = MathUtil.interpolate(this.xs[before], this.xs[after], t);
+        out[1] = MathUtil.interpolate(this.ys[before], this.ys[after], t);
+        out[2] = this.headings[before] + MathUtil.angleModulus(this.headings[after] - this.headings[before]) * t;
+        return true;
+    }
+
+    /**
+     * Forget every recorded pose, after the pose is reset.
+     */
+    public void clear() {
+        this.next = 0;
+    }
+}
@@ -0,0 +1,145 @@
+package frc.robot.util;
+
+import edu.wpi.first.wpilibj.Timer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+
+/**
+ * A snapshot of the sensors, sampled once at the start of each loop. Each sensor is read by its registered reader
+ * exactly once per loop, and every consumer reads the value of the snapshot through a signal instead of the hardware.
+ * The snapshot is double-buffered, so its values do not change during a loop.
+ */
+public class Sensors {
+    // The readers of the sensors.
+    private final ArrayList<DoubleSupplier> doubleReaders = new ArrayList<>();
+    private final ArrayList<BooleanSupplier> booleanReaders = new ArrayList<>();
+    // The values of the current snapshot and the buffers the next snapshot is sampled into.
+    private double[] doubles = new double[0];
+    private double[] nextDoubles = new double[0];
+    private boolean[] booleans = new boolean[0];
+    private boolean[] nextBooleans = new boolean[0];
+    // The clock that timestamps the snapshots, in seconds.
+    private final DoubleSupplier clock;
+    // The time the current snapshot was sampled in seconds.
+    private double timestamp = 0;
+
+    /**
+     * Construct a new Sensors timestamped by the FPGA clock.
+     */
+    public Sensors() {
+        this(Timer::getFPGATimestamp);
+    }
+
+    /**
+     * Construct a new Sensors.
+     *
+     * @param clock the clock that timestamps the snapshots, in seconds
+     */
+    public Sensors(DoubleSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Register a double sensor. The sensor is read once immediately.
+     *
+     * @param reader the reader of the sensor
+     * @return the signal of the sensor
+     */
+    public DoubleSignal addDouble(DoubleSupplier reader) {
+        int index = this.doubleReaders.size();
+        this.doubleReaders.add(reader);
+        this.doubles = Arrays.copyOf(this.doubles, index + 1);
+        this.nextDoubles = Arrays.copyOf(this.nextDoubles, index + 1);
+        this.doubles[index] = reader.getAsDouble();
+        return new DoubleSignal(index);
+    }
+
+    /**
+     * Register a boolean sensor. The sensor is read once immediately.
+     *
+     * @param reader the reader of the sensor
+     * @return the signal of the sensor
+     */
+    public BooleanSignal addBoolean(BooleanSupplier reader) {
+        int index = this.booleanReaders.size();
+        this.booleanReaders.add(reader);
+        this.booleans = Arrays.copyOf(this.booleans, index + 1);
+        this.nextBooleans = Arrays.copyOf(this.nextBooleans, index + 1);
+        this.booleans[index] = reader.getAsBoolean();
+        return new BooleanSignal(index);
+    }
+
+    /**
+     * Read every sensor and publish the values as the current snapshot. Call this once at the start of each loop.
+     */
+    public void sample() {
+        for (int i = 0; i < this.nextDoubles.length; i++) {
+            this.nextDoubles[i] = this.doubleReaders.get(i).getAsDouble();
+        }
+        for (int i = 0; i < this.nextBooleans.length; i++) {
+            this.nextBooleans[i] = this.booleanReaders.get(i).getAsBoolean();
+        }
+
+        var doubles = this.doubles;
+        this.doubles = this.nextDoubles;
+        this.nextDoubles = doubles;
+        var booleans = this.booleans;
+        this.booleans = this.nextBooleans;
+        this.nextBooleans = booleans;
+        this.timestamp = this.clock.getAsDouble();
+    }
+
+    /**
+     * Get the time the current snapshot was sampled.
+     *
+     * @return the time in seconds
+     */
+    public double getTimestamp() {
+        return this.timestamp;
+    }
+
+    /**
+     * A double sensor in the snapshot.
+     */
+    public class DoubleSignal {
+        // The index of the sensor in the snapshot.
+        private final int index;
+
+        private DoubleSignal(int index) {
+            this.index = index;
+        }
+
+        /**
+         * Get the value of the sensor in the current snapshot.
+         *
+         * @return the value of the sensor
+         */
+        public double get() {
+            return Sensors.this.doubles[this.index];
+        }
+    }
+
+    /**
+     * A boolean sensor in the snapshot.
+     */
+    public class BooleanSignal {
+        // The index of the sensor in the snapshot.
+        private final int index;
+
+        private BooleanSignal(int index) {
+            this.index = index;
+        }
+
+        /**
+         * Get the value of the sensor in the current snapshot.
+         *
+         * @return the value of the sensor
+         */
+        public boolean get() {
+            return Sensors.this.booleans[this.index];
+        }
+    }
+}
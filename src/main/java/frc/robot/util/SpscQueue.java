@@ -0,0 +1,65 @@
+package frc.robot.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded lock-free queue for exactly one producer thread and one consumer thread. Neither side allocates or
+ * blocks; offering to a full queue fails instead.
+ *
+ * @param <T> the type of the elements
+ */
+public class SpscQueue<T> {
+    // The elements, indexed by sequence number modulo the capacity.
+    private final Object[] elements;
+    // The mask of the capacity, which is a power of two.
+    private final int mask;
+    // The sequence number of the next element to poll, written by the consumer.
+    private final AtomicLong head = new AtomicLong();
+    // The sequence number of the next element to offer, written by the producer.
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Construct a new SpscQueue.
+     *
+     * @param capacity the minimum capacity, rounded up to a power of two
+     */
+    public SpscQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.elements = new Object[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Add an element. Only call this from the producer thread.
+     *
+     * @param element the element
+     * @return whether the element was added, false if the queue is full
+     */
+    public boolean offer(T element) {
+        long tail = this.tail.get();
+        if (tail - this.head.get() >= this.elements.length) {
+            return false;
+        }
+        this.elements[(int) tail & this.mask] = element;
+        this.tail.lazySet(tail + 1);
+        return true;
+    }
+
+    /**
+     * Remove the oldest element. Only call this from the consumer thread.
+     *
+     * @return the oldest element, or null if the queue is empty
+     */
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        long head = this.head.get();
+        if (head >= this.tail.get()) {
+            return null;
+        }
+        int index = (int) head & this.mask;
+        T element = (T) this.elements[index];
+        this.elements[index] = null;
+        this.head.lazySet(head + 1);
+        return element;
+    }
+}
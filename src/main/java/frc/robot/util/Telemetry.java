@@ -0,0 +1,173 @@
+package frc.robot.util;
+
+import edu.wpi.first.networktables.BooleanPublisher;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.util.sendable.Sendable;
+import edu.wpi.first.util.sendable.SendableRegistry;
+import edu.wpi.first.wpilibj.smartdashboard.SendableBuilderImpl;
+
+import java.util.ArrayList;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Publishes values and sendables to NetworkTables through publishers that are created once, at the rate of their
+ * tier, and only when a value has changed.
+ */
+public class Telemetry {
+    // The table to publish to.
+    private final NetworkTable table;
+    // The period of the main loop in seconds.
+    private final double loopPeriod;
+    // The entries to publish.
+    private final ArrayList<Entry> entries = new ArrayList<>();
+    // The number of loops since the telemetry was created.
+    private long loops = 0;
+
+    /**
+     * Construct a new Telemetry.
+     *
+     * @param table      the table to publish to
+     * @param loopPeriod the period of the main loop in seconds
+     */
+    public Telemetry(NetworkTable table, double loopPeriod) {
+        this.table = table;
+        this.loopPeriod = loopPeriod;
+    }
+
+    /**
+     * Publish a sendable. Its properties are updated at the rate of the tier.
+     *
+     * @param key      the key of the sendable
+     * @param sendable the sendable
+     * @param tier     the update rate tier
+     */
+    public void addSendable(String key, Sendable sendable, Tier tier) {
+        NetworkTable dataTable = this.table.getSubTable(key);
+        SendableBuilderImpl builder = new SendableBuilderImpl();
+        builder.setTable(dataTable);
+        SendableRegistry.publish(sendable, builder);
+        builder.startListeners();
+        dataTable.getEntry(".name").setString(key);
+        this.add(new Entry(tier) {
+            @Override
+            void update() {
+                SendableRegistry.update(sendable);
+            }
+        });
+    }
+
+    /**
+     * Publish a double value.
+     *
+     * @param key      the key of the value
+     * @param supplier the supplier of the value
+     * @param tier     the update rate tier
+     */
+    public void addDouble(String key, DoubleSupplier supplier, Tier tier) {
+        DoublePublisher publisher = this.table.getDoubleTopic(key).publish();
+        this.add(new Entry(tier) {
+            boolean published = false;
+            double last;
+
+            @Override
+            void update() {
+                double value = supplier.getAsDouble();
+                if (!this.published || Double.doubleToLongBits(value) != Double.doubleToLongBits(this.last)) {
+                    publisher.set(value);
+                    this.last = value;
+                    this.published = true;
+                }
+            }
+        });
+    }
+
+    /**
+     * Publish a boolean value.
+     *
+     * @param key      the key of the value
+     * @param supplier the supplier of the value
+     * @param tier     the update rate tier
+     */
+    public void addBoolean(String key, BooleanSupplier supplier, Tier tier) {
+        BooleanPublisher publisher = this.table.getBooleanTopic(key).publish();
+        this.add(new Entry(tier) {
+            boolean published = false;
+            boolean last;
+
+            @Override
+            void update() {
+                boolean value = supplier.getAsBoolean();
+                if (!this.published || value != this.last) {
+                    publisher.set(value);
+                    this.last = value;
+                    this.published = true;
+                }
+            }
+        });
+    }
+
+    private void add(Entry entry) {
+        entry.loopsPerUpdate = Math.max(1, (int) Math.round(entry.tier.period / this.loopPeriod));
+        // Spread the entries of a tier over its loops.
+        entry.offset = this.entries.size() % entry.loopsPerUpdate;
+        this.entries.add(entry);
+        entry.update();
+    }
+
+    /**
+     * Update the entries that are due in this loop. Call this once per loop.
+     */
+    public void update() {
+        for (int i = 0; i < this.entries.size(); i++) {
+            var entry = this.entries.get(i);
+            if (this.loops % entry.loopsPerUpdate == entry.offset) {
+                entry.update();
+            }
+        }
+        this.loops++;
+    }
+
+    /**
+     * The update rate tiers, matching the periods of the widgets in the Elastic layout.
+     */
+    public enum Tier {
+        // Every loop.
+        LOOP(0.02),
+        // The period of the Elastic widgets.
+        DASHBOARD(0.06),
+        // Values that rarely change.
+        SLOW(1);
+
+        // The period of the tier in seconds.
+        private final double period;
+
+        /**
+         * Construct a new Tier.
+         *
+         * @param period the period of the tier in seconds
+         */
+        Tier(double period) {
+            this.period = period;
+        }
+    }
+
+    /**
+     * A published entry.
+     */
+    private abstract static class Entry {
+        // The update rate tier.
+        final Tier tier;
+        // The number of loops between two updates.
+        int loopsPerUpdate = 1;
+        // The loop within the period on which the entry is updated.
+        int offset = 0;
+
+        Entry(Tier tier) {
+            this.tier = tier;
+        }
+
+        abstract void update();
+    }
+}
@@ -0,0 +1,25 @@
+package frc.robot.util;
+
+/**
+ * Tunable constants that can be overridden with system properties named {@code tuning.<key>}, so simulation sweeps can
+ * try other values without code changes. Without an override, the default is used.
+ */
+public final class Tuning {
+    // The prefix of the system properties.
+    public static final String PREFIX = "tuning.";
+
+    private Tuning() {
+    }
+
+    /**
+     * Get a tunable constant.
+     *
+     * @param key          the key of the constant
+     * @param defaultValue the value used without an override
+     * @return the value of the constant
+     */
+    public static double get(String key, double defaultValue) {
+        String value = System.getProperty(PREFIX + key);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+}
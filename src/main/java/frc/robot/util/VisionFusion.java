@@ -0,0 +1,189 @@
+package frc.robot.util;
+
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.networktables.DoubleArrayPublisher;
+import edu.wpi.first.networktables.DoubleArraySubscriber;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableEvent;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.NetworkTableListener;
+
+import java.util.EnumSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fuses Limelight MegaTag2 pose estimates into the pose estimator of the odometry thread. The results are read on the
+ * NetworkTables listener thread and buffered, so the main loop only drains the buffer. Each measurement is checked
+ * against the odometry at its capture time and fused at that time. While the robot is disabled, the pose is reset to
+ * the last measurement instead, so a robot placed away from its assumed start pose is found before it is enabled.
+ */
+public class VisionFusion implements AutoCloseable {
+    // The number of measurements that can wait to be drained.
+    private static final int BUFFER_CAPACITY = 16;
+    // The size of the field in meters.
+    private static final double FIELD_LENGTH = 17.548;
+    private static final double FIELD_WIDTH = 8.052;
+    // The distance to the tags above which a measurement is rejected, in meters.
+    private static final double MAX_TAG_DISTANCE = 4;
+    // The difference to the odometry above which a measurement is rejected, in meters.
+    private static final double MAX_POSE_DIFFERENCE = 1;
+    // The standard deviation of a measurement of a single tag at 1 m, in meters.
+    private static final double BASE_STANDARD_DEVIATION = 0.3;
+    // The standard deviation of the heading, large enough that the heading is not corrected.
+    private static final double HEADING_STANDARD_DEVIATION = 9999999;
+
+    // The odometry to fuse the measurements into.
+    private final OdometryThread odometry;
+    // The robot orientation sent to the Limelight for MegaTag2.
+    private final DoubleArrayPublisher orientationPublisher;
+    private final double[] orientation = new double[6];
+    // The MegaTag2 results and the listener that reads them.
+    private final DoubleArraySubscriber poseSubscriber;
+    private final NetworkTableListener listener;
+
+    // The buffered measurements, indexed by sequence number modulo the capacity.
+    private final double[] timestamps = new double[BUFFER_CAPACITY];
+    private final double[] xs = new double[BUFFER_CAPACITY];
+    private final double[] ys = new double[BUFFER_CAPACITY];
+    private final double[] standardDeviations = new double[BUFFER_CAPACITY];
+    // The sequence number of the next measurement to drain, written by the main thread.
+    private final AtomicLong head = new AtomicLong();
+    // The sequence number of the next measurement to buffer, written by the listener thread.
+    private final AtomicLong tail = new AtomicLong();
+    // The odometry at the capture time of a measurement.
+    private final double[] historicalPose = new double[3];
+
+    // The number of results filtered out on the listener thread.
+    private volatile long filteredResults = 0;
+    // The number of measurements fused and rejected on the main thread, and of the resets to a measurement.
+    private long acceptedMeasurements = 0;
+    private long rejectedMeasurements = 0;
+    private long resets = 0;
+
+    /**
+     * Construct a new VisionFusion.
+     *
+     * @param limelight the name of the Limelight
+     * @param odometry  the odometry to fuse the measurements into
+     */
+    public VisionFusion(String limelight, OdometryThread odometry) {
+        this.odometry = odometry;
+        NetworkTable table = NetworkTableInstance.getDefault().getTable(limelight);
+        this.orientationPublisher = table.getDoubleArrayTopic("robot_orientation_set").publish();
+        this.poseSubscriber = table.getDoubleArrayTopic("botpose_orb_wpiblue").subscribe(new double[0]);
+        this.listener = NetworkTableListener.createListener(this.poseSubscriber,
+                EnumSet.of(NetworkTableEvent.Kind.kValueAll), this::onResult);
+    }
+
+    /**
+     * Buffer a MegaTag2 result. Called on the NetworkTables listener thread.
+     *
+     * @param event the value event of the result
+     */
+    private void onResult(NetworkTableEvent event) {
+        if (event.valueData == null) {
+            return;
+        }
+        double[] result = event.valueData.value.getDoubleArray();
+        if (result.length < 11) {
+            return;
+        }
+        double x = result[0];
+        double y = result[1];
+        double latency = result[6] / 1000;
+        int tagCount = (int) result[7];
+        double averageTagDistance = result[9];
+
+        if (tagCount == 0 || averageTagDistance > MAX_TAG_DISTANCE || x < 0 || x > FIELD_LENGTH || y < 0 || y > FIELD_WIDTH) {
+            this.filteredResults++;
+            return;
+        }
+
+        long tail = this.tail.get();
+        if (tail - this.head.get() >= BUFFER_CAPACITY) {
+            return;
+        }
+        int index = (int) (tail % BUFFER_CAPACITY);
+        this.timestamps[index] = event.valueData.value.getTime() / 1e6 - latency;
+        this.xs[index] = x;
+        this.ys[index] = y;
+        this.standardDeviations[index] = BASE_STANDARD_DEVIATION * averageTagDistance * averageTagDistance / tagCount;
+        this.tail.lazySet(tail + 1);
+    }
+
+    /**
+     * Send the robot orientation to the Limelight and fuse the buffered measurements. Call this once per loop from the
+     * main thread, after the odometry is updated.
+     *
+     * @param disabled whether the robot is disabled, in which case the pose is reset to the last measurement
+     */
+    public void update(boolean disabled) {
+        var pose = this.odometry.getPose();
+        this.orientation[0] = pose.getRotation().getDegrees();
+        this.orientationPublisher.set(this.orientation);
+
+        long head = this.head.get();
+        long tail = this.tail.get();
+        if (disabled && tail > head) {
+            // MegaTag2 takes its heading from the gyro, so the heading is kept.
+            int index = (int) ((tail - 1) % BUFFER_CAPACITY);
+            this.odometry.resetPose(new Pose2d(this.xs[index], this.ys[index], pose.getRotation()));
+            this.resets++;
+            this.head.lazySet(tail);
+            return;
+        }
+        for (long i = head; i < tail; i++) {
+            int index = (int) (i % BUFFER_CAPACITY);
+            double timestamp = this.timestamps[index];
+            if (!this.odometry.getHistory().sample(timestamp, this.historicalPose) || Math.hypot(
+                    this.xs[index] - this.historicalPose[0],
+                    this.ys[index] - this.historicalPose[1]) > MAX_POSE_DIFFERENCE) {
+                this.rejectedMeasurements++;
+                continue;
+            }
+            // MegaTag2 takes its heading from the gyro, so only the translation is trusted.
+            double standardDeviation = this.standardDeviations[index];
+            this.odometry.getEstimator().addVisionMeasurement(
+                    new Pose2d(this.xs[index], this.ys[index], Rotation2d.fromRadians(this.historicalPose[2])),
+                    timestamp, VecBuilder.fill(standardDeviation, standardDeviation, HEADING_STANDARD_DEVIATION));
+            this.acceptedMeasurements++;
+        }
+        this.head.lazySet(tail);
+    }
+
+    /**
+     * Get the number of measurements fused into the odometry.
+     *
+     * @return the number of fused measurements
+     */
+    public long getAcceptedMeasurements() {
+        return this.acceptedMeasurements;
+    }
+
+    /**
+     * Get the number of times the pose was reset to a measurement while disabled.
+     *
+     * @return the number of resets
+     */
+    public long getResets() {
+        return this.resets;
+    }
+
+    /**
+     * Get the number of measurements rejected as outliers.
+     *
+     * @return the number of rejected measurements
+     */
+    public long getRejectedMeasurements() {
+        return this.filteredResults + this.rejectedMeasurements;
+    }
+
+    @Override
+    public void close() {
+        this.listener.close();
+        this.poseSubscriber.close();
+        this.orientationPublisher.close();
+    }
+}
@@ -0,0 +1,111 @@
+package frc.robot.sim;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.wpilibj.TimedRobot;
+import frc.robot.util.InputLatency;
+import frc.robot.util.LoopProfiler;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+class HeadlessMatchTest {
+    // The wall-clock time a full match may take in seconds, generous so a loaded machine does not fail the test.
+    // Override it with -Dheadless.maxRunTime=SECONDS.
+    private static final double MAX_RUN_TIME = Double.parseDouble(System.getProperty("headless.maxRunTime", "30"));
+    // The distance autonomous must drive the robot in meters.
+    private static final double MIN_AUTONOMOUS_DISTANCE = 0.5;
+    // The allocation budgets of the stages of the loop, and the prefix of the system properties that override them.
+    private static final String ALLOCATION_BUDGETS = "allocation-budgets.properties";
+    private static final String ALLOCATION_BUDGET_PROPERTY = "headless.allocationBudget.";
+    // The ceiling of the p99 latency from the driver station packets to the drive outputs in teleoperated, in ms of
+    // simulated time: a packet waits at most one loop period for the loop that picks it up.
+    private static final double LATENCY_CEILING = TimedRobot.kDefaultPeriod * 1000;
+
+    // The match shared by the tests.
+    private static HeadlessSimulation simulation;
+    // The wall-clock time the match took in seconds.
+    private static double runTime;
+    // The pose of the simulated drivetrain before the match.
+    private static Pose2d startPose;
+    // The bytes each stage of the loop allocated per loop while enabled.
+    private static Map<String, Double> allocations;
+
+    @BeforeAll
+    static void runMatch() {
+        simulation = new HeadlessSimulation();
+        assertNotNull(simulation.getSimulation(), "The robot has no physics in simulation");
+        assertTrue(simulation.warmUp(HeadlessSimulation.WARMUP_TIMEOUT), "The warmup did not finish");
+        startPose = simulation.getSimulation().getDrivetrain().getPose();
+        runTime = simulation.runMatch();
+        allocations = LoopProfiler.getInstance().getAllocatedBytesPerLoop(false);
+    }
+
+    @AfterAll
+    static void close() {
+        simulation.close();
+    }
+
+    @Test
+    void matchRunsWithinTheTimeLimit() {
+        String speed = String.format("Simulated %.0f s in %.3f s (%.0fx real time)", HeadlessSimulation.MATCH_TIME,
+                runTime, HeadlessSimulation.MATCH_TIME / runTime);
+        System.out.println(speed);
+        assertTrue(runTime < MAX_RUN_TIME, speed + ", over the limit of " + MAX_RUN_TIME + " s");
+    }
+
+    @Test
+    void robotDrivesOnThePhysics() {
+        var pose = simulation.getSimulation().getDrivetrain().getPose();
+        double distance = pose.getTranslation().getDistance(startPose.getTranslation());
+        assertTrue(distance > MIN_AUTONOMOUS_DISTANCE, "The robot drove " + distance + " m");
+    }
+
+    @Test
+    void everyStageIsWithinItsAllocationBudget() throws IOException {
+        assumeFalse(allocations.isEmpty(), "The JVM does not count the allocations");
+        var budgets = new Properties();
+        try (var input = HeadlessMatchTest.class.getResourceAsStream(ALLOCATION_BUDGETS)) {
+            assertNotNull(input, "Missing " + ALLOCATION_BUDGETS);
+            budgets.load(input);
+        }
+
+        var failures = new ArrayList<String>();
+        for (var allocation : allocations.entrySet()) {
+            String stage = allocation.getKey();
+            String budget = System.getProperty(ALLOCATION_BUDGET_PROPERTY + stage, budgets.getProperty(stage));
+            if (budget == null) {
+                failures.add(String.format("%s has no budget, allocated %.0f B per loop", stage,
+                        allocation.getValue()));
+            } else if (allocation.getValue() > Double.parseDouble(budget)) {
+                failures.add(String.format("%s allocated %.0f B per loop, over its budget of %s", stage,
+                        allocation.getValue(), budget));
+            }
+        }
+        assertTrue(failures.isEmpty(), String.join("\n", failures) + "\nAll stages: " + allocations);
+    }
+
+    @Test
+    void inputLatencyIsUnderTheCeiling() {
+        var latency = simulation.getRobot().getContainer().getInputLatency();
+        assertTrue(latency.getTracedLoops() > 0, "No loop traced the driver inputs to the drive outputs");
+        double p99 = latency.getPercentile(InputLatency.Segment.TOTAL, 0.99);
+        assertTrue(p99 <= LATENCY_CEILING, String.format("p99 total latency of %.2f ms over %d loops", p99,
+                latency.getTracedLoops()));
+    }
+
+    @Test
+    void everyPacketIsPickedUpByTheNextLoop() {
+        var latency = simulation.getRobot().getContainer().getInputLatency();
+        assertEquals(0, latency.getLatePackets(), "Driver station packets missed by a loop in teleoperated");
+    }
+}
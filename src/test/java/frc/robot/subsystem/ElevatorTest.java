@@ -0,0 +1,80 @@
+package frc.robot.subsystem;
+
+import com.sun.management.ThreadMXBean;
+import com.ctre.phoenix.motorcontrol.TalonSRXSimCollection;
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.simulation.DIOSim;
+import frc.robot.subsystem.io.ElevatorIOReal;
+import frc.robot.util.Sensors;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class ElevatorTest {
+    // The number of loops run before measuring, so the loop is compiled.
+    private static final int WARMUP_LOOPS = 20_000;
+    // The number of loops measured.
+    private static final int MEASURED_LOOPS = 1_000;
+    // The sensor units of the quadrature encoder per radian.
+    private static final double SENSOR_UNITS_PER_RADIAN = 4096 / (2 * Math.PI);
+
+    @BeforeAll
+    static void initialize() {
+        assertTrue(HAL.initialize(500, 0));
+    }
+
+    @Test
+    void steadyStatePeriodicAllocatesNothing() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof ThreadMXBean);
+        var threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        // Run the hardware layer of the robot on the simulated Talons and limit switch, detached from the scheduler,
+        // the alerts and the data log. Home the elevator, then hold a level with the position moving around it, as
+        // during a match.
+        var time = new double[1];
+        var sensors = new Sensors(() -> time[0]);
+        var io = new ElevatorIOReal();
+        var talon = io.getLeader().getMotor().getSimCollection();
+        // The limit switch is active low.
+        var limitSwitch = new DIOSim(Elevator.LIMIT_SWITCH_CHANNEL);
+        var elevator = Elevator.createDetached(sensors, io);
+        limitSwitch.setValue(false);
+        this.loop(sensors, elevator, time, 0);
+        limitSwitch.setValue(true);
+        elevator.moveTo(Elevator.Level.L3);
+
+        for (int i = 0; i < WARMUP_LOOPS; i++) {
+            this.setPosition(talon, i);
+            this.loop(sensors, elevator, time, i);
+        }
+
+        // Only the loop is measured, not the writes to the simulated sensors.
+        long allocated = 0;
+        for (int i = 0; i < MEASURED_LOOPS; i++) {
+            this.setPosition(talon, i);
+            long before = threads.getCurrentThreadAllocatedBytes();
+            this.loop(sensors, elevator, time, WARMUP_LOOPS + i);
+            allocated += threads.getCurrentThreadAllocatedBytes() - before;
+        }
+
+        assertEquals(0, allocated, "Bytes allocated by " + MEASURED_LOOPS + " loops of Elevator.periodic()");
+    }
+
+    private void setPosition(TalonSRXSimCollection talon, int loop) {
+        double position = Elevator.Level.L3.getSensorPositionRadians() + Math.sin(loop);
+        talon.setQuadratureRawPosition((int) (position * SENSOR_UNITS_PER_RADIAN));
+    }
+
+    private void loop(Sensors sensors, Elevator elevator, double[] time, int loop) {
+        time[0] = loop * 0.02;
+        sensors.sample();
+        elevator.periodic();
+    }
+}
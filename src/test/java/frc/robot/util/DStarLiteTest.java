@@ -0,0 +1,174 @@
+package frc.robot.util;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DStarLiteTest {
+    // The steps to the eight neighbours of a cell and their costs, as in DStarLite.
+    private static final int[] DX = {1, 1, 0, -1, -1, -1, 0, 1};
+    private static final int[] DY = {0, 1, 1, 1, 0, -1, -1, -1};
+    private static final double STRAIGHT_COST = 1000;
+    private static final double DIAGONAL_COST = 1414;
+    // The number of random scenarios, and the plans in each.
+    private static final int SCENARIOS = 20;
+    private static final int PLANS = 100;
+    // The number of dynamic obstacles added and removed between two plans, at most.
+    private static final int OBSTACLE_CHANGES = 8;
+    // The number of cells along the last path the start moves between two plans, at most.
+    private static final int START_STEPS = 3;
+    // The chance that the goal changes between two plans.
+    private static final double GOAL_CHANGE_CHANCE = 0.05;
+
+    // The navigation grid of the field.
+    private static NavGrid grid;
+
+    @BeforeAll
+    static void loadGrid() throws IOException {
+        grid = NavGrid.fromJson(Path.of("src/main/deploy/pathplanner/navgrid.json"));
+    }
+
+    @Test
+    void repairedPlansMatchDijkstra() {
+        for (int scenario = 0; scenario < SCENARIOS; scenario++) {
+            var random = new Random(scenario);
+            var pathfinder = new DStarLite(grid);
+            var dynamicObstacles = new boolean[grid.getCells()];
+            int start = this.randomFreeCell(random, dynamicObstacles);
+            int goal = this.randomFreeCell(random, dynamicObstacles);
+
+            for (int plan = 0; plan < PLANS; plan++) {
+                String context = "scenario " + scenario + ", plan " + plan;
+                boolean found = pathfinder.plan(start, goal);
+                double expected = this.dijkstra(start, goal, dynamicObstacles);
+                if (expected == Double.POSITIVE_INFINITY) {
+                    assertFalse(found, "Found a path where Dijkstra has none, " + context);
+                } else {
+                    assertTrue(found, "Found no path where Dijkstra has one, " + context);
+                    assertEquals(expected, this.getPathCost(pathfinder, start, goal, dynamicObstacles),
+                            "Path cost, " + context);
+                }
+
+                // Move the start along the path, as the robot follows it, or anywhere if there is no path.
+                if (found) {
+                    start = pathfinder.getPathCell(
+                            Math.min(random.nextInt(START_STEPS + 1), pathfinder.getPathLength() - 1));
+                } else {
+                    start = this.randomFreeCell(random, dynamicObstacles);
+                }
+                if (random.nextDouble() < GOAL_CHANGE_CHANCE) {
+                    goal = this.randomFreeCell(random, dynamicObstacles);
+                }
+                // Block and free random cells, which can be on the path, the start or the goal.
+                for (int i = random.nextInt(OBSTACLE_CHANGES + 1); i > 0; i--) {
+                    int cell = random.nextInt(grid.getCells());
+                    dynamicObstacles[cell] = true;
+                    pathfinder.addDynamicObstacle(cell % grid.getColumns(), cell / grid.getColumns());
+                }
+                for (int i = random.nextInt(OBSTACLE_CHANGES + 1); i > 0; i--) {
+                    int cell = random.nextInt(grid.getCells());
+                    dynamicObstacles[cell] = false;
+                    pathfinder.removeDynamicObstacle(cell);
+                }
+            }
+        }
+    }
+
+    private int randomFreeCell(Random random, boolean[] dynamicObstacles) {
+        while (true) {
+            int cell = random.nextInt(grid.getCells());
+            if (!this.isBlocked(cell, dynamicObstacles)) {
+                return cell;
+            }
+        }
+    }
+
+    private boolean isBlocked(int cell, boolean[] dynamicObstacles) {
+        return grid.isBlocked(cell) || dynamicObstacles[cell];
+    }
+
+    /**
+     * Get the cost of a step between two cells, or infinity if the step is not allowed: a step must be to one of the
+     * eight neighbours, between free cells, and a diagonal step may not cut the corner of an obstacle.
+     */
+    private double getStepCost(int from, int to, boolean[] dynamicObstacles) {
+        int columns = grid.getColumns();
+        int dx = to % columns - from % columns;
+        int dy = to / columns - from / columns;
+        if (Math.abs(dx) > 1 || Math.abs(dy) > 1 || dx == 0 && dy == 0 || this.isBlocked(from, dynamicObstacles)
+                || this.isBlocked(to, dynamicObstacles)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        if (dx != 0 && dy != 0) {
+            if (this.isBlocked(from + dx, dynamicObstacles) || this.isBlocked(from + dy * columns, dynamicObstacles)) {
+                return Double.POSITIVE_INFINITY;
+            }
+            return DIAGONAL_COST;
+        }
+        return STRAIGHT_COST;
+    }
+
+    /**
+     * Check the path of the last plan and get its cost.
+     */
+    private double getPathCost(DStarLite pathfinder, int start, int goal, boolean[] dynamicObstacles) {
+        int length = pathfinder.getPathLength();
+        assertEquals(start, pathfinder.getPathCell(0), "Path start");
+        assertEquals(goal, pathfinder.getPathCell(length - 1), "Path end");
+        double cost = 0;
+        for (int i = 1; i < length; i++) {
+            cost += this.getStepCost(pathfinder.getPathCell(i - 1), pathfinder.getPathCell(i), dynamicObstacles);
+        }
+        return cost;
+    }
+
+    /**
+     * Get the cost of the shortest path from the start to the goal with Dijkstra's algorithm, searched from scratch.
+     */
+    private double dijkstra(int start, int goal, boolean[] dynamicObstacles) {
+        if (this.isBlocked(start, dynamicObstacles) || this.isBlocked(goal, dynamicObstacles)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        int columns = grid.getColumns();
+        var distances = new double[grid.getCells()];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        distances[start] = 0;
+        var queue = new PriorityQueue<double[]>((a, b) -> Double.compare(a[0], b[0]));
+        queue.add(new double[]{0, start});
+        while (!queue.isEmpty()) {
+            var entry = queue.poll();
+            int cell = (int) entry[1];
+            if (entry[0] > distances[cell]) {
+                continue;
+            }
+            if (cell == goal) {
+                return entry[0];
+            }
+            int column = cell % columns;
+            int row = cell / columns;
+            for (int i = 0; i < 8; i++) {
+                int toColumn = column + DX[i];
+                int toRow = row + DY[i];
+                if (toColumn < 0 || toRow < 0 || toColumn >= columns || toRow >= grid.getRows()) {
+                    continue;
+                }
+                int neighbour = toRow * columns + toColumn;
+                double distance = entry[0] + this.getStepCost(cell, neighbour, dynamicObstacles);
+                if (distance < distances[neighbour]) {
+                    distances[neighbour] = distance;
+                    queue.add(new double[]{distance, neighbour});
+                }
+            }
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+}